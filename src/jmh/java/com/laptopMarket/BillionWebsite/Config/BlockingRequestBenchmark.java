@@ -0,0 +1,137 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of requests whose handlers block on an upstream HTTP call — what
+ * product upload does while Cloudinary stores the images — served the two
+ * ways spring.threads.virtual.enabled switches between:
+ *
+ *   threads=platform   Tomcat's default pool, 200 request threads
+ *   threads=virtual    one virtual thread per request
+ *
+ *   blocking=plain          the upstream call blocks normally
+ *   blocking=synchronized   it blocks inside a synchronized block, which pins
+ *                           the virtual thread to its carrier on Java 21 —
+ *                           what VirtualThreadPinningMonitor reports
+ *
+ * The upstream is a local stub answering after UPSTREAM_LATENCY_MS, so the
+ * score is how long the whole burst takes to be served. Pinned bursts take
+ * about REQUESTS_PER_BURST × latency / cores — run with few iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingRequestBenchmark {
+
+    private static final int REQUESTS_PER_BURST = 400;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long UPSTREAM_LATENCY_MS = 20;
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"plain", "synchronized"})
+    String blocking;
+
+    private HttpServer upstream;
+    private HttpClient client;
+    private HttpRequest upload;
+    private ExecutorService requestThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), REQUESTS_PER_BURST);
+        // The stub and the client's completion threads stay platform threads, so
+        // pinned request threads cannot starve the side that answers them
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/upload", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"secure_url\":\"https://img.test/1.jpg\"}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newCachedThreadPool())
+            .build();
+        upload = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + upstream.getAddress().getPort() + "/upload"))
+            .POST(HttpRequest.BodyPublishers.ofString("image"))
+            .build();
+
+        requestThreads = threads.equals("virtual")
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        client.shutdownNow();
+        upstream.stop(0);
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        boolean pin = blocking.equals("synchronized");
+        List<Future<Integer>> served = new ArrayList<>(REQUESTS_PER_BURST);
+        for (int i = 0; i < REQUESTS_PER_BURST; i++) {
+            served.add(requestThreads.submit(() -> pin ? handlePinned() : handle()));
+        }
+
+        int ok = 0;
+        for (Future<Integer> request : served) {
+            if (request.get() == 200) ok++;
+        }
+        return ok;
+    }
+
+    private int handle() throws Exception {
+        return client.send(upload, HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    private int handlePinned() throws Exception {
+        Object perRequestLock = new Object();   // no contention: only the pinning costs anything
+        synchronized (perRequestLock) {
+            return handle();
+        }
+    }
+}
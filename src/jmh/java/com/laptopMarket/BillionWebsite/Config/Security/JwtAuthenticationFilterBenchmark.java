@@ -0,0 +1,106 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JwtAuthenticationFilter, steady state: the same client sends the same
+ * access token on every request.
+ *
+ *   tokenCache=true    verified claims come from VerifiedTokenCache (SHA-256 of the token + lookup)
+ *   tokenCache=false   every request decrypts and checks the signature again
+ *
+ * The account lookup is a stubbed repository, standing in for a hit in the
+ * principal cache, so the difference between the two is the token work alone.
+ */
+@State(Scope.Thread)   // SecurityContextHolder is thread-bound
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String ENCRYPTION_KEY_HEX =
+        "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f";
+    private static final String JWT_SECRET = "benchmark-only-jwt-secret-0123456789";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"true", "false"})
+    boolean tokenCache;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        VerifiedTokenCache verifiedTokens = tokenCache
+            ? new VerifiedTokenCache(10_000)
+            : new VerifiedTokenCache(10_000) {
+                @Override
+                public AccessToken get(String key) {
+                    return null;
+                }
+            };
+
+        TokenService tokenService = new TokenService(
+            null, null, new TokenEncryptionService(ENCRYPTION_KEY_HEX), verifiedTokens);
+        ReflectionTestUtils.setField(tokenService, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(tokenService, "accessExpirationMs", TimeUnit.HOURS.toMillis(1));
+
+        User user = User.builder()
+            .id(UUID.randomUUID())
+            .email("ada@mail.test")
+            .role(Role.USER)
+            .build();
+        UserRepo userRepo = mock(UserRepo.class);
+        when(userRepo.findByEmail("ada@mail.test")).thenReturn(Optional.of(user));
+
+        filter = new JwtAuthenticationFilter(tokenService, new PrincipalLookup(userRepo, mock(AdminRepo.class)));
+
+        request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + tokenService.generateAccessToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        SecurityContextHolder.clearContext();   // a new request starts unauthenticated
+        filter.doFilterInternal(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
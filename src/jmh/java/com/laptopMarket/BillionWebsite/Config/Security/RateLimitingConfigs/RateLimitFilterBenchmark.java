@@ -0,0 +1,71 @@
+package com.laptopMarket.BillionWebsite.Config.Security.RateLimitingConfigs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter.getIdentifier — runs on every request that is not
+ * excluded from rate limiting.
+ *
+ *   ip            rate.limit.track-by-ip=true, client behind a proxy (X-Forwarded-For)
+ *   ip-direct     track-by-ip, no proxy headers — walks every header name first
+ *   user          track by principal, authenticated request
+ */
+@State(Scope.Thread)   // SecurityContextHolder is thread-bound
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    @Param({"ip", "ip-direct", "user"})
+    String mode;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        RateLimitingProperties properties = new RateLimitingProperties();
+        properties.setTrackByIp(!"user".equals(mode));
+        filter = new RateLimitFilter(null, properties, null);
+
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.setRemoteAddr("10.0.0.1");
+        if (!"ip-direct".equals(mode)) {
+            request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        }
+        if ("user".equals(mode)) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "ada@mail.test", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String getIdentifier() {
+        return filter.getIdentifier(request);
+    }
+}
@@ -0,0 +1,125 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request token work: AES-GCM encrypt / decrypt of the JWT, and
+ * getEmailFromAccessToken for a token seen before (served from
+ * VerifiedTokenCache). The uncached decrypt + signature check + claims
+ * parse is JwtAuthenticationFilterBenchmark with tokenCache=false.
+ *
+ * *PerCallCipher is the encryption as it was before the Cipher pool — new
+ * SecureRandom, Cipher.getInstance and ByteBuffer copies on every call —
+ * kept as the baseline. Run with -t 8 to see the pool under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+
+    // Fixed benchmark-only keys, same sizes as production (AES-256, 32+ byte HS256 secret)
+    private static final String ENCRYPTION_KEY_HEX =
+        "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f";
+    private static final String JWT_SECRET = "benchmark-only-jwt-secret-0123456789";
+
+    private TokenEncryptionService encryptionService;
+    private TokenService tokenService;
+    private String plainToken;
+    private String accessToken;
+    private SecretKey encryptionKey;
+
+    @Setup
+    public void setUp() {
+        encryptionService = new TokenEncryptionService(ENCRYPTION_KEY_HEX);
+        tokenService = new TokenService(null, null, encryptionService, new VerifiedTokenCache(10_000));
+        ReflectionTestUtils.setField(tokenService, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(tokenService, "accessExpirationMs", TimeUnit.HOURS.toMillis(1));
+
+        User user = User.builder()
+            .id(UUID.randomUUID())
+            .email("ada@mail.test")
+            .role(Role.USER)
+            .build();
+        accessToken = tokenService.generateAccessToken(user);
+        plainToken = encryptionService.decryptToken(accessToken);
+        encryptionKey = new SecretKeySpec(HexFormat.of().parseHex(ENCRYPTION_KEY_HEX), "AES");
+    }
+
+    @Benchmark
+    public String encryptToken() {
+        return encryptionService.encryptToken(plainToken);
+    }
+
+    @Benchmark
+    public String decryptToken() {
+        return encryptionService.decryptToken(accessToken);
+    }
+
+    @Benchmark
+    public String encryptTokenPerCallCipher() throws Exception {
+        return PerCallCipher.encrypt(encryptionKey, plainToken);
+    }
+
+    @Benchmark
+    public String decryptTokenPerCallCipher() throws Exception {
+        return PerCallCipher.decrypt(encryptionKey, accessToken);
+    }
+
+    @Benchmark
+    public String getEmailFromAccessToken() {
+        return tokenService.getEmailFromAccessToken(accessToken);
+    }
+
+    /** TokenEncryptionService before the Cipher pool, same wire format. */
+    private static final class PerCallCipher {
+
+        static String encrypt(SecretKey key, String plainToken) throws Exception {
+            byte[] iv = new byte[12];
+            new SecureRandom().nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+            byte[] encryptedBytes = cipher.doFinal(plainToken.getBytes("UTF-8"));
+            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedBytes.length);
+            byteBuffer.put(iv);
+            byteBuffer.put(encryptedBytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(byteBuffer.array());
+        }
+
+        static String decrypt(SecretKey key, String encryptedToken) throws Exception {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(encryptedToken));
+            byte[] iv = new byte[12];
+            byteBuffer.get(iv);
+            byte[] cipherText = new byte[byteBuffer.remaining()];
+            byteBuffer.get(cipherText);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+            return new String(cipher.doFinal(cipherText), "UTF-8");
+        }
+    }
+}
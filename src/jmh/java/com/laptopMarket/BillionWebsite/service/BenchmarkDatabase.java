@@ -0,0 +1,45 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Minimal Spring context over in-memory H2 for database-backed harnesses:
+ * the Flyway schema, the JPA repositories and the services under test —
+ * no web server, no application.properties, no external services.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.laptopMarket.BillionWebsite.entity")
+    @EnableJpaRepositories("com.laptopMarket.BillionWebsite.entity.repo")
+    @Import(CartService.class)
+    static class Context {
+    }
+
+    static ConfigurableApplicationContext start(String name) {
+        return new SpringApplicationBuilder(Context.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .properties(
+                "spring.config.name=benchmark",
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.flyway.locations=classpath:db/migration/common",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "spring.jpa.open-in-view=false")
+            .run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.CartResponse;
+import com.laptopMarket.BillionWebsite.entity.CartItem;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.CartItemRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartService.getCart against H2 — the cart query, the lazy product and
+ * image loads, and the totals. Runs in a read-only transaction the way a
+ * request does with open-in-view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    @Param({"1", "10"})
+    int items;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private TransactionTemplate readOnly;
+    private UUID userId;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start("cart-" + items);
+        cartService = context.getBean(CartService.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        ShopOwner owner = context.getBean(AdminRepo.class).save(ShopOwner.builder()
+            .name("Benchmark Shop")
+            .email("owner@shop.test")
+            .build());
+        User user = context.getBean(UserRepo.class).save(User.builder()
+            .firstName("Ada")
+            .lastName("Lovelace")
+            .email("ada@mail.test")
+            .build());
+        userId = user.getId();
+
+        ProductRepository products = context.getBean(ProductRepository.class);
+        CartItemRepository cart = context.getBean(CartItemRepository.class);
+        for (int i = 0; i < items; i++) {
+            Product product = products.save(CatalogFixtures.product(i, 3, owner));
+
+            cart.save(CartItem.builder()
+                .user(user)
+                .product(product)
+                .quantity(1 + i % 3)
+                .unitPrice(product.getPrice())
+                .subtotal(product.getPrice().multiply(BigDecimal.valueOf(1 + i % 3)))
+                .build());
+        }
+
+        // getCart prints a line per call; keep it off the console, the call still pays for it
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+        context.close();
+    }
+
+    @Benchmark
+    public CartResponse getCart() {
+        return readOnly.execute(status -> cartService.getCart(userId));
+    }
+}
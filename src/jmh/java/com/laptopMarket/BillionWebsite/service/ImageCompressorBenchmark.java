@@ -0,0 +1,159 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compressing an over-budget upload to 500KB, the way CloudinaryService
+ * does before uploading, over a corpus of laptop-photo-like JPEGs
+ * (gradient backdrop, a few shapes, sensor grain) at camera and phone sizes:
+ *
+ *   compressor   ImageCompressor — subsampled decode, quality binary search,
+ *                one writer and reused buffers
+ *   linear       the loop it replaced — full-resolution decode, then a new
+ *                writer and a file write per 0.1 quality step
+ *
+ * Run with -prof gc to compare allocation per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class ImageCompressorBenchmark {
+
+    private static final long MAX_SIZE_BYTES = 500 * 1024;
+
+    @Param({"4000x3000", "3000x2000", "1920x1080"})
+    String photo;
+
+    private Path dir;
+    private Path source;
+    private Path target;
+    private ImageCompressor compressor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("compress-bench-");
+        String[] size = photo.split("x");
+        source = dir.resolve("photo.jpg");
+        writeJpeg(laptopPhoto(Integer.parseInt(size[0]), Integer.parseInt(size[1])), 0.95f, source);
+        target = dir.resolve("out.jpg");
+        compressor = new ImageCompressor(2048);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ImageCompressor.Result compressor() throws IOException {
+        return compressor.compress(source, target, MAX_SIZE_BYTES);
+    }
+
+    @Benchmark
+    public long linear() throws IOException {
+        BufferedImage image = ImageIO.read(source.toFile());
+        float quality = 0.85f;
+        long size = Files.size(source);
+        while (size > MAX_SIZE_BYTES && quality > 0.1f) {
+            Files.deleteIfExists(target);
+            writeJpeg(image, quality, target);
+            size = Files.size(target);
+            quality -= 0.1f;
+        }
+        return size;
+    }
+
+    // ── Corpus ───────────────────────────────────────────────
+
+    private static BufferedImage laptopPhoto(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(235, 235, 240), 0, height, new Color(150, 155, 165)));
+        g.fillRect(0, 0, width, height);
+
+        // Lid and base of the laptop, a screen, a keyboard grid
+        int lidW = width * 3 / 5, lidH = height * 2 / 5, x = width / 5, y = height / 8;
+        g.setColor(new Color(60, 62, 68));
+        g.fillRoundRect(x, y, lidW, lidH, width / 60, width / 60);
+        g.setPaint(new GradientPaint(x, y, new Color(20, 70, 140), x + lidW, y + lidH, new Color(200, 90, 40)));
+        g.fillRect(x + lidW / 30, y + lidH / 20, lidW * 14 / 15, lidH * 9 / 10);
+        g.setColor(new Color(185, 188, 195));
+        Polygon base = new Polygon(
+            new int[] {x, x + lidW, x + lidW + width / 12, x - width / 12},
+            new int[] {y + lidH, y + lidH, y + lidH + height / 4, y + lidH + height / 4}, 4);
+        g.fillPolygon(base);
+        g.setColor(new Color(45, 45, 50));
+        int keyW = lidW / 16, keyH = height / 40;
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 14; col++) {
+                g.fillRect(x + keyW + col * keyW, y + lidH + keyH + row * keyH * 3 / 2, keyW * 4 / 5, keyH);
+            }
+        }
+        g.dispose();
+
+        // Sensor grain is what makes real photos expensive to compress
+        Random random = new Random(width * 31L + height);
+        int[] row = new int[width];
+        for (int py = 0; py < height; py++) {
+            image.getRGB(0, py, width, 1, row, 0, width);
+            for (int px = 0; px < width; px++) {
+                int grain = random.nextInt(17) - 8, rgb = row[px];
+                row[px] = channel(rgb, 16, grain) | channel(rgb, 8, grain) | channel(rgb, 0, grain);
+            }
+            image.setRGB(0, py, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private static int channel(int rgb, int offset, int delta) {
+        return Math.clamp(((rgb >> offset) & 0xFF) + delta, 0, 255) << offset;
+    }
+
+    private static void writeJpeg(BufferedImage image, float quality, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.Config.CloudinaryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The whole upload path — spool, hash, compress, store with variants —
+ * for one product's images, on LocalImageStore so it runs with no network.
+ * The hash index never matches here: every batch is stored for real.
+ *
+ *   photo=small   640x480, under 500KB: stored as is
+ *   photo=large   1920x1080 sensor noise, over 500KB: compressed first
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImageUploadBenchmark {
+
+    private static final int IMAGES_PER_PRODUCT = 4;
+
+    @Param({"small", "large"})
+    String photo;
+
+    private Path dir;
+    private Path storeRoot;
+    private ExecutorService uploadExecutor;
+    private CloudinaryService service;
+    private List<MultipartFile> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("upload-bench-");
+        storeRoot = dir.resolve("images");
+        uploadExecutor = new CloudinaryConfig().imageUploadExecutor(4, 64);
+
+        service = new CloudinaryService();
+        ReflectionTestUtils.setField(service, "imageStore", new LocalImageStore(storeRoot, "/images"));
+        ReflectionTestUtils.setField(service, "imageCompressor", new ImageCompressor(2048));
+        ReflectionTestUtils.setField(service, "imageHashIndex", new ImageHashIndex(null) {
+            @Override public Optional<Map> find(String sha256) { return Optional.empty(); }
+            @Override public void record(String sha256, Map uploadResult) { }
+            @Override public void forget(String publicId) { }
+        });
+        ReflectionTestUtils.setField(service, "uploadExecutor", uploadExecutor);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "uploadTimeoutSeconds", 120L);
+        ReflectionTestUtils.setField(service, "spoolDir", Files.createDirectory(dir.resolve("spool")).toString());
+
+        files = new ArrayList<>();
+        for (int i = 0; i < IMAGES_PER_PRODUCT; i++) {
+            byte[] bytes = photo.equals("small") ? png(640, 480, i, 4) : png(1920, 1080, i, 256);
+            files.add(new MockMultipartFile("images", "photo-" + i + ".png", "image/png", bytes));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void emptyStore() throws IOException {
+        delete(storeRoot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        uploadExecutor.shutdownNow();
+        delete(dir);
+    }
+
+    @Benchmark
+    public List<Map> uploadProductImages() throws IOException {
+        return service.uploadImages(files, "laptopstore/products");
+    }
+
+    // levels = how many distinct values each channel takes: few compress well, 256 is noise
+    private static byte[] png(int width, int height, long seed, int levels) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        int step = 256 / levels;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int gray = random.nextInt(levels) * step;
+                image.setRGB(x, y, (gray << 16) | (x * 255 / width) << 8 | (y * 255 / height));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.OrderResponse;
+import com.laptopMarket.BillionWebsite.entity.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.mapToResponse — the response half of placeOrder, also
+ * used for every entry of "my orders".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10"})
+    int lines;
+
+    private OrderService service;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        service = new OrderService(null, null, null, null, null, null, null);
+        order = CatalogFixtures.order(lines);
+    }
+
+    @Benchmark
+    public OrderResponse mapToResponse() {
+        return service.mapToResponse(order);
+    }
+}
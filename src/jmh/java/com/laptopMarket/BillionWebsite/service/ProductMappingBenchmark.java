@@ -0,0 +1,48 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserProductService.mapToResponse — runs once per product on every
+ * catalog page, so its cost is multiplied by the page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"1", "5"})
+    int images;
+
+    private UserProductService service;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        service = new UserProductService(null, CatalogFixtures.offlineCloudinaryService(), null, null);
+        product = CatalogFixtures.product(1, images, CatalogFixtures.owner());
+        product.setId(1L);
+    }
+
+    @Benchmark
+    public ProductResponse mapToResponse() {
+        return service.mapToResponse(product);
+    }
+}
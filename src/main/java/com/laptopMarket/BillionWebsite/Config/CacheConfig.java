@@ -0,0 +1,104 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through caches in front of the customer catalog (UserProductService).
+ * Entries are evicted by ProductCatalogCache whenever a product is written,
+ * the TTL is only a safety net. Stats are recorded so hit / miss / eviction
+ * counts reach the MeterRegistry as cache.gets / cache.evictions.
+ * Listing pages are indexed per category / brand in ListingKeyIndex so a
+ * write evicts them by key.
+ *
+ * PRINCIPALS holds the authenticated account per (role, email) for
+ * JwtAuthenticationFilter — see PrincipalLookup. Its TTL is short on
+ * purpose: it bounds how long a change made by another instance goes unseen.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCT           = "catalog.product";            // id → ProductResponse
+    public static final String CATEGORY_LISTINGS = "catalog.category-listings";  // (category, sort, size, cursor) → page
+    public static final String BRAND_LISTINGS    = "catalog.brand-listings";     // (brand, sort, size, cursor) → page
+    public static final String CATEGORIES        = "catalog.categories";         // all distinct categories
+    public static final String BRANDS            = "catalog.brands";             // all distinct brands
+    public static final String PRINCIPALS        = "auth.principals";            // ROLE|email → UserDetails
+
+    @Value("${catalog.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${catalog.cache.max-products:10000}")
+    private long maxProducts;
+
+    @Value("${catalog.cache.max-listing-pages:2000}")
+    private long maxListingPages;
+
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long principalTtlSeconds;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private long maxPrincipals;
+
+    @Bean
+    public ListingKeyIndex listingKeyIndex() {
+        return new ListingKeyIndex();
+    }
+
+    @Bean
+    public CacheManager cacheManager(ListingKeyIndex listingKeys) {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            // Listing pages enter ListingKeyIndex when they are cached, not when they are looked up
+            @Override
+            protected CaffeineCache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return name.equals(CATEGORY_LISTINGS) || name.equals(BRAND_LISTINGS)
+                        ? new ListingKeyIndex.IndexedCache(name, cache, isAllowNullValues(), listingKeys)
+                        : new CaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        // Only the caches registered below exist — a typo in a cache name fails fast
+        manager.setCacheNames(List.of());
+
+        manager.registerCustomCache(PRODUCT,           build(maxProducts));
+        manager.registerCustomCache(CATEGORY_LISTINGS, listings(CATEGORY_LISTINGS, listingKeys));
+        manager.registerCustomCache(BRAND_LISTINGS,    listings(BRAND_LISTINGS, listingKeys));
+        manager.registerCustomCache(CATEGORIES,        build(1));
+        manager.registerCustomCache(BRANDS,            build(1));
+        manager.registerCustomCache(PRINCIPALS,        build(maxPrincipals, Duration.ofSeconds(principalTtlSeconds)));
+        return manager;
+    }
+
+    private Cache<Object, Object> build(long maximumSize) {
+        return build(maximumSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    private Cache<Object, Object> build(long maximumSize, Duration ttl) {
+        return builder(maximumSize, ttl).build();
+    }
+
+    // Pages dropped on size or TTL leave the index too; explicit evictions go
+    // through IndexedCache
+    private Cache<Object, Object> listings(String cacheName, ListingKeyIndex listingKeys) {
+        return builder(maxListingPages, Duration.ofMinutes(ttlMinutes))
+                .evictionListener((key, value, cause) -> listingKeys.forget(cacheName, key))
+                .build();
+    }
+
+    private Caffeine<Object, Object> builder(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats();
+    }
+}
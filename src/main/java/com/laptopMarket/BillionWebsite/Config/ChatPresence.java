@@ -0,0 +1,79 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import com.laptopMarket.BillionWebsite.entity.SenderType;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ChatPresence — who currently has a chat room open over WebSocket
+ * ─────────────────────────────────────────────────
+ * A customer watching a room is subscribed to /topic/user/chat/{id}, the
+ * shop owner to /topic/admin/chat/{id}; this counts those subscriptions
+ * per destination. ChatNotifier asks it before emailing a digest: whoever
+ * is watching the room already saw the messages live.
+ *
+ * Only this instance's sessions are known — the simple broker keeps its
+ * subscriptions in memory too.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+public class ChatPresence {
+
+    // session id → subscription id → destination
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    // destination → number of live subscriptions
+    private final Map<String, Integer> watchers = new ConcurrentHashMap<>();
+
+    /** Is anyone on the recipient's side watching this room right now? */
+    public boolean isWatching(SenderType recipientType, Long chatRoomId) {
+        return watchers.containsKey(destinationOf(recipientType, chatRoomId));
+    }
+
+    public static String destinationOf(SenderType side, Long chatRoomId) {
+        return (side == SenderType.ADMIN ? "/topic/admin/chat/" : "/topic/user/chat/") + chatRoomId;
+    }
+
+    // ── WEBSOCKET EVENTS ─────────────────────────────────────
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null
+                || destination == null || !destination.startsWith("/topic/")) {
+            return;
+        }
+        String previous = subscriptions
+            .computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+            .put(accessor.getSubscriptionId(), destination);
+        if (previous != null) release(previous);   // subscription id reused
+        watchers.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> session = accessor.getSessionId() == null ? null : subscriptions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) return;
+
+        String destination = session.remove(accessor.getSubscriptionId());
+        if (destination != null) release(destination);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> session = subscriptions.remove(event.getSessionId());
+        if (session != null) session.values().forEach(this::release);
+    }
+
+    private void release(String destination) {
+        watchers.computeIfPresent(destination, (d, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -3,23 +3,25 @@ package com.laptopMarket.BillionWebsite.Config;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class CloudinaryConfig {
 
-    @Value("${cloudinary.cloud-name}")
-    private String cloudName;
-
-    @Value("${cloudinary.api-key}")
-    private String apiKey;
-
-    @Value("${cloudinary.api-secret}")
-    private String apiSecret;
-
+    // Only for images.store=cloudinary, so a self-hosted (local) instance needs no credentials
     @Bean
-    public Cloudinary cloudinary() {
+    @ConditionalOnProperty(name = "images.store", havingValue = "cloudinary", matchIfMissing = true)
+    public Cloudinary cloudinary(@Value("${cloudinary.cloud-name}") String cloudName,
+                                 @Value("${cloudinary.api-key}") String apiKey,
+                                 @Value("${cloudinary.api-secret}") String apiSecret) {
         return new Cloudinary(ObjectUtils.asMap(
             "cloud_name", cloudName,
             "api_key",    apiKey,
@@ -27,4 +29,24 @@ public class CloudinaryConfig {
             "secure",     true   // always use HTTPS
         ));
     }
-}
\ No newline at end of file
+
+    // ── Image uploads ───────────────────────────────────────
+    // A product's images go to the ImageStore in parallel, but never more than
+    // `concurrency` at once across all requests. When the queue is full the
+    // request thread uploads the image itself instead of failing.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageUploadExecutor(@Value("${images.upload.concurrency:4}") int concurrency,
+                                               @Value("${images.upload.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            concurrency, concurrency,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "image-upload-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
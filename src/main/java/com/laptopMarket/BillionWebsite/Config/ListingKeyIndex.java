@@ -0,0 +1,117 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which listing pages are cached for each category / brand, so that
+ * ProductCatalogCache evicts exactly those keys instead of walking the whole
+ * cache. A key is registered when its page is put into the cache (IndexedCache)
+ * — a read that fails caches nothing and indexes nothing — and leaves again when
+ * Caffeine drops the page on size or TTL (see CacheConfig), so the index never
+ * holds more keys than the caches do.
+ */
+public class ListingKeyIndex {
+
+    /** Cache key of one listing page; value is the normalised category / brand. */
+    public record Key(String value, String sort, int size, String cursor) {}
+
+    // cache name → value → keys of its cached pages; a value's set is only touched inside compute
+    private final Map<String, Map<String, Set<Key>>> keys = new ConcurrentHashMap<>();
+
+    public void register(String cacheName, Object key) {
+        if (!(key instanceof Key page)) return;
+        byValue(cacheName).compute(page.value(), (value, pages) -> {
+            Set<Key> registered = pages == null ? new HashSet<>() : pages;
+            registered.add(page);
+            return registered;
+        });
+    }
+
+    /** Takes every key of one value out of the index, for the caller to evict. */
+    public Set<Key> remove(String cacheName, String value) {
+        Set<Key> pages = byValue(cacheName).remove(value);
+        return pages == null ? Set.of() : pages;
+    }
+
+    /** Eviction listener of the listing caches. */
+    public void forget(String cacheName, Object key) {
+        if (!(key instanceof Key page)) return;
+        byValue(cacheName).computeIfPresent(page.value(), (value, pages) -> {
+            pages.remove(page);
+            return pages.isEmpty() ? null : pages;
+        });
+    }
+
+    public void clear(String cacheName) {
+        keys.remove(cacheName);
+    }
+
+    private Map<String, Set<Key>> byValue(String cacheName) {
+        return keys.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+
+    /** Listing cache that keeps the index in step with what it actually holds. */
+    static class IndexedCache extends CaffeineCache {
+
+        private final ListingKeyIndex index;
+
+        IndexedCache(String name, Cache<Object, Object> cache, boolean allowNullValues, ListingKeyIndex index) {
+            super(name, cache, allowNullValues);
+            this.index = index;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            super.put(key, value);
+            index.register(getName(), key);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper existing = super.putIfAbsent(key, value);
+            index.register(getName(), key);
+            return existing;
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            T value = super.get(key, valueLoader);   // a loader that throws caches nothing
+            index.register(getName(), key);
+            return value;
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            index.forget(getName(), key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = super.evictIfPresent(key);
+            index.forget(getName(), key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            index.clear(getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean present = super.invalidate();
+            index.clear(getName());
+            return present;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The claims of an access token that has been decrypted and signature-checked
+ * once (TokenService.parseAccessToken).
+ *
+ * JwtAuthenticationFilter stores it as the request's Authentication details,
+ * so anything later in the request reads the claims from there instead of
+ * decrypting and parsing the token again.
+ */
+public record AccessToken(String email, UUID userId, String role, Date issuedAt, Date expiresAt) {
+
+    static AccessToken from(Claims claims) {
+        String userId = claims.get("userId", String.class);
+        return new AccessToken(
+                claims.getSubject(),
+                userId == null ? null : UUID.fromString(userId),
+                claims.get("role", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration());
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.before(new Date());
+    }
+
+    /** Milliseconds until expiry, 0 once expired. */
+    public long remainingMillis() {
+        return expiresAt == null ? 0 : Math.max(0, expiresAt.getTime() - System.currentTimeMillis());
+    }
+
+    /** The current request's token, if JwtAuthenticationFilter authenticated it. */
+    public static Optional<AccessToken> current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getDetails() instanceof AccessToken token
+                ? Optional.of(token)
+                : Optional.empty();
+    }
+}
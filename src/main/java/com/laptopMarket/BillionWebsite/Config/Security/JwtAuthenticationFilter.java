@@ -1,9 +1,5 @@
 package com.laptopMarket.BillionWebsite.Config.Security;
 
-import com.laptopMarket.BillionWebsite.entity.ShopOwner;
-import com.laptopMarket.BillionWebsite.entity.User;
-import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
-import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,8 +23,7 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
-    private final UserRepo userRepo;
-    private final AdminRepo adminRepo;
+    private final PrincipalLookup principalLookup;
 
     private static final List<String> PUBLIC_AUTH_ENDPOINTS = Arrays.asList(
             "/api/auth/register",
@@ -71,28 +66,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            String token  = header.substring(7);
-            String email  = tokenService.getEmailFromAccessToken(token);
+            // Decrypt + verify once; the claims ride along as the Authentication details
+            AccessToken accessToken = tokenService.parseAccessToken(header.substring(7));
+            String email = accessToken.email();
 
-            var userOptional  = userRepo.findByEmail(email);
-            var adminOptional = adminRepo.findByEmail(email);
+            // Role-aware and cached — no query while the principal is in the cache
+            UserDetails userDetails = principalLookup.load(email, accessToken.role());
 
-            if (userOptional.isEmpty() && adminOptional.isEmpty()) {
+            if (userDetails == null) {
                 log.warn("❌ No user or admin found for email: {}", email);
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            UserDetails userDetails = userOptional.isPresent()
-                    ? new UserPrincipal(userOptional.get())
-                    : new AdminPrincipal(adminOptional.get());
-
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(accessToken);
 
             SecurityContextHolder.getContext().setAuthentication(authToken);
-            log.info("✅ Authentication successful for: {}", email);
+            log.debug("✅ Authentication successful for: {}", email);
 
         } catch (Exception e) {
             log.error("💥 JWT authentication error: {}", e.getMessage(), e);
@@ -0,0 +1,62 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.Config.CacheConfig;
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * PrincipalLookup — who is behind an access token
+ * ─────────────────────────────────────────────────
+ * The token's role claim says which table the account lives in, so a
+ * lookup is one query (customers for USER, shop_owner for ADMIN) instead
+ * of both. Results are cached per ROLE|email in CacheConfig.PRINCIPALS,
+ * so a client making repeated calls costs no auth queries until the TTL runs out.
+ *
+ * Evicted on profile update and removal (UserService) and on logout
+ * (RegistrationService). Unknown emails are not cached.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalLookup {
+
+    private final UserRepo userRepo;
+    private final AdminRepo adminRepo;
+
+    /** @return the principal, or null when no account matches */
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS, key = "#role + '|' + #email", unless = "#result == null")
+    public UserDetails load(String email, String role) {
+        log.debug("🔍 Loading principal {} ({})", email, role);
+
+        if (Role.USER.name().equals(role)) {
+            return userRepo.findByEmail(email).map(UserPrincipal::new).orElse(null);
+        }
+        if (Role.ADMIN.name().equals(role)) {
+            return adminRepo.findByEmail(email).map(AdminPrincipal::new).orElse(null);
+        }
+
+        // No role claim — customers first, then shop owners
+        return userRepo.findByEmail(email)
+                .<UserDetails>map(UserPrincipal::new)
+                .or(() -> adminRepo.findByEmail(email).map(AdminPrincipal::new))
+                .orElse(null);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "'USER|' + #email"),
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "'ADMIN|' + #email"),
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "'null|' + #email")
+    })
+    public void evict(String email) {
+        log.debug("🧹 Principal evicted: {}", email);
+    }
+}
@@ -52,6 +52,9 @@ public class SecurityConfig {
                                 "/api/v1/products/**"
                         ).permitAll()
 
+                        // Product images when self-hosted (images.store=local)
+                        .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
+
                         .requestMatchers("/api/meetings/join/guest").permitAll()
                         .requestMatchers("/api/meetings/daily-token/guest").permitAll()
                         .requestMatchers("/api/meetings/validate/**").permitAll()
@@ -9,10 +9,24 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * AES-256-GCM around the JWT. Runs on every login and on every request
+ * whose token is not in VerifiedTokenCache yet.
+ *
+ * Cipher.getInstance is a provider lookup, so initialised-per-call Cipher
+ * objects are kept in a small bounded pool and reused (a Cipher is not
+ * thread-safe, each one is used by one caller at a time). A pool rather
+ * than a ThreadLocal because request threads may be virtual: one Cipher
+ * per virtual thread would never be reused. One SecureRandom is shared —
+ * it is thread-safe.
+ */
 @Slf4j
 @Service
 public class TokenEncryptionService {
@@ -22,7 +36,16 @@ public class TokenEncryptionService {
     private static final int GCM_IV_LENGTH = 12; // 96 bits
     private static final int GCM_TAG_LENGTH = 128; // 128 bits
 
+    // Enough for the concurrent crypto calls of a busy instance; beyond
+    // that a Cipher is created for the call and dropped afterwards
+    private static final int CIPHER_POOL_SIZE = 64;
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
     private final SecretKey encryptionKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(CIPHER_POOL_SIZE);
 
     public TokenEncryptionService(@Value("${security.token.encryption-key}") String encryptionKeyHex) {
         // Convert hex string to SecretKey
@@ -36,30 +59,24 @@ public class TokenEncryptionService {
      */
     public String encryptToken(String plainToken) {
         try {
+            byte[] plainBytes = plainToken.getBytes(StandardCharsets.UTF_8);
+
             // Generate random IV
             byte[] iv = new byte[GCM_IV_LENGTH];
-            SecureRandom secureRandom = new SecureRandom();
             secureRandom.nextBytes(iv);
 
             // Initialize cipher
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, parameterSpec);
+            Cipher cipher = borrowCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
 
-            // Encrypt
-            byte[] encryptedBytes = cipher.doFinal(plainToken.getBytes("UTF-8"));
-
-            // Combine: IV + encrypted_data
-            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedBytes.length);
-            byteBuffer.put(iv);
-            byteBuffer.put(encryptedBytes);
-
-            // Encode to Base64
-            String encryptedToken = Base64.getUrlEncoder().withoutPadding()
-                    .encodeToString(byteBuffer.array());
+            // Combine: IV + encrypted_data + tag, encrypted straight into one buffer
+            byte[] out = new byte[GCM_IV_LENGTH + cipher.getOutputSize(plainBytes.length)];
+            System.arraycopy(iv, 0, out, 0, GCM_IV_LENGTH);
+            cipher.doFinal(plainBytes, 0, plainBytes.length, out, GCM_IV_LENGTH);
+            returnCipher(cipher);
 
             log.debug("🔒 Token encrypted successfully");
-            return encryptedToken;
+            return BASE64_ENCODER.encodeToString(out);
 
         } catch (Exception e) {
             log.error("❌ Token encryption failed", e);
@@ -72,27 +89,22 @@ public class TokenEncryptionService {
      */
     public String decryptToken(String encryptedToken) {
         try {
-            // Decode from Base64
-            byte[] encryptedBytes = Base64.getUrlDecoder().decode(encryptedToken);
-
-            // Extract IV and encrypted data
-            ByteBuffer byteBuffer = ByteBuffer.wrap(encryptedBytes);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byteBuffer.get(iv);
-            byte[] cipherText = new byte[byteBuffer.remaining()];
-            byteBuffer.get(cipherText);
+            // Decode from Base64 — IV and cipher text are read in place, no copies
+            byte[] encryptedBytes = BASE64_DECODER.decode(encryptedToken);
+            if (encryptedBytes.length <= GCM_IV_LENGTH) {
+                throw new IllegalArgumentException("Token too short");
+            }
 
-            // Initialize cipher for decryption
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, parameterSpec);
+            Cipher cipher = borrowCipher();
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey,
+                    new GCMParameterSpec(GCM_TAG_LENGTH, encryptedBytes, 0, GCM_IV_LENGTH));
 
-            // Decrypt
-            byte[] decryptedBytes = cipher.doFinal(cipherText);
-            String plainToken = new String(decryptedBytes, "UTF-8");
+            // Decrypt — a bad tag throws and the cipher is not returned to the pool
+            byte[] decryptedBytes = cipher.doFinal(encryptedBytes, GCM_IV_LENGTH, encryptedBytes.length - GCM_IV_LENGTH);
+            returnCipher(cipher);
 
             log.debug("🔓 Token decrypted successfully");
-            return plainToken;
+            return new String(decryptedBytes, StandardCharsets.UTF_8);
 
         } catch (Exception e) {
             log.error("❌ Token decryption failed", e);
@@ -100,6 +112,21 @@ public class TokenEncryptionService {
         }
     }
 
+    /**
+     * Take a Cipher from the pool, or create one when all are in use
+     */
+    private Cipher borrowCipher() throws GeneralSecurityException {
+        Cipher cipher = ciphers.poll();
+        return cipher != null ? cipher : Cipher.getInstance(ALGORITHM);
+    }
+
+    /**
+     * Only after a successful doFinal — the next init resets it. Dropped when the pool is full
+     */
+    private void returnCipher(Cipher cipher) {
+        ciphers.offer(cipher);
+    }
+
     /**
      * Convert hex string to SecretKey
      */
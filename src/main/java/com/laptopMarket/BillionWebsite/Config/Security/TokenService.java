@@ -4,6 +4,7 @@ import com.laptopMarket.BillionWebsite.Config.Security.entity.AdminRefreshToken;
 import com.laptopMarket.BillionWebsite.Config.Security.entity.AdminRefreshTokenRepo;
 import com.laptopMarket.BillionWebsite.Config.Security.entity.RefreshToken;
 import com.laptopMarket.BillionWebsite.Config.Security.entity.RefreshTokenRepo;
+import com.laptopMarket.BillionWebsite.entity.Role;
 import com.laptopMarket.BillionWebsite.entity.ShopOwner;
 import com.laptopMarket.BillionWebsite.entity.User;
 import io.jsonwebtoken.*;
@@ -17,6 +18,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -38,16 +40,38 @@ public class TokenService {
     private final RefreshTokenRepo refreshTokenRepo;
     private final AdminRefreshTokenRepo adminRepo;
     private final TokenEncryptionService encryptionService;
+    private final VerifiedTokenCache verifiedTokens;
+
+    // Built from jwt.secret on first use and reused — the secret does not
+    // change at runtime, and JwtParser is immutable and thread-safe
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
 
     /**
      * Ensure HS256 key is 256 bits (32 bytes)
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        if (keyBytes.length < 32) {
-            throw new RuntimeException("JWT secret key must be at least 32 bytes for HS256");
+        SecretKey key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new RuntimeException("JWT secret key must be at least 32 bytes for HS256");
+            }
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser jwtParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            jwtParser = parser;
         }
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser;
     }
 
     // ===================== ACCESS TOKEN =====================
@@ -186,31 +210,42 @@ public class TokenService {
     // ===================== VALIDATION =====================
 
     /**
-     * Validate encrypted access token
-     * Step 1: Decrypt token
+     * Decrypt and verify an access token ONCE and return all of its claims.
+     * Step 1: Decrypt token (AES-GCM)
      * Step 2: Validate JWT signature and expiration
+     *
+     * Everything else that needs a claim goes through here; per request,
+     * JwtAuthenticationFilter calls it once and keeps the result as the
+     * Authentication details (AccessToken.current()).
+     *
+     * A token that already passed both steps is served from VerifiedTokenCache
+     * until its exp, so only the first request with a given token pays for them.
      */
-    public boolean validateAccessToken(String encryptedToken) {
+    public AccessToken parseAccessToken(String encryptedToken) {
+        String key = verifiedTokens.keyOf(encryptedToken);
+        if (verifiedTokens.isRevoked(key)) {
+            log.warn("⚠️ Revoked token presented");
+            throw new RuntimeException("Token revoked");
+        }
+
+        AccessToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            log.debug("🔍 Validating access token (encrypted length: {})", encryptedToken.length());
-            log.debug("Encrypted token preview: {}...", encryptedToken.substring(0, Math.min(50, encryptedToken.length())));
+            log.debug("🔍 Parsing access token (encrypted length: {})", encryptedToken.length());
 
             // Step 1: Decrypt the token
             String plainToken = encryptionService.decryptToken(encryptedToken);
-            log.debug("✅ Token decrypted successfully (plain length: {})", plainToken.length());
 
             // Step 2: Validate JWT
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody();
-
-            log.debug("✅ Token validated successfully for user: {}", claims.getSubject());
-            log.debug("Token expires at: {}", claims.getExpiration());
-            log.debug("Token issued at: {}", claims.getIssuedAt());
+            Claims claims = jwtParser().parseClaimsJws(plainToken).getBody();
 
-            return true;
+            log.debug("✅ Token validated for user: {} (expires {})", claims.getSubject(), claims.getExpiration());
+            AccessToken accessToken = AccessToken.from(claims);
+            verifiedTokens.put(key, accessToken);
+            return accessToken;
 
         } catch (ExpiredJwtException ex) {
             log.warn("⚠️ Token expired for user: {}", ex.getClaims().getSubject());
@@ -224,6 +259,14 @@ public class TokenService {
         }
     }
 
+    /**
+     * Validate encrypted access token
+     */
+    public boolean validateAccessToken(String encryptedToken) {
+        parseAccessToken(encryptedToken);
+        return true;
+    }
+
     /**
      * Validate encrypted refresh token
      */
@@ -248,10 +291,7 @@ public class TokenService {
             String plainToken = encryptionService.decryptToken(encryptedRefreshToken);
             log.debug("✅ Refresh token decrypted successfully");
 
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken);
+            jwtParser().parseClaimsJws(plainToken);
 
             log.debug("✅ Refresh token validated successfully for user: {}", refreshToken.getUser().getEmail());
             return true;
@@ -291,10 +331,7 @@ public class TokenService {
             String plainToken = encryptionService.decryptToken(encryptedRefreshToken);
             log.debug("✅ Refresh token decrypted successfully");
 
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken);
+            jwtParser().parseClaimsJws(plainToken);
 
             log.debug("✅ Refresh token validated successfully for user: {}", refreshToken.getOwner().getEmail());
             return true;
@@ -313,109 +350,28 @@ public class TokenService {
 
 
     // ===================== EXTRACT CLAIMS (WITH DECRYPTION) =====================
+    // Each of these decrypts and parses the token — when more than one
+    // claim is needed, call parseAccessToken once instead
 
     /**
      * Extract email from encrypted access token
      */
     public String getEmailFromAccessToken(String encryptedToken) {
-        try {
-            log.debug("🔍 Extracting email from encrypted token (length: {})", encryptedToken.length());
-
-            // Step 1: Decrypt the token
-            String plainToken = encryptionService.decryptToken(encryptedToken);
-            log.debug("✅ Token decrypted for email extraction");
-
-            // Step 2: Extract email from JWT
-            String email = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody()
-                    .getSubject();  // Email is the subject
-
-            log.debug("✅ Email extracted: {}", email);
-            return email;
-
-        } catch (ExpiredJwtException ex) {
-            log.error("❌ Token expired while extracting email: {}", ex.getClaims().getSubject());
-            throw new RuntimeException("Token expired", ex);
-        } catch (JwtException ex) {
-            log.error("❌ Invalid token while extracting email: {}", ex.getMessage());
-            throw new RuntimeException("Invalid token", ex);
-        } catch (Exception ex) {
-            log.error("❌ Failed to decrypt token for email extraction: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Invalid or corrupted token", ex);
-        }
+        return parseAccessToken(encryptedToken).email();
     }
 
     /**
      * Extract user ID from encrypted access token
      */
-    public Long getUserIdFromAccessToken(String encryptedToken) {
-        try {
-            log.debug("🔍 Extracting userId from encrypted token");
-
-            // Step 1: Decrypt the token
-            String plainToken = encryptionService.decryptToken(encryptedToken);
-            log.debug("✅ Token decrypted for userId extraction");
-
-            // Step 2: Extract userId from claims
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody();
-
-            Long userId = claims.get("userId", Long.class);
-            log.debug("✅ UserId extracted: {}", userId);
-
-            return userId;
-
-        } catch (ExpiredJwtException ex) {
-            log.error("❌ Token expired while extracting userId");
-            throw new RuntimeException("Token expired", ex);
-        } catch (JwtException ex) {
-            log.error("❌ Invalid token while extracting userId: {}", ex.getMessage());
-            throw new RuntimeException("Invalid token", ex);
-        } catch (Exception ex) {
-            log.error("❌ Failed to decrypt token for userId extraction: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Invalid or corrupted token", ex);
-        }
+    public UUID getUserIdFromAccessToken(String encryptedToken) {
+        return parseAccessToken(encryptedToken).userId();
     }
 
     /**
      * Extract role from encrypted access token
      */
     public String getRoleFromAccessToken(String encryptedToken) {
-        try {
-            log.debug("🔍 Extracting role from encrypted token");
-
-            // Step 1: Decrypt the token
-            String plainToken = encryptionService.decryptToken(encryptedToken);
-            log.debug("✅ Token decrypted for role extraction");
-
-            // Step 2: Extract role from claims
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody();
-
-            String role = claims.get("role", String.class);
-            log.debug("✅ Role extracted: {}", role);
-
-            return role;
-
-        } catch (ExpiredJwtException ex) {
-            log.error("❌ Token expired while extracting role");
-            throw new RuntimeException("Token expired", ex);
-        } catch (JwtException ex) {
-            log.error("❌ Invalid token while extracting role: {}", ex.getMessage());
-            throw new RuntimeException("Invalid token", ex);
-        } catch (Exception ex) {
-            log.error("❌ Failed to decrypt token for role extraction: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Invalid or corrupted token", ex);
-        }
+        return parseAccessToken(encryptedToken).role();
     }
 
     // ===================== TOKEN REFRESH =====================
@@ -487,6 +443,25 @@ public class TokenService {
         }
     }
 
+    /**
+     * Revoke the refresh token of the account an access token belongs to (logout)
+     */
+    public void revokeRefreshTokens(AccessToken accessToken) {
+        int removed = Role.ADMIN.name().equals(accessToken.role())
+                ? adminRepo.deleteAllByOwnerId(accessToken.userId())
+                : refreshTokenRepo.deleteAllByUserId(accessToken.userId());
+        log.info("🗑️ {} refresh token(s) revoked for: {}", removed, accessToken.email());
+    }
+
+    /**
+     * Revoke an access token before it expires (logout). It is rejected with
+     * "Token revoked" from now until its exp, on this instance
+     */
+    public void revokeAccessToken(String encryptedToken, AccessToken accessToken) {
+        verifiedTokens.revoke(verifiedTokens.keyOf(encryptedToken), accessToken);
+        log.info("🗑️ Access token revoked for: {}", accessToken.email());
+    }
+
     // ===================== HELPER METHODS =====================
 
     /**
@@ -494,26 +469,9 @@ public class TokenService {
      */
     public boolean isTokenExpired(String encryptedToken) {
         try {
-            log.debug("🔍 Checking if token is expired");
-
-            String plainToken = encryptionService.decryptToken(encryptedToken);
-
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody();
-
-            boolean isExpired = claims.getExpiration().before(new Date());
-            log.debug("Token expired: {}", isExpired);
-
-            return isExpired;
-
-        } catch (ExpiredJwtException ex) {
-            log.debug("Token is expired");
-            return true;
+            return parseAccessToken(encryptedToken).isExpired();
         } catch (Exception ex) {
-            log.error("❌ Failed to check token expiration: {}", ex.getMessage());
+            // Expired, tampered or undecryptable — all count as expired here
             return true;
         }
     }
@@ -523,25 +481,8 @@ public class TokenService {
      */
     public long getTokenExpirationTime(String encryptedToken) {
         try {
-            log.debug("🔍 Getting token expiration time");
-
-            String plainToken = encryptionService.decryptToken(encryptedToken);
-
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(plainToken)
-                    .getBody();
-
-            Date expiration = claims.getExpiration();
-            long remainingTime = expiration.getTime() - System.currentTimeMillis();
-
-            log.debug("Token expires in {} milliseconds", remainingTime);
-
-            return Math.max(0, remainingTime);
-
+            return parseAccessToken(encryptedToken).remainingMillis();
         } catch (Exception ex) {
-            log.error("❌ Failed to get token expiration time: {}", ex.getMessage());
             return 0;
         }
     }
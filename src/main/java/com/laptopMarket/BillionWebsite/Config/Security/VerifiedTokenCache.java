@@ -0,0 +1,101 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * VerifiedTokenCache — access tokens that already passed AES-GCM + HS256
+ * ─────────────────────────────────────────────────
+ * TokenService.parseAccessToken looks here first, so a client sending the
+ * same token on every request pays the decrypt and signature check once.
+ * Entries are keyed by the SHA-256 of the encrypted token (the bearer token
+ * itself is never kept in memory) and expire at the JWT exp, so a cached
+ * token can never outlive the token itself.
+ *
+ * revoke() drops the entry and remembers the hash until the token would
+ * have expired anyway; parseAccessToken rejects it from then on. Both maps
+ * are per instance — a revocation is only seen by the instance it ran on.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, AccessToken> verified;
+    private final Cache<String, AccessToken> revoked;
+
+    public VerifiedTokenCache(@Value("${security.token-cache.max-size:10000}") long maxSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(untilTokenExpires())
+                .build();
+        // Not size-bounded: dropping a revocation early would make the token valid again
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(untilTokenExpires())
+                .build();
+    }
+
+    /** Cache key for an encrypted access token. */
+    public String keyOf(String encryptedToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(encryptedToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);   // required of every JRE
+        }
+    }
+
+    /** @return the verified claims, or null when the token has not been verified yet */
+    public AccessToken get(String key) {
+        return verified.getIfPresent(key);
+    }
+
+    public void put(String key, AccessToken accessToken) {
+        if (accessToken.remainingMillis() > 0) {
+            verified.put(key, accessToken);
+        }
+    }
+
+    public boolean isRevoked(String key) {
+        return revoked.getIfPresent(key) != null;
+    }
+
+    /** Revocation hook (logout): the token is rejected until it expires. */
+    public void revoke(String key, AccessToken accessToken) {
+        verified.invalidate(key);
+        if (accessToken.remainingMillis() > 0) {
+            revoked.put(key, accessToken);
+        }
+        log.debug("🚫 Access token revoked for: {}", accessToken.email());
+    }
+
+    private static Expiry<String, AccessToken> untilTokenExpires() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, AccessToken token, long currentTime) {
+                return Duration.ofMillis(token.remainingMillis()).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, AccessToken token, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, token, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, AccessToken token, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
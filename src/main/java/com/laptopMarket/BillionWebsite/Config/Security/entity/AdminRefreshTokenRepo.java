@@ -44,4 +44,13 @@ public interface AdminRefreshTokenRepo extends JpaRepository<AdminRefreshToken,
     void upsertOwnerRefreshToken(@Param("ownerId") UUID ownerId,
                                  @Param("token") String token,
                                  @Param("expiry") Instant expiryDate);  // ← "expiry" not "expiryDate"
+
+    /**
+     * Delete all refresh tokens for a specific owner
+     * Useful for logout, password change, or security revocation
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AdminRefreshToken rt WHERE rt.owner.id = :ownerId")
+    int deleteAllByOwnerId(@Param("ownerId") UUID ownerId);
 }
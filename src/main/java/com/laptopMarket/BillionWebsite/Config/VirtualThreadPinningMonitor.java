@@ -0,0 +1,89 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * VirtualThreadPinningMonitor — reports virtual threads stuck on their carrier
+ * ─────────────────────────────────────────────────
+ * On Java 21 a virtual thread that blocks inside a synchronized block (or a
+ * native frame) cannot unmount: it keeps its carrier thread, and with only
+ * one carrier per core a few of those stall every other request. This
+ * streams the JFR jdk.VirtualThreadPinned event in-process and logs each
+ * pin longer than threshold-ms with the stack that caused it — the first
+ * frame of ours in that stack is the code to change.
+ *
+ * Enabled with threads.pinning-monitor.enabled; meant for load tests and
+ * for a while after turning spring.threads.virtual.enabled on.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String OUR_PACKAGE = "com.laptopMarket.BillionWebsite.";
+    private static final int MAX_FRAMES = 20;
+
+    private final AtomicLong pinned = new AtomicLong();
+    private RecordingStream stream;
+
+    @Value("${threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+              .withThreshold(Duration.ofMillis(thresholdMs))
+              .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        log.info("📌 Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    /** Pins reported since startup. */
+    public long pinnedCount() {
+        return pinned.get();
+    }
+
+    void report(RecordedEvent event) {
+        pinned.incrementAndGet();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            log.warn("📌 Virtual thread pinned for {} ms (no stack trace)", event.getDuration().toMillis());
+            return;
+        }
+
+        StringBuilder frames = new StringBuilder();
+        String culprit = null;
+        int shown = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+            if (culprit == null && method.startsWith(OUR_PACKAGE)) culprit = method;
+            if (shown++ < MAX_FRAMES) {
+                frames.append("\n    at ").append(method).append(':').append(frame.getLineNumber());
+            }
+        }
+
+        log.warn("📌 Virtual thread pinned for {} ms in {}{}",
+            event.getDuration().toMillis(), culprit != null ? culprit : "library code", frames);
+    }
+}
@@ -60,4 +60,18 @@ public class AuthController {
         return ResponseEntity.ok(registrationService.loginAdmin(request));
     }
 
-}
\ No newline at end of file
+    // ════════════════════════════════════════════════════════
+    // LOGOUT
+    // ════════════════════════════════════════════════════════
+
+    /** POST /api/v1/auth/logout  (Authorization: Bearer <access token>) */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new RuntimeException("Authorization header must be a Bearer token");
+        }
+        log.info("➡️  POST /logout");
+        registrationService.logout(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.laptopMarket.BillionWebsite.controller;
 
+import com.laptopMarket.BillionWebsite.dto.CursorPage;
+import com.laptopMarket.BillionWebsite.dto.FilteredProductsResponse;
+import com.laptopMarket.BillionWebsite.dto.ProductFilter;
 import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.dto.SuggestionResponse;
 import com.laptopMarket.BillionWebsite.service.UserProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,13 +28,20 @@ public class UserProductController {
     // ════════════════════════════════════════════════════════
 
     /**
-     * GET /api/v1/products
-     * Get all products
+     * GET /api/v1/products?size=20&sort=newest&cursor=...
+     * Get all products, one cursor page at a time.
+     * Every listing below accepts the same paging params:
+     *   size   — items per page (1–100, default 20)
+     *   sort   — newest | price_asc | price_desc
+     *   cursor — nextCursor from the previous page (omit for the first page)
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("➡️  GET /products");
-        return ResponseEntity.ok(userProductService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductResponse>> getAllProducts(
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
+        log.info("➡️  GET /products?size={}&sort={}", size, sort);
+        return ResponseEntity.ok(userProductService.getAllProducts(cursor, size, sort));
     }
 
     /**
@@ -49,9 +60,12 @@ public class UserProductController {
      * Get only products that have stock > 0
      */
     @GetMapping("/in-stock")
-    public ResponseEntity<List<ProductResponse>> getInStockProducts() {
+    public ResponseEntity<CursorPage<ProductResponse>> getInStockProducts(
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/in-stock");
-        return ResponseEntity.ok(userProductService.getInStockProducts());
+        return ResponseEntity.ok(userProductService.getInStockProducts(cursor, size, sort));
     }
 
     // ════════════════════════════════════════════════════════
@@ -77,15 +91,62 @@ public class UserProductController {
         return ResponseEntity.ok(userProductService.getAllBrands());
     }
 
+    /**
+     * GET /api/v1/products/browse?q=pro&category=laptop&brand=dell&minPrice=500&maxPrice=1500&inStock=true
+     * One composable filter — every param is optional — returning a cursor
+     * page plus facet counts (per category, brand and price range) in one call.
+     * Its own path: /filter is still the category+price endpoint existing clients call
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<FilteredProductsResponse> filter(
+            @RequestParam(required = false)          String q,
+            @RequestParam(required = false)          String category,
+            @RequestParam(required = false)          String brand,
+            @RequestParam(required = false)          BigDecimal minPrice,
+            @RequestParam(required = false)          BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false")    boolean inStock,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
+        log.info("➡️  GET /products/browse?q={}&category={}&brand={}&minPrice={}&maxPrice={}&inStock={}",
+            q, category, brand, minPrice, maxPrice, inStock);
+        ProductFilter filter = ProductFilter.builder()
+            .q(q)
+            .category(category)
+            .brand(brand)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .inStock(inStock)
+            .build();
+        return ResponseEntity.ok(userProductService.filter(filter, cursor, size, sort));
+    }
+
+    /**
+     * GET /api/v1/products/suggest?prefix=macb&limit=10&fuzzy=true
+     * Autocomplete over product names, brands and categories.
+     * Called per keystroke, so it is served from memory and logged at debug only.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10")   int limit,
+            @RequestParam(defaultValue = "true") boolean fuzzy) {
+        log.debug("➡️  GET /products/suggest?prefix={}", prefix);
+        return ResponseEntity.ok(userProductService.suggest(prefix, limit, fuzzy));
+    }
+
     /**
      * GET /api/v1/products/category/{category}
      * Browse all products in a category e.g. /category/laptop
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getByCategory(
-            @PathVariable String category) {
+    public ResponseEntity<CursorPage<ProductResponse>> getByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/category/{}", category);
-        return ResponseEntity.ok(userProductService.getByCategory(category));
+        return ResponseEntity.ok(userProductService.getByCategory(category, cursor, size, sort));
     }
 
     /**
@@ -93,10 +154,13 @@ public class UserProductController {
      * Browse all products by a brand e.g. /brand/dell
      */
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<ProductResponse>> getByBrand(
-            @PathVariable String brand) {
+    public ResponseEntity<CursorPage<ProductResponse>> getByBrand(
+            @PathVariable String brand,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/brand/{}", brand);
-        return ResponseEntity.ok(userProductService.getByBrand(brand));
+        return ResponseEntity.ok(userProductService.getByBrand(brand, cursor, size, sort));
     }
 
     /**
@@ -104,11 +168,14 @@ public class UserProductController {
      * Filter products within a price range
      */
     @GetMapping("/price-range")
-    public ResponseEntity<List<ProductResponse>> getByPriceRange(
+    public ResponseEntity<CursorPage<ProductResponse>> getByPriceRange(
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
+            @RequestParam BigDecimal max,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/price-range?min={}&max={}", min, max);
-        return ResponseEntity.ok(userProductService.getByPriceRange(min, max));
+        return ResponseEntity.ok(userProductService.getByPriceRange(min, max, cursor, size, sort));
     }
 
     /**
@@ -116,12 +183,15 @@ public class UserProductController {
      * Filter by category AND price range together
      */
     @GetMapping("/filter")
-    public ResponseEntity<List<ProductResponse>> filterByCategoryAndPrice(
+    public ResponseEntity<CursorPage<ProductResponse>> filterByCategoryAndPrice(
             @RequestParam String category,
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
+            @RequestParam BigDecimal max,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/filter?category={}&min={}&max={}", category, min, max);
-        return ResponseEntity.ok(userProductService.getByCategoryAndPriceRange(category, min, max));
+        return ResponseEntity.ok(userProductService.getByCategoryAndPriceRange(category, min, max, cursor, size, sort));
     }
 
     // ════════════════════════════════════════════════════════
@@ -133,21 +203,28 @@ public class UserProductController {
      * Search products by name (partial, case-insensitive)
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchByName(
-            @RequestParam String name) {
+    public ResponseEntity<CursorPage<ProductResponse>> searchByName(
+            @RequestParam String name,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/search?name={}", name);
-        return ResponseEntity.ok(userProductService.searchByName(name));
+        return ResponseEntity.ok(userProductService.searchByName(name, cursor, size, sort));
     }
 
     /**
      * GET /api/v1/products/search/keyword?q=gaming laptop
-     * Full keyword search across name + description + brand
+     * Full keyword search across name + brand + category + description,
+     * prefix matching, ranked by relevance unless another sort is given
      */
     @GetMapping("/search/keyword")
-    public ResponseEntity<List<ProductResponse>> searchByKeyword(
-            @RequestParam String q) {
+    public ResponseEntity<CursorPage<ProductResponse>> searchByKeyword(
+            @RequestParam String q,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "relevance") String sort) {
         log.info("➡️  GET /products/search/keyword?q={}", q);
-        return ResponseEntity.ok(userProductService.searchByKeyword(q));
+        return ResponseEntity.ok(userProductService.searchByKeyword(q, cursor, size, sort));
     }
 
     /**
@@ -155,11 +232,14 @@ public class UserProductController {
      * Search by name AND filter by category
      */
     @GetMapping("/search/filter")
-    public ResponseEntity<List<ProductResponse>> searchByNameAndCategory(
+    public ResponseEntity<CursorPage<ProductResponse>> searchByNameAndCategory(
             @RequestParam String name,
-            @RequestParam String category) {
+            @RequestParam String category,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/search/filter?name={}&category={}", name, category);
-        return ResponseEntity.ok(userProductService.searchByNameAndCategory(name, category));
+        return ResponseEntity.ok(userProductService.searchByNameAndCategory(name, category, cursor, size, sort));
     }
 
     /**
@@ -167,10 +247,13 @@ public class UserProductController {
      * Search by name AND filter by brand
      */
     @GetMapping("/search/brand")
-    public ResponseEntity<List<ProductResponse>> searchByNameAndBrand(
+    public ResponseEntity<CursorPage<ProductResponse>> searchByNameAndBrand(
             @RequestParam String name,
-            @RequestParam String brand) {
+            @RequestParam String brand,
+            @RequestParam(required = false)          String cursor,
+            @RequestParam(defaultValue = "20")       int size,
+            @RequestParam(defaultValue = "newest")   String sort) {
         log.info("➡️  GET /products/search/brand?name={}&brand={}", name, brand);
-        return ResponseEntity.ok(userProductService.searchByNameAndBrand(name, brand));
+        return ResponseEntity.ok(userProductService.searchByNameAndBrand(name, brand, cursor, size, sort));
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.laptopMarket.BillionWebsite.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// ── One page of a cursor-paginated listing ───────────────────
+// Pass nextCursor back as ?cursor= to fetch the following page
+@Data
+@Builder
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;   // null when this is the last page
+    private boolean hasNext;
+    private int size;            // number of items in this page
+}
@@ -0,0 +1,13 @@
+package com.laptopMarket.BillionWebsite.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// ── One page of filtered products + the facets for the same filter ──
+@Data
+@Builder
+public class FilteredProductsResponse {
+
+    private CursorPage<ProductResponse> products;
+    private ProductFacets facets;
+}
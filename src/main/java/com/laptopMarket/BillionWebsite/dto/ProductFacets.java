@@ -0,0 +1,19 @@
+package com.laptopMarket.BillionWebsite.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+// ── Facet counts for a filtered listing ──────────────────────
+// categories ignores the category filter and brands ignores the brand
+// filter, so the storefront can show what picking another value gives
+@Data
+@Builder
+public class ProductFacets {
+
+    private long total;                      // products matching every filter
+    private Map<String, Long> categories;    // e.g. {"laptop": 42, "mouse": 7}
+    private Map<String, Long> brands;        // e.g. {"Dell": 12, "HP": 9}
+    private Map<String, Long> priceRanges;   // e.g. {"0-500": 3, "500-1000": 20, "2000+": 1}
+}
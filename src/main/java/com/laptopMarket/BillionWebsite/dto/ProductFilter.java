@@ -0,0 +1,20 @@
+package com.laptopMarket.BillionWebsite.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// ── Criteria for GET /api/v1/products/browse ─────────────────
+// Every field is optional; null / blank means "don't filter on it"
+@Data
+@Builder
+public class ProductFilter {
+
+    private String q;              // matched against name + brand
+    private String category;
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean inStock;       // true → stock > 0 only
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 // ── Returned when viewing products ───────────────────────────
 @Data
@@ -21,6 +22,10 @@ public class ProductResponse {
     private Integer stock;
     private List<String> imageUrls;      // all images in display order
     private String imageUrl;
+    // format ("jpg", "webp") → srcset of the thumbnail / card / detail variants,
+    // same order as imageUrls; empty for images uploaded before variants existed
+    private List<Map<String, String>> imageSrcsets;
+    private Map<String, String> imageSrcset;   // primary image
     private String addedByAdmin; // shop owner name who added this product
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
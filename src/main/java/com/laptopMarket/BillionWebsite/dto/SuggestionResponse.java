@@ -0,0 +1,13 @@
+package com.laptopMarket.BillionWebsite.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// ── One autocomplete suggestion ──────────────────────────────
+@Data
+@Builder
+public class SuggestionResponse {
+
+    private String text;   // e.g. "MacBook Pro 14"
+    private String type;   // name | brand | category
+}
@@ -0,0 +1,45 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chat message that still has to be emailed to the other side of the
+ * room. ChatNotifier coalesces a room's pending rows into a single digest
+ * once the conversation has gone quiet.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "chat_notifications")
+public class ChatNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_room_id", nullable = false)
+    private ChatRoom chatRoom;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", nullable = false)
+    private ChatMessage message;
+
+    // Who gets the email: ADMIN for a customer's message, USER for a reply
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SenderType recipientType;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One image asset to remove from the ImageStore — the unit
+ * ImageDeletionWorker claims, deletes and retries. The row is removed
+ * once the store has deleted the asset.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "image_deletions")
+public class ImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private ImageDeletionStatus status = ImageDeletionStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Not picked up before this time (retry backoff)
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Set while DELETING: which worker run holds the entry, and since when
+    @Column(length = 36)
+    private String claimToken;
+    private LocalDateTime claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) nextAttemptAt = createdAt;
+    }
+}
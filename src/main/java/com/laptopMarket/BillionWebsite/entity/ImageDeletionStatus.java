@@ -0,0 +1,7 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+public enum ImageDeletionStatus {
+    PENDING,    // waiting for its next attempt
+    DELETING,   // claimed by ImageDeletionWorker
+    FAILED      // gave up after images.delete.max-attempts — left for a person to look at
+}
@@ -0,0 +1,43 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image already on Cloudinary, keyed by the SHA-256 of the bytes that
+ * were uploaded for it. ImageHashIndex answers a re-upload of the same
+ * photo from here instead of uploading it again.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "image_hashes")
+public class ImageHash {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of the original upload, before compression
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    // Cloudinary's upload response as JSON, eager variants included
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String uploadResult;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
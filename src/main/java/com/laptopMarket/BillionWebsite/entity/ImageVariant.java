@@ -0,0 +1,18 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+/** Responsive sizes generated for every product image at upload; width is the longest it gets. */
+public enum ImageVariant {
+    THUMBNAIL(240),   // cart, order lines, chat product cards
+    CARD(640),        // catalog listings
+    DETAIL(1280);     // product page
+
+    private final int width;
+
+    ImageVariant(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
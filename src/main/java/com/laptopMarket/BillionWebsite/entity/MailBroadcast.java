@@ -0,0 +1,47 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A MailMessage addressed to every customer, not yet fully turned into
+ * MailOutboxEntry rows. MailDispatcher expands it one page of customers at
+ * a time, in id order, and removes the row after the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "mail_broadcasts")
+public class MailBroadcast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", nullable = false)
+    private MailMessage message;
+
+    // Keyset position: the last customer given an outbox row, null before the first page
+    private UUID lastRecipientId;
+
+    @Column(nullable = false)
+    private int recipients;
+
+    // Two dispatchers expanding the same page: the second one's commit fails
+    @Version
+    private long version;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+public enum MailStatus {
+    PENDING,    // waiting for its next attempt
+    SENDING,    // claimed by a dispatcher
+    SENT,
+    FAILED      // gave up after mail.outbox.max-attempts
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -42,8 +43,11 @@ public class Product {
     private Integer stock;
 
     // ── Multiple images ────────────────────────────────────
+    // @BatchSize: touching images on one product of a listing loads the
+    // images of up to 100 products in the session with a single IN query
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("displayOrder ASC")
+    @BatchSize(size = 100)
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 
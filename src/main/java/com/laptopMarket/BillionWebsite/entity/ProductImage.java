@@ -2,6 +2,13 @@ package com.laptopMarket.BillionWebsite.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "product_images")
@@ -28,4 +35,33 @@ public class ProductImage {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
+
+    // ── Responsive variants (ImageVariant × webp / jpg) ────
+    // @BatchSize: a full catalog page has a few hundred images, so their
+    // variants load with one IN query as well
+    @OneToMany(mappedBy = "productImage", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 500)
+    @Builder.Default
+    private List<ProductImageVariant> variants = new ArrayList<>();
+
+    // ── Convenience helpers ────────────────────────────────
+
+    /**
+     * format → srcset ("url 240w, url 640w, url 1280w"), narrowest first.
+     * Empty for images uploaded before variants were generated.
+     */
+    public Map<String, String> getSrcsets() {
+        Map<String, Map<Integer, String>> byFormat = new TreeMap<>();
+        for (ProductImageVariant variant : variants) {
+            // A small original yields several variants of the same width: list it once
+            byFormat.computeIfAbsent(variant.getFormat(), format -> new TreeMap<>())
+                .putIfAbsent(variant.getWidth(), variant.getUrl());
+        }
+
+        Map<String, String> srcsets = new TreeMap<>();
+        byFormat.forEach((format, urls) -> srcsets.put(format, urls.entrySet().stream()
+            .map(url -> url.getValue() + " " + url.getKey() + "w")
+            .collect(Collectors.joining(", "))));
+        return srcsets;
+    }
 }
\ No newline at end of file
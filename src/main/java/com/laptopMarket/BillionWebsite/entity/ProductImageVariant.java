@@ -0,0 +1,44 @@
+package com.laptopMarket.BillionWebsite.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One derived copy of a ProductImage — a size (ImageVariant) in one format —
+ * generated by Cloudinary when the original was uploaded. url serves it
+ * as is, with no on-the-fly transformation.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "product_image_variants")
+public class ProductImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_image_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ProductImage productImage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageVariant variant;
+
+    // "webp" or "jpg"
+    @Column(nullable = false, length = 8)
+    private String format;
+
+    // Actual size — smaller than variant.width when the original was
+    private int width;
+    private int height;
+    private long bytes;
+
+    @Column(nullable = false)
+    private String url;
+}
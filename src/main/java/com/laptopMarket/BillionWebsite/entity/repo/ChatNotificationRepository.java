@@ -0,0 +1,53 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.ChatNotification;
+import com.laptopMarket.BillionWebsite.entity.SenderType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChatNotificationRepository extends JpaRepository<ChatNotification, Long> {
+
+    /** Pending notifications of one room for one side, up to and including lastId. */
+    interface PendingDigest {
+        Long getChatRoomId();
+        SenderType getRecipientType();
+        Long getLastId();
+    }
+
+    // Rooms whose latest pending message is older than the cutoff, quiet longest first
+    @Query("SELECT n.chatRoom.id AS chatRoomId, n.recipientType AS recipientType, MAX(n.id) AS lastId " +
+           "FROM ChatNotification n " +
+           "GROUP BY n.chatRoom.id, n.recipientType " +
+           "HAVING MAX(n.createdAt) <= :cutoff " +
+           "ORDER BY MAX(n.id)")
+    List<PendingDigest> findQuietDigests(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // The messages a digest covers, oldest first
+    @Query("SELECT n FROM ChatNotification n JOIN FETCH n.message " +
+           "WHERE n.chatRoom.id = :roomId AND n.recipientType = :recipient AND n.id <= :lastId " +
+           "ORDER BY n.id")
+    List<ChatNotification> findDigest(@Param("roomId") Long roomId,
+                                      @Param("recipient") SenderType recipient,
+                                      @Param("lastId") Long lastId);
+
+    // Claims a digest: 0 rows when another instance already sent it
+    @Modifying
+    @Query("DELETE FROM ChatNotification n " +
+           "WHERE n.chatRoom.id = :roomId AND n.recipientType = :recipient AND n.id <= :lastId")
+    int deleteDigest(@Param("roomId") Long roomId,
+                     @Param("recipient") SenderType recipient,
+                     @Param("lastId") Long lastId);
+
+    // Whoever writes in a room has read it — nothing left to tell them
+    @Modifying
+    @Query("DELETE FROM ChatNotification n WHERE n.chatRoom.id = :roomId AND n.recipientType = :recipient")
+    int deleteByRoomAndRecipient(@Param("roomId") Long roomId, @Param("recipient") SenderType recipient);
+}
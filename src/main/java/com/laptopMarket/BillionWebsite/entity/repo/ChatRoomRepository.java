@@ -2,6 +2,8 @@ package com.laptopMarket.BillionWebsite.entity.repo;
 
 import com.laptopMarket.BillionWebsite.entity.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +24,9 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
 
     // Check if a chat room already exists between this user and this product
     Optional<ChatRoom> findByUserIdAndProductId(UUID userId, Long productId);
+
+    // Room with everyone a notification email needs to name
+    @Query("SELECT r FROM ChatRoom r JOIN FETCH r.user JOIN FETCH r.shopOwner JOIN FETCH r.product " +
+           "WHERE r.id = :id")
+    Optional<ChatRoom> findWithParticipantsById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.ImageDeletion;
+import com.laptopMarket.BillionWebsite.entity.ImageDeletionStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+
+    // Deletions due for an attempt, oldest first
+    @Query("SELECT d.id FROM ImageDeletion d " +
+           "WHERE d.status = :status AND d.nextAttemptAt <= :now " +
+           "ORDER BY d.nextAttemptAt, d.id")
+    List<Long> findDueIds(@Param("status") ImageDeletionStatus status,
+                          @Param("now") LocalDateTime now,
+                          Limit limit);
+
+    // Claim for one worker run — rows another instance claimed first are skipped
+    @Modifying
+    @Query("UPDATE ImageDeletion d SET d.status = :deleting, d.claimToken = :token, d.claimedAt = :now " +
+           "WHERE d.id IN :ids AND d.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("pending") ImageDeletionStatus pending,
+              @Param("deleting") ImageDeletionStatus deleting);
+
+    // What a claim actually got
+    @Query("SELECT d FROM ImageDeletion d WHERE d.claimToken = :token ORDER BY d.id")
+    List<ImageDeletion> findClaimed(@Param("token") String token);
+
+    // Claims left behind by a worker that died mid-batch
+    @Modifying
+    @Query("UPDATE ImageDeletion d SET d.status = :pending, d.claimToken = NULL " +
+           "WHERE d.status = :deleting AND d.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") LocalDateTime cutoff,
+                           @Param("pending") ImageDeletionStatus pending,
+                           @Param("deleting") ImageDeletionStatus deleting);
+
+    long countByStatus(ImageDeletionStatus status);
+}
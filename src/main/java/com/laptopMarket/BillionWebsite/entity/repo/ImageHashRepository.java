@@ -0,0 +1,26 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.ImageHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ImageHashRepository extends JpaRepository<ImageHash, Long> {
+
+    Optional<ImageHash> findBySha256(String sha256);
+
+    // The image is gone from Cloudinary: the same bytes must upload again
+    @Modifying
+    @Query("DELETE FROM ImageHash h WHERE h.publicId = :publicId")
+    int deleteByPublicId(@Param("publicId") String publicId);
+
+    @Modifying
+    @Query("DELETE FROM ImageHash h WHERE h.publicId IN :publicIds")
+    int deleteByPublicIdIn(@Param("publicIds") Collection<String> publicIds);
+}
@@ -0,0 +1,14 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.MailBroadcast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MailBroadcastRepository extends JpaRepository<MailBroadcast, Long> {
+
+    // The broadcast to expand next — oldest first, so launches go out in order
+    Optional<MailBroadcast> findFirstByOrderByIdAsc();
+}
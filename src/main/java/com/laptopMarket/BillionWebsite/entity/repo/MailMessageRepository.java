@@ -0,0 +1,18 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.MailMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MailMessageRepository extends JpaRepository<MailMessage, Long> {
+
+    // Messages whose recipients have all been purged (and no broadcast still adds more)
+    @Modifying
+    @Query("DELETE FROM MailMessage m WHERE NOT EXISTS " +
+           "(SELECT 1 FROM MailOutboxEntry e WHERE e.message = m) " +
+           "AND NOT EXISTS (SELECT 1 FROM MailBroadcast b WHERE b.message = m)")
+    int deleteOrphans();
+}
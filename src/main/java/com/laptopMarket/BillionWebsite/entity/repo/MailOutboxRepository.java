@@ -0,0 +1,62 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.MailOutboxEntry;
+import com.laptopMarket.BillionWebsite.entity.MailStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntry, Long> {
+
+    // Entries due for an attempt, oldest first
+    @Query("SELECT e.id FROM MailOutboxEntry e " +
+           "WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt, e.id")
+    List<Long> findDueIds(@Param("status") MailStatus status,
+                          @Param("now") LocalDateTime now,
+                          Limit limit);
+
+    // Claim for one dispatch run — rows another instance claimed first are skipped
+    @Modifying
+    @Query("UPDATE MailOutboxEntry e SET e.status = :sending, e.claimToken = :token, e.claimedAt = :now " +
+           "WHERE e.id IN :ids AND e.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("pending") MailStatus pending,
+              @Param("sending") MailStatus sending);
+
+    // What a claim actually got, with the message to send
+    @Query("SELECT e FROM MailOutboxEntry e JOIN FETCH e.message " +
+           "WHERE e.claimToken = :token ORDER BY e.id")
+    List<MailOutboxEntry> findClaimed(@Param("token") String token);
+
+    @Modifying
+    @Query("UPDATE MailOutboxEntry e SET e.status = :sent, e.sentAt = :now, e.claimToken = NULL, e.lastError = NULL " +
+           "WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("now") LocalDateTime now,
+                 @Param("sent") MailStatus sent);
+
+    // Claims left behind by a dispatcher that died mid-batch
+    @Modifying
+    @Query("UPDATE MailOutboxEntry e SET e.status = :pending, e.claimToken = NULL " +
+           "WHERE e.status = :sending AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") LocalDateTime cutoff,
+                           @Param("pending") MailStatus pending,
+                           @Param("sending") MailStatus sending);
+
+    long countByStatus(MailStatus status);
+
+    @Modifying
+    @Query("DELETE FROM MailOutboxEntry e WHERE e.status = :sent AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("sent") MailStatus sent);
+}
@@ -21,12 +21,14 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByProductId(Long productId);
 
     // Get all order items for a specific user across all their orders
-    // (navigates Order → User because OrderItem has no direct userId field)
-    List<OrderItem> findByOrderUserId(UUID userId);
+    // (navigates Order → User because OrderItem has no direct userId field;
+    // inner join so the plan starts from idx_orders_user_created, not a scan of order_items)
+    @Query("SELECT oi FROM OrderItem oi JOIN oi.order o WHERE o.user.id = :userId")
+    List<OrderItem> findByOrderUserId(@Param("userId") UUID userId);
 
     // Check if a specific product exists anywhere in a user's order history
     // (same navigation: OrderItem → Order → User)
-    Optional<OrderItem> findByOrderUserIdAndProductId(Long userId, Long productId);
+    Optional<OrderItem> findByOrderUserIdAndProductId(UUID userId, Long productId);
 
     // Check if a product already exists inside a specific order
     // (useful to avoid duplicate line items in the same order)
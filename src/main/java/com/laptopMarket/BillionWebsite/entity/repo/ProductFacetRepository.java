@@ -0,0 +1,30 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Aggregate query behind the filter facets — mixed into ProductRepository.
+ */
+public interface ProductFacetRepository {
+
+    /**
+     * One row per (category, brand) among the products matching spec, with
+     * the number of products in each price bucket. Buckets are split at
+     * priceBounds: [0, b0), [b0, b1), …, [bn, ∞) — so counts has
+     * priceBounds.size() + 1 entries.
+     */
+    List<FacetRow> countFacets(Specification<Product> spec, List<BigDecimal> priceBounds);
+
+    record FacetRow(String category, String brand, long[] counts) {
+
+        public long total() {
+            long total = 0;
+            for (long count : counts) total += count;
+            return total;
+        }
+    }
+}
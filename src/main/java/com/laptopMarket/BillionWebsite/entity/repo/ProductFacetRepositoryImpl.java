@@ -0,0 +1,68 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SELECT category, brand,
+ *        COUNT(CASE WHEN price <  b0              THEN id END),
+ *        COUNT(CASE WHEN price >= b0 AND price < b1 THEN id END), …
+ * FROM products WHERE <spec> GROUP BY category, brand
+ */
+class ProductFacetRepositoryImpl implements ProductFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FacetRow> countFacets(Specification<Product> spec, List<BigDecimal> priceBounds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Product> root = query.from(Product.class);
+        Path<BigDecimal> price = root.get("price");
+
+        List<Selection<?>> select = new ArrayList<>();
+        select.add(root.get("category"));
+        select.add(root.get("brand"));
+
+        BigDecimal lower = null;
+        for (int i = 0; i <= priceBounds.size(); i++) {
+            BigDecimal upper = i < priceBounds.size() ? priceBounds.get(i) : null;
+
+            List<Predicate> inBucket = new ArrayList<>(2);
+            if (lower != null) inBucket.add(cb.greaterThanOrEqualTo(price, lower));
+            if (upper != null) inBucket.add(cb.lessThan(price, upper));
+
+            // COUNT ignores the NULL produced outside the bucket
+            select.add(cb.count(cb.<Long>selectCase()
+                .when(cb.and(inBucket.toArray(Predicate[]::new)), root.<Long>get("id"))));
+            lower = upper;
+        }
+
+        Predicate where = spec.toPredicate(root, query, cb);
+        query.multiselect(select).groupBy(root.get("category"), root.get("brand"));
+        if (where != null) query.where(where);
+
+        List<FacetRow> rows = new ArrayList<>();
+        for (Object[] row : entityManager.createQuery(query).getResultList()) {
+            long[] counts = new long[priceBounds.size() + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = ((Number) row[i + 2]).longValue();
+            }
+            rows.add(new FacetRow((String) row[0], (String) row[1], counts));
+        }
+        return rows;
+    }
+}
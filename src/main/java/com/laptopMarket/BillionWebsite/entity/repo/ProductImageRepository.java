@@ -2,9 +2,19 @@ package com.laptopMarket.BillionWebsite.entity.repo;
 
 import com.laptopMarket.BillionWebsite.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findByProductIdOrderByDisplayOrderAsc(Long productId);
+
+    // Deduplicated uploads share a public ID: is it used by any image not being removed?
+    boolean existsByImagePublicIdAndIdNotIn(String imagePublicId, Collection<Long> ids);
+
+    // Which of these public IDs an image still shows — checked again right before a queued deletion
+    @Query("SELECT DISTINCT i.imagePublicId FROM ProductImage i WHERE i.imagePublicId IN :publicIds")
+    List<String> findUsedPublicIds(@Param("publicIds") Collection<String> publicIds);
 }
\ No newline at end of file
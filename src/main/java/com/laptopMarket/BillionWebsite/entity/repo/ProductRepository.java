@@ -1,44 +1,41 @@
 package com.laptopMarket.BillionWebsite.entity.repo;
 
 import com.laptopMarket.BillionWebsite.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>,
+                                           JpaSpecificationExecutor<Product>,
+                                           ProductFacetRepository {
+
+    // Categories are stored lower-case (AdminProductService), so category
+    // lookups take a lower-cased value and compare the column directly —
+    // the category indexes in db/migration only serve that form
 
     // ── CATEGORY ─────────────────────────────────────────────
     List<Product> findByCategory(String category);
-    List<Product> findByCategoryIgnoreCase(String category);
 
     // ── BRAND ────────────────────────────────────────────────
     List<Product> findByBrand(String brand);
-    List<Product> findByBrandIgnoreCase(String brand);
 
     // ── NAME SEARCH ──────────────────────────────────────────
     List<Product> findByNameContainingIgnoreCase(String name);
 
-    // ── NAME + CATEGORY ──────────────────────────────────────
-    List<Product> findByNameContainingIgnoreCaseAndCategoryIgnoreCase(String name, String category);
-
-    // ── NAME + BRAND ─────────────────────────────────────────
-    List<Product> findByNameContainingIgnoreCaseAndBrandIgnoreCase(String name, String brand);
-
-    // ── PRICE RANGE ──────────────────────────────────────────
-    List<Product> findByPriceBetween(BigDecimal min, BigDecimal max);
-
-    // ── CATEGORY + PRICE RANGE ───────────────────────────────
-    List<Product> findByCategoryIgnoreCaseAndPriceBetween(String category, BigDecimal min, BigDecimal max);
-
-    // ── IN STOCK ONLY ────────────────────────────────────────
-    List<Product> findByStockGreaterThan(int stock);
-
     // ── PRODUCTS BY ADMIN ────────────────────────────────────
     List<Product> findByAddedById(UUID adminId);
 
@@ -49,6 +46,55 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchByKeyword(@Param("keyword") String keyword);
 
+    // ── SEARCH / SUGGEST INDEX REBUILD ───────────────────────
+    // Only the columns the in-memory indexes read — no entities are loaded
+    @Query("SELECT new com.laptopMarket.BillionWebsite.entity.repo.ProductRepository$IndexRow(" +
+           "p.id, p.name, p.brand, p.category, p.description, p.price, p.createdAt) FROM Product p")
+    List<IndexRow> findIndexRows();
+
+    // ════════════════════════════════════════════════════════
+    // KEYSET (CURSOR) PAGINATION — customer catalog listings
+    // Sort is (createdAt, id) or (price, id), see ProductSort
+    // addedBy is joined in the same SELECT; images are batch
+    // loaded (Product.images @BatchSize), so a page costs two
+    // queries no matter how many products it holds
+    // ════════════════════════════════════════════════════════
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByStockGreaterThan(int stock, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByCategory(String category, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByBrandIgnoreCase(String brand, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByNameContainingIgnoreCase(String name, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByNameContainingIgnoreCaseAndCategory(String name, String category,
+                                                              ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByNameContainingIgnoreCaseAndBrandIgnoreCase(String name, String brand,
+                                                                     ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByPriceBetween(BigDecimal min, BigDecimal max,
+                                       ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "addedBy")
+    Window<Product> findByCategoryAndPriceBetween(String category, BigDecimal min, BigDecimal max,
+                                                  ScrollPosition position, Sort sort, Limit limit);
+
+    // ── PAGE OF SEARCH HITS (ids come from ProductSearchIndex) ──
+    @EntityGraph(attributePaths = "addedBy")
+    List<Product> findByIdIn(Collection<Long> ids);
+
     // ── ALL DISTINCT CATEGORIES (for filter dropdowns) ───────
     @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
     List<String> findAllCategories();
@@ -56,4 +102,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // ── ALL DISTINCT BRANDS (for filter dropdowns) ────────────
     @Query("SELECT DISTINCT p.brand FROM Product p ORDER BY p.brand")
     List<String> findAllBrands();
-}
\ No newline at end of file
+
+    /** The columns ProductSearchIndex and ProductSuggestIndex are built from. */
+    record IndexRow(Long id, String name, String brand, String category, String description,
+                    BigDecimal price, LocalDateTime createdAt) {
+
+        public static IndexRow of(Product product) {
+            return new IndexRow(product.getId(), product.getName(), product.getBrand(), product.getCategory(),
+                                product.getDescription(), product.getPrice(), product.getCreatedAt());
+        }
+    }
+}
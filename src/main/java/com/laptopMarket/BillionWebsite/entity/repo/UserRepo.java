@@ -1,6 +1,10 @@
 package com.laptopMarket.BillionWebsite.entity.repo;
 
 import com.laptopMarket.BillionWebsite.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -20,4 +24,16 @@ public interface UserRepo extends JpaRepository<User, UUID> {
 
     // ── ADMIN: SEARCH BY NAME ────────────────────────────────
     List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
-}
\ No newline at end of file
+
+    // ── BROADCASTS: EVERY CUSTOMER, ONE PAGE AT A TIME ───────
+    // Keyset pages of the columns an email needs — no User entities are
+    // loaded, so a broadcast holds one page in memory however many customers
+    Window<Recipient> findRecipientsBy(ScrollPosition position, Sort sort, Limit limit);
+
+    interface Recipient {
+        UUID getId();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+    }
+}
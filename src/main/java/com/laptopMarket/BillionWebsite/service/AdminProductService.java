@@ -2,16 +2,19 @@ package com.laptopMarket.BillionWebsite.service;
 
 import com.laptopMarket.BillionWebsite.dto.ProductRequest;
 import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.entity.ImageVariant;
 import com.laptopMarket.BillionWebsite.entity.Product;
 import com.laptopMarket.BillionWebsite.entity.ProductImage;
+import com.laptopMarket.BillionWebsite.entity.ProductImageVariant;
 import com.laptopMarket.BillionWebsite.entity.ShopOwner;
-import com.laptopMarket.BillionWebsite.entity.User;
 import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
 import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
 import com.laptopMarket.BillionWebsite.entity.repo.ProductImageRepository;
-import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -28,9 +31,11 @@ public class AdminProductService {
     private final ProductRepository     productRepository;
     private final ProductImageRepository productImageRepository;
     private final AdminRepo             shopOwnerRepository;
-    private final UserRepo              userRepository;
     private final CloudinaryService     cloudinaryService;
+    private final ImageDeletionQueue    imageDeletionQueue;
     private final EmailService          emailService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate   transactionTemplate;
 
     // ── ADD PRODUCT ──────────────────────────────────────────
     public ProductResponse addProduct(ProductRequest request,
@@ -49,24 +54,31 @@ public class AdminProductService {
             .addedBy(admin)
             .build();
 
-        Product saved = productRepository.save(product); // save first to get ID
-
-        // Upload all images
-        if (images != null && !images.isEmpty()) {
-            List<ProductImage> productImages = uploadImages(images, saved);
-            productImageRepository.saveAll(productImages);
-            saved.setImages(productImages);
+        // Upload all images first, outside any transaction — a failed upload leaves no product behind
+        List<ProductImage> productImages = images != null && !images.isEmpty()
+            ? uploadImages(images, product)
+            : new ArrayList<>();
+
+        // Product, images and the announcement to all users commit together or not at all,
+        // so a failed save never leaves a product the admin would add again
+        Product saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Product created = productRepository.save(product);
+                productImageRepository.saveAll(productImages);
+                created.setImages(productImages);
+
+                events.publishEvent(ProductChangedEvent.created(created));
+                emailService.announceNewProductToAllUsers(created, admin.getShopName());
+                return created;
+            });
+        } catch (RuntimeException e) {
+            queueUnusedUploads(productImages);
+            throw e;
         }
 
         System.out.println("✅ Product added: [" + saved.getName() + "] with "
             + saved.getImages().size() + " image(s)");
-
-        // Email all users
-        List<User> allUsers = userRepository.findAll();
-        if (!allUsers.isEmpty()) {
-            emailService.announceNewProductToAllUsers(allUsers, saved, admin.getShopName());
-        }
-
         return mapToResponse(saved);
     }
 
@@ -77,45 +89,59 @@ public class AdminProductService {
                                          UUID adminId) throws IOException {
         Product product = findProductById(productId);
 
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setCategory(request.getCategory().toLowerCase());
-        product.setBrand(request.getBrand());
-        product.setStock(request.getStock());
-
-        // Delete specific images if requested
-        if (imageIdsToDelete != null && !imageIdsToDelete.isEmpty()) {
-            for (Long imageId : imageIdsToDelete) {
-                productImageRepository.findById(imageId).ifPresent(img -> {
-                    try {
-                        cloudinaryService.deleteImage(img.getImagePublicId());
-                        productImageRepository.delete(img);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to delete image: " + imageId, e);
-                    }
-                });
-            }
-            // Refresh the list after deletion
-            product.getImages().removeIf(img -> imageIdsToDelete.contains(img.getId()));
-        }
-
-        // Upload and append new images
-        if (newImages != null && !newImages.isEmpty()) {
-            // Current max order
-            int currentMaxOrder = product.getImages().stream()
-                .mapToInt(ProductImage::getDisplayOrder)
-                .max().orElse(-1);
-
-            List<ProductImage> addedImages = uploadImages(newImages, product, currentMaxOrder + 1);
-            productImageRepository.saveAll(addedImages);
-            product.getImages().addAll(addedImages);
+        // Upload new images first, outside any transaction — a failed upload changes nothing
+        List<ProductImage> addedImages = newImages != null && !newImages.isEmpty()
+            ? uploadImages(newImages, product)
+            : new ArrayList<>();
+
+        // The edit, the removed image rows, their deletion queue entries and the new
+        // images commit together — a failed save keeps the old images and their assets
+        ProductResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                Product managed = findProductById(productId);
+                String oldCategory = managed.getCategory();
+                String oldBrand    = managed.getBrand();
+
+                managed.setName(request.getName());
+                managed.setDescription(request.getDescription());
+                managed.setPrice(request.getPrice());
+                managed.setCategory(request.getCategory().toLowerCase());
+                managed.setBrand(request.getBrand());
+                managed.setStock(request.getStock());
+
+                List<ProductImage> removed = imageIdsToDelete != null && !imageIdsToDelete.isEmpty()
+                    ? productImageRepository.findAllById(imageIdsToDelete)
+                    : List.of();
+                List<Long> removedIds = removed.stream().map(ProductImage::getId).toList();
+                productImageRepository.deleteAll(removed);
+                managed.getImages().removeIf(img -> removedIds.contains(img.getId()));
+
+                // Appended after the current max order
+                int nextOrder = managed.getImages().stream()
+                    .mapToInt(ProductImage::getDisplayOrder)
+                    .max().orElse(-1) + 1;
+                for (ProductImage image : addedImages) {
+                    image.setProduct(managed);
+                    image.setDisplayOrder(nextOrder++);
+                }
+                productImageRepository.saveAll(addedImages);
+                managed.getImages().addAll(addedImages);
+
+                // After the new rows are saved, so an upload deduplicated onto a removed asset keeps it
+                queueDeletion(removed);
+
+                Product updated = productRepository.save(managed);
+                events.publishEvent(ProductChangedEvent.updated(updated, oldCategory, oldBrand));
+                System.out.println("✅ Product updated: [" + updated.getName() + "] — "
+                    + updated.getImages().size() + " image(s)");
+                return mapToResponse(updated);
+            });
+        } catch (RuntimeException e) {
+            queueUnusedUploads(addedImages);
+            throw e;
         }
-
-        Product updated = productRepository.save(product);
-        System.out.println("✅ Product updated: [" + updated.getName() + "] — "
-            + updated.getImages().size() + " image(s)");
-        return mapToResponse(updated);
+        return response;
     }
 
     // ── REPLACE ALL IMAGES ───────────────────────────────────
@@ -123,21 +149,36 @@ public class AdminProductService {
                                              List<MultipartFile> newImages) throws IOException {
         Product product = findProductById(productId);
 
-        // Delete all existing images from Cloudinary + DB
-        for (ProductImage img : product.getImages()) {
-            cloudinaryService.deleteImage(img.getImagePublicId());
+        // Upload new images first, outside any transaction — a failed upload changes nothing
+        List<ProductImage> uploaded = newImages != null && !newImages.isEmpty()
+            ? uploadImages(newImages, product)
+            : new ArrayList<>();
+
+        // Old rows go, their assets are queued and the new rows are saved in one commit;
+        // the store follows in the background
+        try {
+            return transactionTemplate.execute(status -> {
+                Product managed = findProductById(productId);
+                List<ProductImage> old = List.copyOf(managed.getImages());
+
+                productImageRepository.deleteAll(old);
+                managed.getImages().clear();
+
+                uploaded.forEach(image -> image.setProduct(managed));
+                productImageRepository.saveAll(uploaded);
+                managed.getImages().addAll(uploaded);
+
+                // After the new rows are saved, so an upload deduplicated onto an old asset keeps it
+                queueDeletion(old);
+
+                Product saved = productRepository.save(managed);
+                events.publishEvent(ProductChangedEvent.updated(saved));
+                return mapToResponse(saved);
+            });
+        } catch (RuntimeException e) {
+            queueUnusedUploads(uploaded);
+            throw e;
         }
-        productImageRepository.deleteAll(product.getImages());
-        product.getImages().clear();
-
-        // Upload new images
-        if (newImages != null && !newImages.isEmpty()) {
-            List<ProductImage> uploaded = uploadImages(newImages, product);
-            productImageRepository.saveAll(uploaded);
-            product.setImages(uploaded);
-        }
-
-        return mapToResponse(productRepository.save(product));
     }
 
     // ── UPDATE STOCK ONLY ────────────────────────────────────
@@ -145,19 +186,21 @@ public class AdminProductService {
         Product product = findProductById(productId);
         product.setStock(newStock);
         productRepository.save(product);
+        events.publishEvent(ProductChangedEvent.updated(product));
         return mapToResponse(product);
     }
 
     // ── REMOVE PRODUCT ───────────────────────────────────────
-    public String removeProduct(Long productId) throws IOException {
+    // One transaction: the product goes and its images are queued for
+    // deletion together; ImageDeletionWorker removes them from the store
+    @Transactional
+    public String removeProduct(Long productId) {
         Product product = findProductById(productId);
 
-        // Delete all images from Cloudinary
-        for (ProductImage img : product.getImages()) {
-            cloudinaryService.deleteImage(img.getImagePublicId());
-        }
+        queueDeletion(product.getImages());
 
         productRepository.delete(product); // cascade deletes ProductImage rows
+        events.publishEvent(ProductChangedEvent.removed(product));
         System.out.println("🗑️  Product removed: [" + product.getName() + "]");
         return "Product \"" + product.getName() + "\" removed successfully.";
     }
@@ -184,7 +227,7 @@ public class AdminProductService {
     }
 
     public List<ProductResponse> getByCategory(String category) {
-        return productRepository.findByCategoryIgnoreCase(category).stream().map(this::mapToResponse).collect(Collectors.toList());
+        return productRepository.findByCategory(category.trim().toLowerCase()).stream().map(this::mapToResponse).collect(Collectors.toList());
     }
 
     public List<String> getAllCategories() { return productRepository.findAllCategories(); }
@@ -192,35 +235,76 @@ public class AdminProductService {
 
     // ── PRIVATE HELPERS ──────────────────────────────────────
 
-    /** Upload a list of files starting at displayOrder = 0 */
+    /** Upload a list of files starting at displayOrder = 0 — all files at once */
     private List<ProductImage> uploadImages(List<MultipartFile> files, Product product) throws IOException {
-        return uploadImages(files, product, 0);
-    }
+        List<MultipartFile> nonEmpty = files.stream()
+            .filter(file -> file != null && !file.isEmpty())
+            .toList();
 
-    /** Upload a list of files starting at a given displayOrder offset */
-    private List<ProductImage> uploadImages(List<MultipartFile> files,
-                                             Product product,
-                                             int startOrder) throws IOException {
-        List<ProductImage> result = new ArrayList<>();
-        int order = startOrder;
-
-        for (MultipartFile file : files) {
-            if (file == null || file.isEmpty()) continue;
-
-            Map uploadResult = cloudinaryService.uploadImage(file, "laptopstore/products");
+        List<Map> uploadResults = cloudinaryService.uploadImages(nonEmpty, "laptopstore/products");
 
+        List<ProductImage> result = new ArrayList<>();
+        int order = 0;
+        for (Map uploadResult : uploadResults) {
             ProductImage image = ProductImage.builder()
                 .imageUrl((String) uploadResult.get("secure_url"))
                 .imagePublicId((String) uploadResult.get("public_id"))
                 .displayOrder(order++)
                 .product(product)
                 .build();
+            image.setVariants(variants(image, uploadResult));
 
             result.add(image);
         }
         return result;
     }
 
+    /** The variants the ImageStore generated with the upload ("eager", each tagged with its variant and format) */
+    private List<ProductImageVariant> variants(ProductImage image, Map<?, ?> uploadResult) {
+        List<ProductImageVariant> variants = new ArrayList<>();
+        if (!(uploadResult.get("eager") instanceof List<?> eager)) return variants;   // served as imageUrls only
+
+        for (Object entry : eager) {
+            Map<?, ?> derived = (Map<?, ?>) entry;
+            variants.add(ProductImageVariant.builder()
+                .productImage(image)
+                .variant(ImageVariant.valueOf((String) derived.get("variant")))
+                .format((String) derived.get("format"))
+                .width(((Number) derived.get("width")).intValue())
+                .height(((Number) derived.get("height")).intValue())
+                .bytes(((Number) derived.get("bytes")).longValue())
+                .url((String) derived.get("secure_url"))
+                .build());
+        }
+        return variants;
+    }
+
+    /**
+     * Queue the images' assets for deletion from the ImageStore — except one
+     * another product image still shows, which deduplicated uploads
+     * (ImageHashIndex) share.
+     */
+    private void queueDeletion(List<ProductImage> images) {
+        List<Long> leaving = images.stream().map(ProductImage::getId).toList();
+        List<String> unused = new ArrayList<>();
+        for (String publicId : images.stream().map(ProductImage::getImagePublicId).distinct().toList()) {
+            if (productImageRepository.existsByImagePublicIdAndIdNotIn(publicId, leaving)) {
+                System.out.println("🔗 " + publicId + " is still used by another image — kept in the store");
+                continue;
+            }
+            unused.add(publicId);
+        }
+        imageDeletionQueue.enqueue(unused);
+    }
+
+    /** Uploads whose product was never saved — except deduplicated ones another product shows. */
+    private void queueUnusedUploads(List<ProductImage> uploaded) {
+        List<String> publicIds = uploaded.stream().map(ProductImage::getImagePublicId).distinct().toList();
+        if (publicIds.isEmpty()) return;
+        List<String> used = productImageRepository.findUsedPublicIds(publicIds);
+        imageDeletionQueue.enqueue(publicIds.stream().filter(id -> !used.contains(id)).toList());
+    }
+
     private Product findProductById(Long id) {
         return productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -231,6 +315,9 @@ public class AdminProductService {
         List<String> imageUrls = p.getImages().stream()
             .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
             .collect(Collectors.toList());
+        List<Map<String, String>> imageSrcsets = p.getImages().stream()
+            .map(ProductImage::getSrcsets)
+            .collect(Collectors.toList());
 
         return ProductResponse.builder()
             .id(p.getId())
@@ -242,6 +329,8 @@ public class AdminProductService {
             .stock(p.getStock())
             .imageUrl(imageUrls.isEmpty() ? null : imageUrls.get(0))   // primary image
             .imageUrls(imageUrls)                                        // all images
+            .imageSrcset(imageSrcsets.isEmpty() ? Map.of() : imageSrcsets.get(0))
+            .imageSrcsets(imageSrcsets)
             .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
             .createdAt(p.getCreatedAt())
             .updatedAt(p.getUpdatedAt())
@@ -0,0 +1,132 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.Config.ChatPresence;
+import com.laptopMarket.BillionWebsite.entity.ChatMessage;
+import com.laptopMarket.BillionWebsite.entity.ChatNotification;
+import com.laptopMarket.BillionWebsite.entity.ChatRoom;
+import com.laptopMarket.BillionWebsite.entity.SenderType;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatNotificationRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatNotificationRepository.PendingDigest;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ChatNotifier — email digests for chat messages nobody has seen yet
+ * ─────────────────────────────────────────────────
+ * ChatService records one chat_notifications row per message, in the
+ * message's transaction. Every poll-interval-ms the rows of each room and
+ * side are collapsed into one email, but only once nothing new has been
+ * written there for quiet-seconds — a busy conversation produces a single
+ * digest instead of an email per message.
+ *
+ * A digest is dropped when the recipient has the room open over WebSocket
+ * (ChatPresence), and a side's pending rows are cleared as soon as it
+ * writes in the room itself. The digest email goes through MailOutbox, so
+ * claiming the rows and queueing the email commit together.
+ * ─────────────────────────────────────────────────
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatNotifier {
+
+    private final ChatNotificationRepository notificationRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatPresence presence;
+    private final EmailService emailService;
+
+    @Value("${chat.notify.quiet-seconds:120}")
+    private long quietSeconds;
+
+    @Value("${chat.notify.batch-size:100}")
+    private int batchSize;
+
+    @Value("${chat.notify.digest-max-messages:5}")
+    private int digestMaxMessages;
+
+    // ── RECORD (in ChatService's transaction) ────────────────
+
+    /** A message the other side should hear about. */
+    @Transactional
+    public void messagePosted(ChatMessage message, SenderType recipientType) {
+        notificationRepository.save(ChatNotification.builder()
+            .chatRoom(message.getChatRoom())
+            .message(message)
+            .recipientType(recipientType)
+            .build());
+    }
+
+    /** The reader wrote in the room, so whatever was pending for them has been read. */
+    @Transactional
+    public void roomRead(Long chatRoomId, SenderType reader) {
+        notificationRepository.deleteByRoomAndRecipient(chatRoomId, reader);
+    }
+
+    // ── DIGESTS ──────────────────────────────────────────────
+
+    /** @return how many digest emails were queued */
+    @Scheduled(fixedDelayString = "${chat.notify.poll-interval-ms:15000}")
+    @Transactional
+    public int sendQuietDigests() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(quietSeconds);
+        List<PendingDigest> due = notificationRepository.findQuietDigests(cutoff, Limit.of(batchSize));
+        if (due.isEmpty()) return 0;
+
+        int sent = 0, skipped = 0;
+        for (PendingDigest digest : due) {
+            List<ChatNotification> pending = notificationRepository.findDigest(
+                digest.getChatRoomId(), digest.getRecipientType(), digest.getLastId());
+            int claimed = notificationRepository.deleteDigest(
+                digest.getChatRoomId(), digest.getRecipientType(), digest.getLastId());
+            if (claimed == 0 || pending.isEmpty()) continue;   // another instance got there first
+
+            if (presence.isWatching(digest.getRecipientType(), digest.getChatRoomId())) {
+                skipped++;
+                continue;
+            }
+            sendDigest(digest, pending.stream().map(ChatNotification::getMessage).toList());
+            sent++;
+        }
+
+        System.out.println("💬 Chat digests: " + sent + " queued, " + skipped + " skipped (recipient online)");
+        return sent;
+    }
+
+    private void sendDigest(PendingDigest digest, List<ChatMessage> messages) {
+        ChatRoom room = chatRoomRepository.findWithParticipantsById(digest.getChatRoomId())
+            .orElseThrow(() -> new RuntimeException("Chat room not found with id: " + digest.getChatRoomId()));
+
+        List<String> shown = messages.subList(Math.max(0, messages.size() - digestMaxMessages), messages.size())
+            .stream().map(ChatMessage::getContent).toList();
+        String senderName = messages.getLast().getSenderName();
+
+        if (digest.getRecipientType() == SenderType.ADMIN) {
+            emailService.notifyAdminOfUserMessages(
+                room.getShopOwner().getEmail(),
+                room.getShopOwner().getName(),
+                senderName,
+                room.getProduct().getName(),
+                shown,
+                messages.size(),
+                room.getId()
+            );
+        } else {
+            emailService.notifyUserOfAdminReplies(
+                room.getUser().getEmail(),
+                room.getUser().getFirstName() + " " + room.getUser().getLastName(),
+                senderName,
+                room.getProduct().getName(),
+                shown,
+                messages.size(),
+                room.getId()
+            );
+        }
+    }
+}
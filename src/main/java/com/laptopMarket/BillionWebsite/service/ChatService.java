@@ -22,7 +22,7 @@ public class ChatService {
     private final ProductRepository     productRepository;
     private final UserRepo              userRepository;
     private final AdminRepo             adminRepository;
-    private final EmailService          emailService;
+    private final ChatNotifier          chatNotifier;   // email digests, sent after the room goes quiet
     private final SimpMessagingTemplate messagingTemplate; // sends WebSocket messages
 
     // ─────────────────────────────────────────────────────────
@@ -113,15 +113,10 @@ public class ChatService {
             "/topic/admin/chat/" + chatRoomId, response
         );
 
-        // ── Send email notification to admin ────────────────────
-        emailService.notifyAdminOfUserMessage(
-            room.getShopOwner().getEmail(),
-            room.getShopOwner().getName(),
-            user.getFirstName() + " " + user.getLastName(),
-            room.getProduct().getName(),
-            request.getContent(),
-            chatRoomId
-        );
+        // ── Queue email notification to admin ───────────────────
+        // Coalesced with the rest of the conversation by ChatNotifier
+        chatNotifier.messagePosted(saved, SenderType.ADMIN);
+        chatNotifier.roomRead(chatRoomId, SenderType.USER);
 
         System.out.println("📨 User [" + user.getEmail() + "] sent message in chat #" + chatRoomId);
         return response;
@@ -156,16 +151,10 @@ public class ChatService {
             "/topic/user/chat/" + chatRoomId, response
         );
 
-        // ── Send email notification to the user ─────────────────
-        User user = room.getUser();
-        emailService.notifyUserOfAdminReply(
-            user.getEmail(),
-            user.getFirstName() + " " + user.getLastName(),
-            admin.getName(),
-            room.getProduct().getName(),
-            request.getContent(),
-            chatRoomId
-        );
+        // ── Queue email notification to the user ────────────────
+        // Coalesced with the rest of the conversation by ChatNotifier
+        chatNotifier.messagePosted(saved, SenderType.USER);
+        chatNotifier.roomRead(chatRoomId, SenderType.ADMIN);
 
         System.out.println("📨 Admin [" + admin.getName() + "] replied in chat #" + chatRoomId);
         return response;
@@ -0,0 +1,162 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.EagerTransformation;
+import com.cloudinary.Transformation;
+import com.cloudinary.utils.ObjectUtils;
+import com.laptopMarket.BillionWebsite.entity.ImageVariant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * ImageStore on Cloudinary. Variants are eager transformations generated
+ * in the upload request; images are delivered with f_auto,q_auto.
+ */
+@Component
+@ConditionalOnProperty(name = "images.store", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryImageStore implements ImageStore {
+
+    // ─── Delivery transformation applied to every catalog image ───
+    private static final String OPTIMIZED_TRANSFORMATION = "f_auto,q_auto";
+
+    // ─── Admin API delete_resources takes at most this many public IDs per call ───
+    private static final int DELETE_RESOURCES_LIMIT = 100;
+
+    // ─── Responsive variants generated with every upload ───
+    // One per ImageVariant × format, in this order: the upload result's
+    // "eager" list follows it entry for entry
+    private record Variant(ImageVariant size, String format) {
+        EagerTransformation eager() {
+            return new EagerTransformation()
+                    .crop("limit")            // never upscales
+                    .width(size.getWidth())
+                    .quality("auto")
+                    .format(format);
+        }
+    }
+
+    private static final List<Variant> VARIANTS = Arrays.stream(ImageVariant.values())
+            .flatMap(size -> Stream.of(new Variant(size, "webp"), new Variant(size, "jpg")))
+            .toList();
+
+    private static final List<EagerTransformation> EAGER_VARIANTS =
+            VARIANTS.stream().map(Variant::eager).toList();
+
+    private final Cloudinary cloudinary;
+
+    @Override
+    public Map upload(Path file, String folder) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(
+                file.toFile(),
+                ObjectUtils.asMap(
+                        "folder",         folder,
+                        "resource_type",  "image",
+                        "overwrite",      false,          // prevent overwriting existing
+                        "quality",        "auto",         // q_auto — Cloudinary picks best quality
+                        "fetch_format",   "auto",         // f_auto — serves WebP/AVIF where supported
+                        "flags",          "progressive",  // progressive JPEG for faster perceived load
+                        "eager",          EAGER_VARIANTS  // thumbnail / card / detail × webp / jpg, generated now
+                )
+        );
+        return tagVariants(uploadResult);
+    }
+
+    @Override
+    public Map delete(String publicId) throws IOException {
+        return cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+    }
+
+    /** delete_resources, DELETE_RESOURCES_LIMIT IDs per call — derived variants go with them. */
+    @Override
+    public Map<String, String> deleteAll(Collection<String> publicIds) throws IOException {
+        List<String> ids = List.copyOf(publicIds);
+        Map<String, String> results = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += DELETE_RESOURCES_LIMIT) {
+            List<String> chunk = ids.subList(from, Math.min(from + DELETE_RESOURCES_LIMIT, ids.size()));
+            Map response;
+            try {
+                response = cloudinary.api().deleteResources(chunk, ObjectUtils.asMap("type", "upload"));
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Cloudinary delete_resources failed: " + e.getMessage(), e);
+            }
+
+            // "deleted": { public_id → "deleted" | "not_found" }, in delete()'s words
+            if (!(response.get("deleted") instanceof Map<?, ?> deleted)) continue;
+            deleted.forEach((publicId, outcome) -> results.put((String) publicId, switch ((String) outcome) {
+                case "deleted"   -> "ok";
+                case "not_found" -> "not found";
+                default          -> (String) outcome;
+            }));
+        }
+        return results;
+    }
+
+    @Override
+    public String deliveryUrl(String publicId) {
+        return cloudinary.url()
+                .transformation(new Transformation().rawTransformation(OPTIMIZED_TRANSFORMATION))
+                .generate(publicId);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // LIST ALL IMAGES IN A FOLDER
+    // Returns all images stored under a given Cloudinary folder
+    // ─────────────────────────────────────────────────────────
+    public List<Map> listAllImagesInFolder(String folder) throws Exception {
+        Map result = cloudinary.api().resources(
+                ObjectUtils.asMap(
+                        "type",        "upload",
+                        "prefix",      folder,
+                        "max_results", 100
+                )
+        );
+
+        List<Map> resources = (List<Map>) result.get("resources");
+
+        System.out.println("📂 Images in folder [" + folder + "]:");
+        System.out.println("   Total found: " + resources.size());
+        System.out.println("   ─────────────────────────────────────────");
+        for (Map image : resources) {
+            System.out.println("   Public ID  : " + image.get("public_id"));
+            System.out.println("   URL        : " + image.get("secure_url"));
+            System.out.println("   Format     : " + image.get("format"));
+            System.out.println("   Size       : " + image.get("bytes") + " bytes");
+            System.out.println("   Dimensions : " + image.get("width") + "x" + image.get("height"));
+            System.out.println("   Created    : " + image.get("created_at"));
+            System.out.println("   ─────────────────────────────────────────");
+        }
+
+        return resources;
+    }
+
+    // Name each eager result after the VARIANTS entry it was generated for
+    private static Map tagVariants(Map<?, ?> uploadResult) {
+        if (!(uploadResult.get("eager") instanceof List<?> eager)) return uploadResult;
+
+        List<Map<Object, Object>> tagged = new ArrayList<>();
+        for (int i = 0; i < eager.size() && i < VARIANTS.size(); i++) {
+            Map<Object, Object> derived = new HashMap<>((Map<?, ?>) eager.get(i));
+            derived.put("variant", VARIANTS.get(i).size().name());
+            derived.put("format", VARIANTS.get(i).format());
+            tagged.add(derived);
+        }
+        Map<Object, Object> result = new HashMap<>(uploadResult);
+        result.put("eager", tagged);
+        return result;
+    }
+}
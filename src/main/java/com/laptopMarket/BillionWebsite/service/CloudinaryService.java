@@ -1,138 +1,250 @@
 package com.laptopMarket.BillionWebsite.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * CloudinaryService — the upload pipeline in front of an ImageStore
+ * ─────────────────────────────────────────────────
+ * Spools, deduplicates (ImageHashIndex) and compresses (ImageCompressor)
+ * each upload, then stores it in the configured ImageStore — Cloudinary
+ * unless images.store says otherwise; the name predates the choice.
+ * ─────────────────────────────────────────────────
+ */
 @Service
 public class CloudinaryService {
 
     @Autowired
-    private Cloudinary cloudinary;
+    private ImageStore imageStore;
+
+    @Autowired
+    @Qualifier("imageUploadExecutor")
+    private ExecutorService uploadExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ImageCompressor imageCompressor;
+
+    @Autowired
+    private ImageHashIndex imageHashIndex;
+
+    @Value("${images.upload.timeout-seconds:120}")
+    private long uploadTimeoutSeconds;
+
+    @Value("${images.upload.spool-dir:${java.io.tmpdir}}")
+    private String spoolDir;
 
     // ─── Max file size before compression kicks in (500KB) ───
     private static final long MAX_SIZE_BYTES = 500 * 1024;
 
+    // ─── Memoized delivery URLs, key = publicId ───
+    // URL generation is deterministic for a given public ID, so an entry only
+    // needs dropping when the image itself is deleted
+    private static final long MAX_CACHED_URLS = 50_000;
+
+    private final Cache<String, String> urlCache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_URLS)
+            .recordStats()
+            .build();
+
+    // Hit rate, evictions and size under cache.* with cache=images.url
+    @PostConstruct
+    void monitorUrlCache() {
+        CaffeineCacheMetrics.monitor(meterRegistry, urlCache, "images.url");
+    }
+
     // ─────────────────────────────────────────────────────────
     // UPLOAD IMAGE
-    // Compresses if over 500KB, checks for duplicates first
+    // Compresses if over 500KB, then stores it in one call
+    // (an existing image is never replaced). The store generates the responsive variants with it, returned
+    // under "eager" in the result. Bytes uploaded before are
+    // answered from ImageHashIndex without calling the store.
+    // The image is never held in heap as a byte[]: the multipart
+    // part is moved to a spool file and the upload streams it
     // ─────────────────────────────────────────────────────────
     public Map uploadImage(MultipartFile file, String folder) throws IOException {
 
-        // 1. Check for duplicate using original filename
-        String originalFilename = file.getOriginalFilename();
-        String publicIdToCheck = folder + "/" + getFilenameWithoutExtension(originalFilename);
-
-        if (imageExistsOnCloudinary(publicIdToCheck)) {
-            System.out.println("⚠️  Duplicate detected: " + publicIdToCheck + " already exists on Cloudinary. Skipping upload.");
-            // Return existing image details instead of re-uploading
-            try {
-                return cloudinary.api().resource(publicIdToCheck, ObjectUtils.emptyMap());
-            } catch (Exception e) {
-                throw new IOException("Failed to fetch existing image details", e);
+        // 1. Spool — for a part Tomcat already wrote to disk this is a rename, not a copy
+        Path spooled = Files.createTempFile(spoolDir(), "upload-", ".img");
+        Path compressed = null;
+        try {
+            file.transferTo(spooled.toFile());
+
+            // 2. Same bytes already stored? Then that upload is the answer
+            String sha256 = ImageHashIndex.sha256(spooled);
+            Optional<Map> known = imageHashIndex.find(sha256);
+            if (known.isPresent()) {
+                System.out.println("♻️  Already uploaded as " + known.get().get("public_id") + " — skipping");
+                return known.get();
             }
-        }
 
-        // 2. Compress image if it exceeds 500KB
-        byte[] imageBytes = file.getBytes();
-        if (imageBytes.length > MAX_SIZE_BYTES) {
-            System.out.println("📦 Image is " + (imageBytes.length / 1024) + "KB — compressing to under 500KB...");
-            imageBytes = compressImage(imageBytes);
-            System.out.println("✅ Compressed to " + (imageBytes.length / 1024) + "KB");
-        } else {
-            System.out.println("✅ Image is " + (imageBytes.length / 1024) + "KB — no compression needed.");
-        }
+            // 3. Compress image if it exceeds 500KB
+            Path toUpload = spooled;
+            long size = Files.size(spooled);
+            if (size > MAX_SIZE_BYTES) {
+                System.out.println("📦 Image is " + (size / 1024) + "KB — compressing to under 500KB...");
+                compressed = compressImage(spooled);
+                if (compressed != null) {
+                    toUpload = compressed;
+                    System.out.println("✅ Compressed to " + (Files.size(compressed) / 1024) + "KB");
+                }
+            } else {
+                System.out.println("✅ Image is " + (size / 1024) + "KB — no compression needed.");
+            }
+
+            // 4. Hand the file to the store (streamed from disk)
+            Map uploadResult = imageStore.upload(toUpload, folder);
 
-        // 3. Upload to Cloudinary with built-in optimization
-        Map uploadResult = cloudinary.uploader().upload(
-                imageBytes,
-                ObjectUtils.asMap(
-                        "folder",         folder,
-                        "resource_type",  "image",
-                        "overwrite",      false,          // prevent overwriting existing
-                        "quality",        "auto",         // q_auto — Cloudinary picks best quality
-                        "fetch_format",   "auto",         // f_auto — serves WebP/AVIF where supported
-                        "flags",          "progressive"   // progressive JPEG for faster perceived load
-                )
-        );
+            logUpload(uploadResult);
+            imageHashIndex.record(sha256, uploadResult);
+            return uploadResult;
+        } finally {
+            Files.deleteIfExists(spooled);
+            if (compressed != null) Files.deleteIfExists(compressed);
+        }
+    }
 
+    private void logUpload(Map uploadResult) {
         System.out.println("🚀 Uploaded successfully!");
         System.out.println("   URL        : " + uploadResult.get("secure_url"));
         System.out.println("   Public ID  : " + uploadResult.get("public_id"));
         System.out.println("   Format     : " + uploadResult.get("format"));
         System.out.println("   Size       : " + uploadResult.get("bytes") + " bytes");
         System.out.println("   Dimensions : " + uploadResult.get("width") + "x" + uploadResult.get("height"));
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // UPLOAD SEVERAL IMAGES (in parallel, on imageUploadExecutor)
+    // Results come back in the order of the files. If any upload
+    // fails the ones that succeeded are deleted again, so a failed
+    // product save leaves no orphans in the store
+    // ─────────────────────────────────────────────────────────
+    public List<Map> uploadImages(List<MultipartFile> files, String folder) throws IOException {
+        List<CompletableFuture<Map>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> timedUpload(file, folder), uploadExecutor))
+                .toList();
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                    .get(uploadTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(uploads);
+            throw new IOException("Image upload interrupted", e);
+        } catch (TimeoutException e) {
+            discard(uploads);
+            throw new IOException("Image upload timed out after " + uploadTimeoutSeconds + "s", e);
+        } catch (ExecutionException e) {
+            discard(uploads);
+            Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+            throw cause instanceof IOException io ? io : new IOException("Image upload failed", cause);
+        }
+
+        List<Map> results = new ArrayList<>(uploads.size());
+        uploads.forEach(upload -> results.add(upload.join()));
+        return results;
+    }
+
+    private Map timedUpload(MultipartFile file, String folder) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Map result = uploadImage(file, folder);
+            outcome = "success";
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            long nanos = sample.stop(uploadTimer(outcome));
+            System.out.println("⏱️  " + file.getOriginalFilename() + " upload " + outcome
+                    + " in " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+        }
+    }
 
-        return uploadResult;
+    private Timer uploadTimer(String outcome) {
+        return Timer.builder("images.upload")
+                .description("Compressing and uploading one image to the ImageStore")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Delete whatever was (or still will be) uploaded by a batch that failed as a whole —
+    // except deduplicated results, whose asset belongs to an earlier upload
+    private void discard(List<CompletableFuture<Map>> uploads) {
+        for (CompletableFuture<Map> upload : uploads) {
+            upload.thenAccept(result -> {
+                if (result.containsKey(ImageHashIndex.DEDUPLICATED)) return;
+                try {
+                    deleteImage((String) result.get("public_id"));
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("⚠️  Could not delete orphaned upload " + result.get("public_id") + ": " + e.getMessage());
+                }
+            });
+        }
     }
 
     // ─────────────────────────────────────────────────────────
     // DELETE IMAGE
+    // Deduplicated uploads share one public ID: callers make sure
+    // no other product image still uses it
     // ─────────────────────────────────────────────────────────
     public Map deleteImage(String publicId) throws IOException {
-        System.out.println("🗑️  Deleting image from Cloudinary: " + publicId);
-        Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+        System.out.println("🗑️  Deleting image: " + publicId);
+        imageHashIndex.forget(publicId);   // first, so nothing is deduplicated onto a dying asset
+        Map result = imageStore.delete(publicId);
+        urlCache.invalidate(publicId);
         System.out.println("   Result: " + result.get("result"));
         return result;
     }
 
     // ─────────────────────────────────────────────────────────
-    // GET SINGLE IMAGE URL (with q_auto + f_auto optimization)
-    // Returns the optimized URL for a given public ID
+    // DELETE MANY IMAGES (ImageDeletionWorker, one call per batch)
+    // Same contract as deleteImage; returns public ID → "ok" or
+    // "not found" for every asset the store deleted or never had
     // ─────────────────────────────────────────────────────────
-    public String getOptimizedImageUrl(String publicId) {
-        String url = cloudinary.url()
-                .transformation(new com.cloudinary.Transformation()
-                        .quality("auto")      // q_auto
-                        .fetchFormat("auto")  // f_auto
-                )
-                .generate(publicId);
-
-        System.out.println("🖼️  Optimized image URL for [" + publicId + "]:");
-        System.out.println("   " + url);
-        return url;
+    public Map<String, String> deleteImages(Collection<String> publicIds) throws IOException {
+        System.out.println("🗑️  Deleting " + publicIds.size() + " image(s)");
+        imageHashIndex.forgetAll(publicIds);
+        Map<String, String> results = imageStore.deleteAll(publicIds);
+        urlCache.invalidateAll(publicIds);
+        return results;
     }
 
     // ─────────────────────────────────────────────────────────
-    // LIST ALL IMAGES IN A FOLDER
-    // Returns all images stored under a given Cloudinary folder
+    // GET SINGLE IMAGE URL (Cloudinary: with q_auto + f_auto optimization)
+    // Returns the store's delivery URL for a given public ID.
+    // Built once per image and then served from urlCache, so a
+    // catalog page no longer signs/builds a URL per image per read
     // ─────────────────────────────────────────────────────────
-    public List<Map> listAllImagesInFolder(String folder) throws Exception {
-        Map result = cloudinary.api().resources(
-                ObjectUtils.asMap(
-                        "type",        "upload",
-                        "prefix",      folder,
-                        "max_results", 100
-                )
-        );
-
-        List<Map> resources = (List<Map>) result.get("resources");
-
-        System.out.println("📂 Images in folder [" + folder + "]:");
-        System.out.println("   Total found: " + resources.size());
-        System.out.println("   ─────────────────────────────────────────");
-        for (Map image : resources) {
-            System.out.println("   Public ID  : " + image.get("public_id"));
-            System.out.println("   URL        : " + image.get("secure_url"));
-            System.out.println("   Format     : " + image.get("format"));
-            System.out.println("   Size       : " + image.get("bytes") + " bytes");
-            System.out.println("   Dimensions : " + image.get("width") + "x" + image.get("height"));
-            System.out.println("   Created    : " + image.get("created_at"));
-            System.out.println("   ─────────────────────────────────────────");
-        }
-
-        return resources;
+    public String getOptimizedImageUrl(String publicId) {
+        if (publicId == null) return null;
+        return urlCache.get(publicId, imageStore::deliveryUrl);
     }
 
     // ─────────────────────────────────────────────────────────
@@ -140,67 +252,28 @@ public class CloudinaryService {
     // ─────────────────────────────────────────────────────────
 
     /**
-     * Compress image bytes to stay under 500KB.
-     * Progressively reduces JPEG quality until small enough.
+     * Compress an image file to stay under 500KB (see ImageCompressor).
+     * @return the compressed spool file, or null when the image cannot be decoded
      */
-    private byte[] compressImage(byte[] originalBytes) throws IOException {
-        BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(originalBytes));
-
-        // Convert transparent images (PNG) to RGB for JPEG compression
-        if (bufferedImage.getType() == BufferedImage.TYPE_4BYTE_ABGR
-                || bufferedImage.getType() == BufferedImage.TYPE_INT_ARGB) {
-            BufferedImage rgbImage = new BufferedImage(
-                    bufferedImage.getWidth(),
-                    bufferedImage.getHeight(),
-                    BufferedImage.TYPE_INT_RGB
-            );
-            Graphics2D g = rgbImage.createGraphics();
-            g.drawImage(bufferedImage, 0, 0, Color.WHITE, null);
-            g.dispose();
-            bufferedImage = rgbImage;
-        }
-
-        // Reduce quality step by step until under 500KB
-        float quality = 0.85f;
-        byte[] compressed = originalBytes;
-
-        while (compressed.length > MAX_SIZE_BYTES && quality > 0.1f) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            var jpegWriter = ImageIO.getImageWritersByFormatName("jpeg").next();
-            var jpegParams = jpegWriter.getDefaultWriteParam();
-            jpegParams.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
-            jpegParams.setCompressionQuality(quality);
-
-            try (var ios = ImageIO.createImageOutputStream(baos)) {
-                jpegWriter.setOutput(ios);
-                jpegWriter.write(null, new javax.imageio.IIOImage(bufferedImage, null, null), jpegParams);
-            }
-            jpegWriter.dispose();
-            compressed = baos.toByteArray();
-            quality -= 0.1f;
-        }
-
-        return compressed;
-    }
-
-    /**
-     * Check if an image already exists on Cloudinary to avoid duplicates.
-     */
-    private boolean imageExistsOnCloudinary(String publicId) {
+    private Path compressImage(Path original) throws IOException {
+        Path compressed = Files.createTempFile(spoolDir(), "compressed-", ".jpg");
         try {
-            cloudinary.api().resource(publicId, ObjectUtils.emptyMap());
-            return true;
-        } catch (Exception e) {
-            return false;
+            ImageCompressor.Result result = imageCompressor.compress(original, compressed, MAX_SIZE_BYTES);
+            if (result == null) {
+                System.out.println("⚠️  Unreadable image format — uploading as is");
+                Files.deleteIfExists(compressed);
+                return null;
+            }
+            System.out.println("🗜️  " + result.width() + "x" + result.height() + " at quality "
+                    + String.format("%.2f", result.quality()) + " after " + result.encodes() + " encode(s)");
+            return compressed;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compressed);
+            throw e;
         }
     }
 
-    /**
-     * Strip file extension. e.g. "dell-xps.jpg" → "dell-xps"
-     */
-    private String getFilenameWithoutExtension(String filename) {
-        if (filename == null) return "unknown";
-        int dotIndex = filename.lastIndexOf('.');
-        return dotIndex > 0 ? filename.substring(0, dotIndex) : filename;
+    private Path spoolDir() {
+        return Path.of(spoolDir);
     }
 }
\ No newline at end of file
@@ -1,26 +1,21 @@
 package com.laptopMarket.BillionWebsite.service;
 
 import com.laptopMarket.BillionWebsite.entity.Product;
-import com.laptopMarket.BillionWebsite.entity.User;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
 import java.util.List;
 
+/**
+ * Builds the shop's emails and queues them in MailOutbox — in the caller's
+ * transaction, without touching SMTP. MailDispatcher does the sending.
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailOutbox mailOutbox;
 
     private static final String SHOP_NAME   = "Billions Laptops";
     private static final String FOOTER_TEXT = "Billions Laptops — Your Trusted Laptop & Accessories Store";
@@ -31,14 +26,17 @@ public class EmailService {
     // ─────────────────────────────────────────────────────────
 
     /**
-     * Email sent to ADMIN when a USER sends a message.
-     * Contains the customer name, product name, and message content.
+     * Digest sent to ADMIN when a USER has written and the room went quiet.
+     * Contains the customer name, product name and the latest messages.
+     * @param messages     the newest messages, oldest first (at most a few)
+     * @param messageCount how many messages the digest covers in total
      */
-    @Async
-    public void notifyAdminOfUserMessage(String adminEmail, String adminName,
-                                         String customerName, String productName,
-                                         String messageContent, Long chatRoomId) {
-        String subject = "Billions Laptops | 💬 New message from " + customerName + " about \"" + productName + "\"";
+    public void notifyAdminOfUserMessages(String adminEmail, String adminName,
+                                          String customerName, String productName,
+                                          List<String> messages, int messageCount, Long chatRoomId) {
+        String subject = messageCount == 1
+            ? "Billions Laptops | 💬 New message from " + customerName + " about \"" + productName + "\""
+            : "Billions Laptops | 💬 " + messageCount + " new messages from " + customerName + " about \"" + productName + "\"";
 
         String body = """
             <html><body style="font-family: Arial, sans-serif; color: #333;">
@@ -49,10 +47,8 @@ public class EmailService {
                 </div>
                 <div style="padding:24px;">
                   <p>Hi <strong>%s</strong>,</p>
-                  <p><strong>%s</strong> sent you a message about <strong>"%s"</strong>:</p>
-                  <div style="background:#f5f5f5; padding:16px; border-left:4px solid #0a235a; border-radius:4px; margin:16px 0;">
-                    <p style="margin:0; font-size:15px;">"%s"</p>
-                  </div>
+                  <p><strong>%s</strong> sent you %s about <strong>"%s"</strong>:</p>
+                  %s
                   <a href="http://localhost:8080/chat/%d"
                      style="background:#0a235a; color:white; padding:12px 24px; border-radius:6px;
                             text-decoration:none; display:inline-block; margin-top:8px;">
@@ -64,20 +60,24 @@ public class EmailService {
                 </div>
               </div>
             </body></html>
-            """.formatted(HEADER_BG, SHOP_NAME, adminName, customerName, productName, messageContent, chatRoomId, FOOTER_TEXT);
+            """.formatted(HEADER_BG, SHOP_NAME, escape(adminName), escape(customerName), messagesPhrase(messageCount),
+                          escape(productName), quotes(messages, messageCount, "#0a235a"), chatRoomId, FOOTER_TEXT);
 
         sendHtmlEmail(adminEmail, subject, body);
     }
 
     /**
-     * Email sent to USER when ADMIN replies to their message.
-     * Contains the admin reply and a link back to the chat.
+     * Digest sent to USER when ADMIN has replied and the room went quiet.
+     * Contains the latest replies and a link back to the chat.
+     * @param messages     the newest replies, oldest first (at most a few)
+     * @param messageCount how many replies the digest covers in total
      */
-    @Async
-    public void notifyUserOfAdminReply(String userEmail, String userName,
-                                       String adminName, String productName,
-                                       String messageContent, Long chatRoomId) {
-        String subject = "Billions Laptops | 💬 " + adminName + " replied about \"" + productName + "\"";
+    public void notifyUserOfAdminReplies(String userEmail, String userName,
+                                         String adminName, String productName,
+                                         List<String> messages, int messageCount, Long chatRoomId) {
+        String subject = messageCount == 1
+            ? "Billions Laptops | 💬 " + adminName + " replied about \"" + productName + "\""
+            : "Billions Laptops | 💬 " + messageCount + " replies from " + adminName + " about \"" + productName + "\"";
 
         String body = """
             <html><body style="font-family: Arial, sans-serif; color: #333;">
@@ -89,9 +89,7 @@ public class EmailService {
                 <div style="padding:24px;">
                   <p>Hi <strong>%s</strong>,</p>
                   <p><strong>%s</strong> replied to your enquiry about <strong>"%s"</strong>:</p>
-                  <div style="background:#f5f5f5; padding:16px; border-left:4px solid #28a745; border-radius:4px; margin:16px 0;">
-                    <p style="margin:0; font-size:15px;">"%s"</p>
-                  </div>
+                  %s
                   <a href="http://localhost:8080/chat/%d"
                      style="background:#28a745; color:white; padding:12px 24px; border-radius:6px;
                             text-decoration:none; display:inline-block; margin-top:8px;">
@@ -103,11 +101,39 @@ public class EmailService {
                 </div>
               </div>
             </body></html>
-            """.formatted(HEADER_BG, SHOP_NAME, userName, adminName, productName, messageContent, chatRoomId, FOOTER_TEXT);
+            """.formatted(HEADER_BG, SHOP_NAME, escape(userName), escape(adminName), escape(productName),
+                          quotes(messages, messageCount, "#28a745"), chatRoomId, FOOTER_TEXT);
 
         sendHtmlEmail(userEmail, subject, body);
     }
 
+    private static String messagesPhrase(int messageCount) {
+        return messageCount == 1 ? "a message" : messageCount + " messages";
+    }
+
+    // One quote block per message, with a note for the older ones left out
+    private static String quotes(List<String> messages, int messageCount, String accent) {
+        StringBuilder html = new StringBuilder();
+        int omitted = messageCount - messages.size();
+        if (omitted > 0) {
+            html.append("<p style=\"color:#888; font-size:13px;\">… and ").append(omitted)
+                .append(omitted == 1 ? " earlier message" : " earlier messages").append("</p>");
+        }
+        for (String message : messages) {
+            html.append("""
+                <div style="background:#f5f5f5; padding:16px; border-left:4px solid %s; border-radius:4px; margin:16px 0;">
+                  <p style="margin:0; font-size:15px;">"%s"</p>
+                </div>
+                """.formatted(accent, escape(message)));
+        }
+        return html.toString();
+    }
+
+    // Chat text is typed by customers — never let it become markup in the email
+    private static String escape(String text) {
+        return text == null ? "" : HtmlUtils.htmlEscape(text);
+    }
+
     // ─────────────────────────────────────────────────────────
     // NEW PRODUCT ANNOUNCEMENT — sent to ALL users
     // ─────────────────────────────────────────────────────────
@@ -115,9 +141,10 @@ public class EmailService {
     /**
      * When admin uploads a new product, send an email to ALL users.
      * Email contains product image, name, description, and price.
+     * Queued as one broadcast — two rows however many customers there are,
+     * in the caller's transaction; MailDispatcher adds the recipients.
      */
-    @Async
-    public void announceNewProductToAllUsers(List<User> allUsers, Product product, String adminShopName) {
+    public void announceNewProductToAllUsers(Product product, String adminShopName) {
         String subject = "Billions Laptops | 🆕 New arrival: " + product.getName() + " just dropped!";
 
         String body = """
@@ -162,10 +189,9 @@ public class EmailService {
                 FOOTER_TEXT
         );
 
-        // Send to each user asynchronously so it doesn't block the product upload
-        allUsers.forEach(user -> sendHtmlEmail(user.getEmail(), subject, body));
-
-        System.out.println("📧 Product announcement sent to " + allUsers.size() + " users for: " + product.getName());
+        // One stored message; MailDispatcher turns it into one outbox row per user, page by page
+        mailOutbox.broadcast(subject, body);
+        System.out.println("📧 Product announcement queued for all users for: " + product.getName());
     }
 
     // ─────────────────────────────────────────────────────────
@@ -173,17 +199,6 @@ public class EmailService {
     // ─────────────────────────────────────────────────────────
 
     private void sendHtmlEmail(String to, String subject, String htmlBody) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true); // true = HTML
-            mailSender.send(message);
-            System.out.println("📧 Email sent to: " + to + " | Subject: " + subject);
-        } catch (MessagingException e) {
-            System.err.println("❌ Failed to send email to " + to + ": " + e.getMessage());
-        }
+        mailOutbox.enqueue(subject, htmlBody, List.of(to));
     }
-}
\ No newline at end of file
+}
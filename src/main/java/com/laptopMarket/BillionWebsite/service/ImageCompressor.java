@@ -0,0 +1,194 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * ImageCompressor — re-encodes an uploaded photo as a JPEG under a byte budget
+ * ─────────────────────────────────────────────────
+ * The photo is subsampled while it is decoded: one larger than max-dimension
+ * on its long side is never decoded at full resolution, so the raster in
+ * heap is bounded by max-dimension² pixels whatever the upload was.
+ *
+ * The JPEG quality is found by binary search — the highest quality whose
+ * output fits, to within QUALITY_PRECISION — instead of stepping down 0.1 at
+ * a time, and a photo that already fits at MAX_QUALITY costs one encode.
+ * Every attempt of a call goes through the same ImageWriter into one of two
+ * reused buffers; only the winner is written to the target file. When even
+ * MIN_QUALITY does not fit, the image is halved and searched again.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+public class ImageCompressor {
+
+    /** What compress() produced; encodes counts every JPEG encode it took. */
+    public record Result(int width, int height, float quality, long bytes, int encodes) {}
+
+    private static final float MAX_QUALITY = 0.85f;
+    private static final float MIN_QUALITY = 0.1f;
+    private static final float QUALITY_PRECISION = 0.05f;
+    private static final int MAX_DOWNSCALES = 3;
+
+    private final int maxDimension;
+
+    public ImageCompressor(@Value("${images.compress.max-dimension:2048}") int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Compress source into target as a JPEG of at most maxBytes (or as small
+     * as it gets after MAX_DOWNSCALES halvings).
+     * @return what was written, or null when ImageIO cannot decode the source
+     */
+    public Result compress(Path source, Path target, long maxBytes) throws IOException {
+        BufferedImage image = decode(source);
+        if (image == null) return null;
+        image = opaqueRgb(image);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            Encoder encoder = new Encoder(writer);
+            Attempt fitting = null;
+            for (int downscales = 0; fitting == null; downscales++) {
+                fitting = search(image, encoder, maxBytes);
+                if (fitting == null && downscales == MAX_DOWNSCALES) {
+                    fitting = encoder.smallest;   // best effort, like the old loop at its floor
+                } else if (fitting == null) {
+                    image = halve(image);
+                }
+            }
+
+            try (OutputStream out = Files.newOutputStream(target)) {
+                fitting.buffer().writeTo(out);
+            }
+            return new Result(image.getWidth(), image.getHeight(), fitting.quality(),
+                              fitting.buffer().size(), encoder.encodes);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // ── QUALITY SEARCH ───────────────────────────────────────
+
+    /** Highest quality that fits, or null when even MIN_QUALITY does not. */
+    private Attempt search(BufferedImage image, Encoder encoder, long maxBytes) throws IOException {
+        Attempt best = encoder.encode(image, MAX_QUALITY, null);
+        if (best.buffer().size() <= maxBytes) return best;   // early exit: fits as is
+
+        best = encoder.encode(image, MIN_QUALITY, null);
+        encoder.smallest = best;
+        if (best.buffer().size() > maxBytes) return null;
+
+        float low = MIN_QUALITY, high = MAX_QUALITY;
+        while (high - low > QUALITY_PRECISION) {
+            float mid = (low + high) / 2;
+            Attempt attempt = encoder.encode(image, mid, best);
+            if (attempt.buffer().size() <= maxBytes) {
+                best = attempt;
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return best;
+    }
+
+    private record Attempt(float quality, ByteArrayOutputStream buffer) {}
+
+    /** One writer and two reused buffers for every attempt of a compress() call. */
+    private static final class Encoder {
+        private final ImageWriter writer;
+        private final ImageWriteParam param;
+        private final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        Attempt smallest;
+        int encodes;
+
+        Encoder(ImageWriter writer) {
+            this.writer = writer;
+            this.param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        }
+
+        /** @param keep an earlier attempt whose buffer must survive this one, or null */
+        Attempt encode(BufferedImage image, float quality, Attempt keep) throws IOException {
+            ByteArrayOutputStream buffer = keep != null && keep.buffer() == first ? second : first;
+            buffer.reset();
+
+            param.setCompressionQuality(quality);
+            try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            writer.reset();
+            encodes++;
+            return new Attempt(quality, buffer);
+        }
+    }
+
+    // ── DECODE / RESIZE ──────────────────────────────────────
+
+    /** Decode with source subsampling, so the long side ends up at most maxDimension. */
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = (longSide + maxDimension - 1) / maxDimension;
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG has no alpha: transparent areas become white, exotic layouts plain RGB
+    private static BufferedImage opaqueRgb(BufferedImage image) {
+        int type = image.getType();
+        if (!image.getColorModel().hasAlpha()
+                && (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR
+                    || type == BufferedImage.TYPE_BYTE_GRAY)) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, Color.WHITE, null);
+        g.dispose();
+        return rgb;
+    }
+
+    private static BufferedImage halve(BufferedImage image) {
+        int width = Math.max(1, image.getWidth() / 2), height = Math.max(1, image.getHeight() / 2);
+        BufferedImage half = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = half.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return half;
+    }
+}
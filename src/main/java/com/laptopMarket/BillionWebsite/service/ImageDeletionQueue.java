@@ -0,0 +1,133 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.ImageDeletion;
+import com.laptopMarket.BillionWebsite.entity.ImageDeletionStatus;
+import com.laptopMarket.BillionWebsite.entity.repo.ImageDeletionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ImageDeletionQueue — the durable queue between product changes and the ImageStore
+ * ─────────────────────────────────────────────────
+ * enqueue() stores one image_deletions row per asset in the caller's
+ * transaction, so an image is deleted exactly when the change that removed
+ * it was committed, and the request never waits for the store. It also
+ * forgets the assets' content hashes, so no upload is deduplicated onto an
+ * asset that is about to go. Nothing here talks to the store —
+ * ImageDeletionWorker claims due rows, deletes them and reports back
+ * through markDeleted / markFailed.
+ *
+ * A failed attempt is retried with exponential backoff (backoff-initial-ms,
+ * doubling per attempt, capped at backoff-max-ms) until max-attempts, then
+ * the row is left FAILED with the last error — the dead letters. Deleted
+ * rows are removed straight away.
+ * ─────────────────────────────────────────────────
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageDeletionQueue {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ImageDeletionRepository repository;
+    private final ImageHashIndex imageHashIndex;
+
+    @Value("${images.delete.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${images.delete.backoff-initial-ms:60000}")
+    private long backoffInitialMs;
+
+    @Value("${images.delete.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${images.delete.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
+    // ── ENQUEUE ──────────────────────────────────────────────
+
+    /** Queue the assets for deletion from the ImageStore. */
+    @Transactional
+    public void enqueue(Collection<String> publicIds) {
+        if (publicIds.isEmpty()) return;
+        imageHashIndex.forgetAll(publicIds);
+        repository.saveAll(publicIds.stream()
+            .distinct()
+            .map(publicId -> ImageDeletion.builder().publicId(publicId).build())
+            .toList());
+        System.out.println("🗑️  Queued " + publicIds.size() + " image(s) for deletion");
+    }
+
+    // ── WORKER SIDE ──────────────────────────────────────────
+
+    /**
+     * Claim up to max due deletions for one worker run.
+     * @return the claimed deletions; empty when nothing is due
+     */
+    @Transactional
+    public List<ImageDeletion> claimDue(int max) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = repository.findDueIds(ImageDeletionStatus.PENDING, now, Limit.of(max));
+        if (due.isEmpty()) return List.of();
+
+        String token = UUID.randomUUID().toString();
+        repository.claim(due, token, now, ImageDeletionStatus.PENDING, ImageDeletionStatus.DELETING);
+        return repository.findClaimed(token);
+    }
+
+    /** The assets are gone from the store (or were never there): drop the rows. */
+    @Transactional
+    public void markDeleted(Collection<Long> deletionIds) {
+        if (deletionIds.isEmpty()) return;
+        repository.deleteAllByIdInBatch(deletionIds);
+    }
+
+    /** @param errors deletion id → why the attempt failed */
+    @Transactional
+    public void markFailed(Map<Long, String> errors) {
+        if (errors.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ImageDeletion deletion : repository.findAllById(errors.keySet())) {
+            int attempts = deletion.getAttempts() + 1;
+            String error = errors.get(deletion.getId());
+
+            deletion.setAttempts(attempts);
+            deletion.setClaimToken(null);
+            deletion.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error);
+
+            if (attempts >= maxAttempts) {
+                deletion.setStatus(ImageDeletionStatus.FAILED);
+                System.err.println("❌ Giving up on deleting image " + deletion.getPublicId()
+                    + " after " + attempts + " attempts: " + error);
+            } else {
+                deletion.setStatus(ImageDeletionStatus.PENDING);
+                deletion.setNextAttemptAt(now.plus(backoff(attempts)));
+            }
+        }
+    }
+
+    /** Put deletions back that were claimed longer than claim-timeout-ms ago and never reported. */
+    @Transactional
+    public int releaseStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs));
+        return repository.releaseStaleClaims(cutoff, ImageDeletionStatus.PENDING, ImageDeletionStatus.DELETING);
+    }
+
+    /** 1st retry after backoff-initial-ms, then doubling, never above backoff-max-ms. */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Duration.ofMillis(Math.min(backoffInitialMs << doublings, backoffMaxMs));
+    }
+}
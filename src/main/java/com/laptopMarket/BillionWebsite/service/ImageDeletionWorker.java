@@ -0,0 +1,149 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.ImageDeletion;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageDeletionWorker — drains ImageDeletionQueue into the ImageStore
+ * ─────────────────────────────────────────────────
+ * Every poll-interval-ms it claims due deletions in batches of batch-size
+ * and deletes each batch with one ImageStore.deleteAll call (one Cloudinary
+ * delete_resources request), until a batch comes back short. The work runs
+ * on a single "image-deleter" thread, so a slow store never holds up the
+ * scheduler thread other jobs poll on; a poll that finds it busy leaves
+ * the backlog in the table for the next one.
+ *
+ * Right before deleting, a batch is checked against product_images once
+ * more: an asset an upload was deduplicated onto after it was queued is
+ * kept, and its deletion dropped.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageDeletionWorker {
+
+    private final ImageDeletionQueue queue;
+    private final CloudinaryService cloudinaryService;
+    private final ProductImageRepository productImageRepository;
+
+    @Value("${images.delete.batch-size:100}")
+    private int batchSize;
+
+    private ExecutorService deleter;
+    private final Semaphore idle = new Semaphore(1);
+
+    @PostConstruct
+    void start() {
+        deleter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-deleter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Let the batch in flight finish; anything unfinished is released by releaseStaleClaims
+        deleter.shutdown();
+        deleter.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // ── POLL ─────────────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${images.delete.poll-interval-ms:5000}")
+    public void poll() {
+        if (!idle.tryAcquire()) return;   // still draining since the last poll
+        deleter.execute(() -> {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️  Image deletion run failed: " + e.getMessage());
+            } finally {
+                idle.release();
+            }
+        });
+    }
+
+    /**
+     * Wait until no run is in flight.
+     * @return false if that did not happen within the timeout
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        if (!idle.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) return false;
+        idle.release();
+        return true;
+    }
+
+    void drain() {
+        int released = queue.releaseStaleClaims();
+        if (released > 0) {
+            System.out.println("♻️ Released " + released + " stale image deletion claim(s)");
+        }
+
+        List<ImageDeletion> batch;
+        do {
+            batch = queue.claimDue(batchSize);
+            if (!batch.isEmpty()) delete(batch);
+        } while (batch.size() == batchSize);
+    }
+
+    // ── DELETE ONE BATCH ─────────────────────────────────────
+
+    void delete(List<ImageDeletion> batch) {
+        Map<String, List<Long>> idsByPublicId = new LinkedHashMap<>();
+        for (ImageDeletion deletion : batch) {
+            idsByPublicId.computeIfAbsent(deletion.getPublicId(), id -> new ArrayList<>()).add(deletion.getId());
+        }
+
+        List<Long> done = new ArrayList<>(batch.size());
+        Map<Long, String> failed = new HashMap<>();
+
+        Set<String> stillUsed = new HashSet<>(productImageRepository.findUsedPublicIds(idsByPublicId.keySet()));
+        for (String publicId : stillUsed) {
+            System.out.println("🔗 " + publicId + " is used by an image again — kept in the store");
+            done.addAll(idsByPublicId.remove(publicId));
+        }
+
+        if (!idsByPublicId.isEmpty()) {
+            try {
+                Map<String, String> results = cloudinaryService.deleteImages(List.copyOf(idsByPublicId.keySet()));
+                idsByPublicId.forEach((publicId, ids) -> {
+                    String result = results.get(publicId);
+                    if ("ok".equals(result) || "not found".equals(result)) {
+                        done.addAll(ids);
+                    } else {
+                        String error = result == null ? "No answer from the image store" : "Image store answered " + result;
+                        ids.forEach(id -> failed.put(id, error));
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                // Nothing in this batch is known to be gone — retry all of it
+                idsByPublicId.values().forEach(ids -> ids.forEach(id -> failed.put(id, e.getMessage())));
+            }
+        }
+
+        queue.markDeleted(done);
+        queue.markFailed(failed);
+        System.out.println("🗑️  Image deletion batch: " + done.size() + " done, " + failed.size() + " failed");
+    }
+}
@@ -0,0 +1,101 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.cloudinary.utils.ObjectUtils;
+import com.laptopMarket.BillionWebsite.entity.ImageHash;
+import com.laptopMarket.BillionWebsite.entity.repo.ImageHashRepository;
+import lombok.RequiredArgsConstructor;
+import org.cloudinary.json.JSONObject;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ImageHashIndex — which image bytes are already on Cloudinary
+ * ─────────────────────────────────────────────────
+ * CloudinaryService hashes every spooled upload with SHA-256 and asks
+ * here first: the same photo uploaded again (to the same product or
+ * another one) gets the stored upload result back, with "deduplicated"
+ * set, and costs no Cloudinary call. Different photos that happen to
+ * share a filename hash differently and are both uploaded.
+ *
+ * An entry lives as long as its image: ImageDeletionQueue forgets it when
+ * the deletion is queued, CloudinaryService before destroying the asset.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageHashIndex {
+
+    /** Set on results answered from the index — the asset may be shared, never discard it. */
+    public static final String DEDUPLICATED = "deduplicated";
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final ImageHashRepository repository;
+
+    /** The upload result stored for these bytes, or empty when they were never uploaded. */
+    @Transactional(readOnly = true)
+    public Optional<Map> find(String sha256) {
+        return repository.findBySha256(sha256).<Map>map(hash -> {
+            Map<String, Object> result = new HashMap<>(ObjectUtils.toMap(new JSONObject(hash.getUploadResult())));
+            result.put(DEDUPLICATED, true);
+            return result;
+        });
+    }
+
+    /** Remember a fresh upload; losing a race with a parallel upload of the same bytes is harmless. */
+    public void record(String sha256, Map uploadResult) {
+        @SuppressWarnings("unchecked")   // upload results are raw Maps keyed by String
+        Map<String, Object> result = uploadResult;
+        try {
+            repository.save(ImageHash.builder()
+                .sha256(sha256)
+                .publicId((String) result.get("public_id"))
+                .uploadResult(ObjectUtils.toJSON(result).toString())
+                .build());
+        } catch (DataIntegrityViolationException e) {
+            System.out.println("⚠️  Same image uploaded twice at once — keeping the first as " + sha256);
+        }
+    }
+
+    @Transactional
+    public void forget(String publicId) {
+        repository.deleteByPublicId(publicId);
+    }
+
+    @Transactional
+    public void forgetAll(Collection<String> publicIds) {
+        if (publicIds.isEmpty()) return;
+        repository.deleteByPublicIdIn(publicIds);
+    }
+
+    /** Hex SHA-256 of a file, read in READ_BUFFER_BYTES chunks. */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,49 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ImageStore — where product images are kept and served from
+ * ─────────────────────────────────────────────────
+ * CloudinaryService spools, deduplicates and compresses an upload, then
+ * hands the file to the store images.store selects:
+ *
+ *   cloudinary   CloudinaryImageStore (default)
+ *   local        LocalImageStore — files under images.local.root, served
+ *                by LocalImageController, no network calls at all
+ *
+ * upload() answers in Cloudinary's shape, whichever store it is:
+ * public_id, secure_url, format, bytes, width, height, and "eager" — one
+ * map per responsive variant generated with the upload, each tagged with
+ * "variant" (an ImageVariant name) and "format".
+ * ─────────────────────────────────────────────────
+ */
+public interface ImageStore {
+
+    /** Store the file under folder; it is left in place for the caller to delete. */
+    Map upload(Path file, String folder) throws IOException;
+
+    /** @return the store's answer, "result" → "ok" or "not found" */
+    Map delete(String publicId) throws IOException;
+
+    /**
+     * Delete many assets in as few store calls as the store allows; one
+     * delete() each unless a store overrides it.
+     * @return public ID → "ok" or "not found"; any other answer, or a missing
+     *         ID, means that asset was not deleted
+     */
+    default Map<String, String> deleteAll(Collection<String> publicIds) throws IOException {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String publicId : publicIds) {
+            results.put(publicId, (String) delete(publicId).get("result"));
+        }
+        return results;
+    }
+
+    /** URL a browser loads the image from; deterministic, so callers may cache it. */
+    String deliveryUrl(String publicId);
+}
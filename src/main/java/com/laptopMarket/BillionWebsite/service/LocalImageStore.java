@@ -0,0 +1,182 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.ImageVariant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * ImageStore on the local filesystem, for self-hosting and for running
+ * the upload path with no network at all.
+ *
+ * Each image gets a directory named after its public ID under
+ * images.local.root, holding original.<format> and one JPEG per
+ * ImageVariant (thumbnail.jpg, card.jpg, detail.jpg — the JDK has no WebP
+ * encoder). Files never change once written, and LocalImageController
+ * serves them under images.local.base-url.
+ */
+@Component
+@ConditionalOnProperty(name = "images.store", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+
+    private static final float VARIANT_QUALITY = 0.8f;
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStore(@Value("${images.local.root:./data/images}") Path root,
+                           @Value("${images.local.base-url:/images}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(root).toRealPath();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public Map upload(Path file, String folder) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        if (image == null) throw new IOException("Not an image ImageIO can read: " + file.getFileName());
+        String format = formatOf(file);
+
+        String publicId = folder + "/" + UUID.randomUUID().toString().replace("-", "");
+        Path dir = Files.createDirectories(directoryOf(publicId));
+        try {
+            Path original = Files.copy(file, dir.resolve("original." + format));
+
+            List<Map> eager = new ArrayList<>();
+            for (ImageVariant size : ImageVariant.values()) {
+                eager.add(writeVariant(image, size, dir, publicId));
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("public_id", publicId);
+            result.put("secure_url", urlOf(publicId, original.getFileName().toString()));
+            result.put("format", format);
+            result.put("bytes", Files.size(original));
+            result.put("width", image.getWidth());
+            result.put("height", image.getHeight());
+            result.put("eager", eager);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(dir);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map delete(String publicId) throws IOException {
+        Path dir = directoryOf(publicId);
+        if (!Files.isDirectory(dir)) return Map.of("result", "not found");
+        deleteDirectory(dir);
+        return Map.of("result", "ok");
+    }
+
+    @Override
+    public String deliveryUrl(String publicId) {
+        try (DirectoryStream<Path> originals = Files.newDirectoryStream(directoryOf(publicId), "original.*")) {
+            for (Path original : originals) {
+                return urlOf(publicId, original.getFileName().toString());
+            }
+        } catch (IOException e) {
+            // gone from disk: the URL below answers 404 like a missing Cloudinary asset
+        }
+        return urlOf(publicId, "original.jpg");
+    }
+
+    /**
+     * The stored file a path under base-url names, or empty when there is
+     * none — including any path that would leave images.local.root.
+     */
+    public Optional<Path> resolve(String relativePath) {
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) return Optional.empty();
+        return Optional.of(file);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────
+
+    private Map<String, Object> writeVariant(BufferedImage image, ImageVariant size, Path dir, String publicId)
+            throws IOException {
+        BufferedImage scaled = scaleToWidth(image, size.getWidth());
+        String name = size.name().toLowerCase(Locale.ROOT) + ".jpg";
+        Path target = dir.resolve(name);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(VARIANT_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        Map<String, Object> variant = new HashMap<>();
+        variant.put("variant", size.name());
+        variant.put("format", "jpg");
+        variant.put("width", scaled.getWidth());
+        variant.put("height", scaled.getHeight());
+        variant.put("bytes", Files.size(target));
+        variant.put("secure_url", urlOf(publicId, name));
+        return variant;
+    }
+
+    // Like c_limit: shrink to width, never enlarge; always opaque RGB for JPEG
+    private static BufferedImage scaleToWidth(BufferedImage image, int maxWidth) {
+        int width = Math.min(maxWidth, image.getWidth());
+        int height = Math.max(1, Math.round(image.getHeight() * (width / (float) image.getWidth())));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static String formatOf(Path file) throws IOException {
+        try (var in = ImageIO.createImageInputStream(file.toFile())) {
+            var readers = ImageIO.getImageReaders(in);
+            String format = readers.hasNext() ? readers.next().getFormatName().toLowerCase(Locale.ROOT) : "jpg";
+            return format.equals("jpeg") ? "jpg" : format;
+        }
+    }
+
+    private Path directoryOf(String publicId) throws IOException {
+        Path dir = root.resolve(publicId).normalize();
+        if (!dir.startsWith(root) || dir.equals(root)) throw new IOException("Invalid public ID: " + publicId);
+        return dir;
+    }
+
+    private String urlOf(String publicId, String fileName) {
+        return baseUrl + "/" + publicId + "/" + fileName;
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.MailOutboxEntry;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MailDispatcher — drains MailOutbox to SMTP
+ * ─────────────────────────────────────────────────
+ * Every poll-interval-ms it claims due entries in batches of batch-size and
+ * hands each batch to one of `concurrency` sender threads. A batch goes out
+ * over a single SMTP connection (JavaMailSender.send(MimeMessage...)), one
+ * message per recipient so nobody sees anyone else's address.
+ *
+ * At most `concurrency` batches are in flight; the poll only claims as many
+ * batches as there are free senders, so the scheduler thread never blocks
+ * and nothing piles up in memory — the backlog waits in the table.
+ * Sending is throttled to rate-per-second across all senders; a batch
+ * waits for its share of the rate, then goes out in one burst.
+ *
+ * Each poll first expands queued broadcasts by up to
+ * broadcast-pages-per-poll pages of customers, so a launch email reaches
+ * the table (and the senders) while the admin's request is long done.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+    private final MailOutbox outbox;
+    private final JavaMailSender mailSender;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.concurrency:2}")
+    private int concurrency;
+
+    @Value("${mail.outbox.rate-per-second:10}")
+    private long ratePerSecond;
+
+    @Value("${mail.outbox.broadcast-pages-per-poll:20}")
+    private int broadcastPagesPerPoll;
+
+    private ExecutorService senders;
+    private Semaphore freeSenders;
+    private Bucket rateLimit;
+
+    @PostConstruct
+    void start() {
+        // Platform threads even with spring.threads.virtual.enabled: Jakarta Mail's
+        // SMTPTransport does its socket I/O inside synchronized methods, which
+        // pins a virtual thread's carrier for the whole send on Java 21
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        freeSenders = new Semaphore(concurrency);
+        // Room for one full batch, refilled at rate-per-second: a batch may go out
+        // in one burst, the average stays at the configured rate
+        rateLimit = Bucket.builder()
+            .addLimit(Bandwidth.classic(Math.max(ratePerSecond, batchSize),
+                                        Refill.greedy(ratePerSecond, Duration.ofSeconds(1))))
+            .build();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Let in-flight batches finish; anything unfinished is released by releaseStaleClaims
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // ── POLL ─────────────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        int released = outbox.releaseStaleClaims();
+        if (released > 0) {
+            System.out.println("♻️ Released " + released + " stale mail claim(s)");
+        }
+        expandBroadcasts();
+
+        while (freeSenders.tryAcquire()) {
+            List<MailOutboxEntry> batch;
+            try {
+                batch = outbox.claimDue(batchSize);
+            } catch (RuntimeException e) {
+                freeSenders.release();
+                throw e;
+            }
+            if (batch.isEmpty()) {
+                freeSenders.release();
+                return;
+            }
+
+            senders.execute(() -> {
+                try {
+                    send(batch);
+                } finally {
+                    freeSenders.release();
+                }
+            });
+        }
+    }
+
+    private void expandBroadcasts() {
+        try {
+            int pages = 0;
+            while (pages < broadcastPagesPerPoll && outbox.expandBroadcast()) pages++;   // a transaction per page
+        } catch (OptimisticLockingFailureException e) {
+            // Another instance expanded the same page first; carry on from its position next poll
+        }
+    }
+
+    /**
+     * Wait until no batch is in flight.
+     * @return false if that did not happen within the timeout
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        if (!freeSenders.tryAcquire(concurrency, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        freeSenders.release(concurrency);
+        return true;
+    }
+
+    // ── SEND ONE BATCH ───────────────────────────────────────
+
+    void send(List<MailOutboxEntry> batch) {
+        Map<MimeMessage, MailOutboxEntry> entryByMessage = new IdentityHashMap<>();
+        Map<Long, String> failed = new HashMap<>();
+
+        for (MailOutboxEntry entry : batch) {
+            try {
+                entryByMessage.put(toMimeMessage(entry), entry);
+            } catch (MessagingException e) {
+                failed.put(entry.getId(), e.getMessage());   // e.g. a malformed address
+            }
+        }
+
+        try {
+            // The whole batch waits for its tokens, then goes out over one connection
+            if (!entryByMessage.isEmpty()) {
+                rateLimit.asBlocking().consume(entryByMessage.size());
+                sendOverOneConnection(new ArrayList<>(entryByMessage.keySet()), entryByMessage, failed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entryByMessage.values().forEach(entry -> failed.putIfAbsent(entry.getId(), "Interrupted"));
+        }
+
+        List<Long> sentIds = new ArrayList<>(entryByMessage.size());
+        for (MailOutboxEntry entry : entryByMessage.values()) {
+            if (!failed.containsKey(entry.getId())) sentIds.add(entry.getId());
+        }
+
+        outbox.markSent(sentIds);
+        outbox.markFailed(failed);
+        System.out.println("📧 Mail batch: " + sentIds.size() + " sent, " + failed.size() + " failed");
+    }
+
+    private void sendOverOneConnection(List<MimeMessage> messages,
+                                       Map<MimeMessage, MailOutboxEntry> entryByMessage,
+                                       Map<Long, String> failed) {
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Per-message failures (a rejected recipient, a dropped connection mid-batch)
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                messages.forEach(m -> failed.put(entryByMessage.get(m).getId(), e.getMessage()));
+            } else {
+                failedMessages.forEach((m, cause) -> {
+                    MailOutboxEntry entry = entryByMessage.get(m);
+                    if (entry != null) failed.put(entry.getId(), cause.getMessage());
+                });
+            }
+        } catch (MailException e) {
+            // Could not connect or authenticate — nothing in this batch went out
+            messages.forEach(m -> failed.put(entryByMessage.get(m).getId(), e.getMessage()));
+        }
+    }
+
+    private MimeMessage toMimeMessage(MailOutboxEntry entry) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(entry.getRecipient());
+        helper.setSubject(entry.getMessage().getSubject());
+        helper.setText(entry.getMessage().getBody(), true); // true = HTML
+        return message;
+    }
+}
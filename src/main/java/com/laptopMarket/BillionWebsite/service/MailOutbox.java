@@ -0,0 +1,254 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.MailBroadcast;
+import com.laptopMarket.BillionWebsite.entity.MailMessage;
+import com.laptopMarket.BillionWebsite.entity.MailOutboxEntry;
+import com.laptopMarket.BillionWebsite.entity.MailStatus;
+import com.laptopMarket.BillionWebsite.entity.repo.MailBroadcastRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailMessageRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailOutboxRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import jakarta.mail.internet.InternetAddress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UnsupportedEncodingException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * MailOutbox — the durable queue between EmailService and SMTP
+ * ─────────────────────────────────────────────────
+ * enqueue() stores the message once and one mail_outbox row per recipient
+ * in the caller's transaction, so an email exists exactly when the change
+ * that caused it was committed. Nothing here talks to SMTP — MailDispatcher
+ * claims due rows, sends them and reports back through markSent / markFailed.
+ *
+ * broadcast() is the same for "every customer", at the cost of two rows
+ * whatever the customer count: the message and a mail_broadcasts marker.
+ * MailDispatcher calls expandBroadcast() to add the recipients, one page
+ * of RECIPIENT_PAGE_SIZE customers per transaction.
+ *
+ * A failed attempt is retried with exponential backoff (backoff-initial-ms,
+ * doubling per attempt, capped at backoff-max-ms) until max-attempts, then
+ * the row is left FAILED with the last error. SENT rows are purged after
+ * retention-days.
+ * ─────────────────────────────────────────────────
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutbox {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Customers read per broadcast page; memory stays at one page
+    static final int RECIPIENT_PAGE_SIZE = 500;
+    private static final Sort BY_ID = Sort.by("id");
+    private static final int MAX_ADDRESS_LENGTH = 255;   // mail_outbox.recipient
+
+    private final MailMessageRepository messageRepository;
+    private final MailOutboxRepository outboxRepository;
+    private final MailBroadcastRepository broadcastRepository;
+    private final UserRepo userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial-ms:30000}")
+    private long backoffInitialMs;
+
+    @Value("${mail.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${mail.outbox.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
+    @Value("${mail.outbox.retention-days:7}")
+    private long retentionDays;
+
+    // ── ENQUEUE ──────────────────────────────────────────────
+
+    /** Queue one HTML email for every recipient. */
+    @Transactional
+    public MailMessage enqueue(String subject, String htmlBody, Collection<String> recipients) {
+        MailMessage message = createMessage(subject, htmlBody);
+        addRecipients(message, recipients);
+        System.out.println("📬 Queued \"" + subject + "\" for " + recipients.size() + " recipient(s)");
+        return message;
+    }
+
+    /** Queue one HTML email for every customer; MailDispatcher adds the recipients later. */
+    @Transactional
+    public MailMessage broadcast(String subject, String htmlBody) {
+        MailMessage message = createMessage(subject, htmlBody);
+        broadcastRepository.save(MailBroadcast.builder().message(message).build());
+        System.out.println("📬 Queued \"" + subject + "\" for every customer");
+        return message;
+    }
+
+    @Transactional
+    public MailMessage createMessage(String subject, String htmlBody) {
+        return messageRepository.save(MailMessage.builder()
+            .subject(subject)
+            .body(htmlBody)
+            .build());
+    }
+
+    @Transactional
+    public void addRecipients(MailMessage message, Collection<String> recipients) {
+        // One JDBC batch per INSERT_BATCH_SIZE recipients — an announcement to
+        // every customer must not cost a round trip per row (IDENTITY ids
+        // keep Hibernate from batching these inserts itself)
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+            "insert into mail_outbox (message_id, recipient, status, attempts, next_attempt_at, created_at) " +
+            "values (?, ?, ?, 0, ?, ?)",
+            recipients, INSERT_BATCH_SIZE,
+            (ps, recipient) -> {
+                ps.setLong(1, message.getId());
+                ps.setString(2, recipient);
+                ps.setString(3, MailStatus.PENDING.name());
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+            });
+    }
+
+    // ── BROADCAST EXPANSION ──────────────────────────────────
+
+    /**
+     * Add the next page of customers to the oldest broadcast, and drop the
+     * broadcast after its last page. A dispatcher on another instance
+     * expanding the same page makes this commit fail (MailBroadcast.version).
+     * @return false when no broadcast is waiting
+     */
+    @Transactional
+    public boolean expandBroadcast() {
+        Optional<MailBroadcast> next = broadcastRepository.findFirstByOrderByIdAsc();
+        if (next.isEmpty()) return false;
+        MailBroadcast broadcast = next.get();
+
+        ScrollPosition position = broadcast.getLastRecipientId() == null
+            ? ScrollPosition.keyset()
+            : ScrollPosition.forward(Map.of("id", broadcast.getLastRecipientId()));
+        Window<UserRepo.Recipient> page = userRepository.findRecipientsBy(position, BY_ID, Limit.of(RECIPIENT_PAGE_SIZE));
+
+        if (!page.isEmpty()) {
+            addRecipients(broadcast.getMessage(), page.map(MailOutbox::address).getContent());
+            broadcast.setRecipients(broadcast.getRecipients() + page.size());
+            broadcast.setLastRecipientId(page.getContent().getLast().getId());
+        }
+        if (page.hasNext()) return true;
+
+        broadcastRepository.delete(broadcast);
+        if (broadcast.getRecipients() == 0) {
+            messageRepository.delete(broadcast.getMessage());   // nobody to send it to
+        }
+        System.out.println("📬 Broadcast " + broadcast.getMessage().getId() + " queued for "
+            + broadcast.getRecipients() + " customer(s)");
+        return true;
+    }
+
+    /** "First Last <email>" when the name fits the column, the bare email otherwise. */
+    static String address(UserRepo.Recipient recipient) {
+        String name = ((recipient.getFirstName() != null ? recipient.getFirstName() : "") + " "
+                     + (recipient.getLastName() != null ? recipient.getLastName() : "")).trim();
+        if (name.isEmpty()) return recipient.getEmail();
+        try {
+            String address = new InternetAddress(recipient.getEmail(), name, "UTF-8").toString();
+            return address.length() <= MAX_ADDRESS_LENGTH ? address : recipient.getEmail();
+        } catch (UnsupportedEncodingException e) {
+            return recipient.getEmail();
+        }
+    }
+
+    // ── DISPATCH SIDE ────────────────────────────────────────
+
+    /**
+     * Claim up to max due entries for one dispatch run.
+     * @return the claimed entries with their message loaded; empty when nothing is due
+     */
+    @Transactional
+    public List<MailOutboxEntry> claimDue(int max) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(MailStatus.PENDING, now, Limit.of(max));
+        if (due.isEmpty()) return List.of();
+
+        String token = UUID.randomUUID().toString();
+        outboxRepository.claim(due, token, now, MailStatus.PENDING, MailStatus.SENDING);
+        return outboxRepository.findClaimed(token);
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> entryIds) {
+        if (entryIds.isEmpty()) return;
+        outboxRepository.markSent(entryIds, LocalDateTime.now(), MailStatus.SENT);
+    }
+
+    /** @param errors entry id → why the attempt failed */
+    @Transactional
+    public void markFailed(Map<Long, String> errors) {
+        if (errors.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (MailOutboxEntry entry : outboxRepository.findAllById(errors.keySet())) {
+            int attempts = entry.getAttempts() + 1;
+            String error = errors.get(entry.getId());
+
+            entry.setAttempts(attempts);
+            entry.setClaimToken(null);
+            entry.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error);
+
+            if (attempts >= maxAttempts) {
+                entry.setStatus(MailStatus.FAILED);
+                System.err.println("❌ Giving up on email to " + entry.getRecipient()
+                    + " after " + attempts + " attempts: " + error);
+            } else {
+                entry.setStatus(MailStatus.PENDING);
+                entry.setNextAttemptAt(now.plus(backoff(attempts)));
+            }
+        }
+    }
+
+    /** Put entries back that were claimed longer than claim-timeout-ms ago and never reported. */
+    @Transactional
+    public int releaseStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs));
+        return outboxRepository.releaseStaleClaims(cutoff, MailStatus.PENDING, MailStatus.SENDING);
+    }
+
+    // ── HOUSEKEEPING ─────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        int entries = outboxRepository.deleteSentBefore(
+            LocalDateTime.now().minusDays(retentionDays), MailStatus.SENT);
+        int messages = messageRepository.deleteOrphans();
+        if (entries > 0 || messages > 0) {
+            System.out.println("🧹 Mail outbox purged: " + entries + " sent entries, " + messages + " messages");
+        }
+    }
+
+    /** 1st retry after backoff-initial-ms, then doubling, never above backoff-max-ms. */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Duration.ofMillis(Math.min(backoffInitialMs << doublings, backoffMaxMs));
+    }
+}
@@ -9,10 +9,15 @@ import com.laptopMarket.BillionWebsite.entity.repo.OrderRepository;
 import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
 import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -40,6 +45,8 @@ public class OrderService {
     private final ProductRepository  productRepository;
     private final UserRepo           userRepository;
     private final CartService        cartService;
+    private final ApplicationEventPublisher events;
+    private final JdbcTemplate       jdbcTemplate;
 
     // ── PLACE ORDER (from cart) ───────────────────────────────
     @Transactional
@@ -59,23 +66,15 @@ public class OrderService {
                 .status(OrderStatus.PENDING)
                 .build();
 
-        List<OrderItem> orderItems = cartItems.stream().map(cartItem -> {
-            Product product = cartItem.getProduct();
-
-            if (product.getStock() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for: " + product.getName());
-            }
-
-            // Deduct stock
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
+        reserveStock(cartItems);
 
+        List<OrderItem> orderItems = cartItems.stream().map(cartItem -> {
             BigDecimal subtotal = cartItem.getUnitPrice()
                     .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
 
             return OrderItem.builder()
                     .order(order)
-                    .product(product)
+                    .product(cartItem.getProduct())
                     .quantity(cartItem.getQuantity())
                     .unitPrice(cartItem.getUnitPrice())
                     .subtotal(subtotal)
@@ -115,8 +114,43 @@ public class OrderService {
         return mapToResponse(order);
     }
 
-    // ── PRIVATE HELPER ────────────────────────────────────────
-    private OrderResponse mapToResponse(Order order) {
+    // ── PRIVATE HELPERS ───────────────────────────────────────
+
+    /**
+     * Takes each line's quantity off stock with a conditional UPDATE per
+     * product, sent to the database as one JDBC batch — no read-modify-write,
+     * so concurrent checkouts cannot oversell. Lines go in product id order so
+     * two carts sharing products lock the rows in the same order. A line that
+     * does not fit throws and rolls back the lines already reserved.
+     */
+    private void reserveStock(List<CartItem> cartItems) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<CartItem> byProduct = cartItems.stream()
+                .sorted(Comparator.comparing(item -> item.getProduct().getId()))
+                .toList();
+
+        // The stock check is part of the UPDATE, so the database decides
+        // who gets the last unit: 1 row if reserved, 0 if not enough left.
+        // Leaves the persistence context alone — loaded Products keep their old stock
+        int[] reserved = jdbcTemplate.batchUpdate(
+                "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?",
+                byProduct.stream()
+                        .map(item -> new Object[] {
+                                item.getQuantity(), now, item.getProduct().getId(), item.getQuantity() })
+                        .toList());
+
+        for (int i = 0; i < reserved.length; i++) {
+            if (reserved[i] == 0) {
+                throw new RuntimeException("Insufficient stock for: " + byProduct.get(i).getProduct().getName());
+            }
+        }
+
+        List<Product> products = byProduct.stream().map(CartItem::getProduct).toList();
+        events.publishEvent(new StockReservedEvent(products)); // handled once the order commits
+    }
+
+    // package-private: benchmarked directly by OrderMappingBenchmark
+    OrderResponse mapToResponse(Order order) {
         List<OrderItemResponse> items = order.getOrderItems().stream().map(item ->
                 OrderItemResponse.builder()
                         .productId(item.getProduct().getId())
@@ -0,0 +1,109 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.Config.CacheConfig;
+import com.laptopMarket.BillionWebsite.Config.ListingKeyIndex;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ProductCatalogCache — write-side of the catalog caches (see CacheConfig)
+ * ─────────────────────────────────────────────────
+ * UserProductService reads through the caches with @Cacheable; on every
+ * ProductChangedEvent only the affected entries go:
+ *   - the product itself
+ *   - listing pages of its category and brand (old + new on update)
+ *   - the category / brand dropdowns when the set of values may change
+ * A StockReservedEvent drops the products and listings of a whole order at once.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogCache {
+
+    private final CacheManager cacheManager;
+    private final ListingKeyIndex listingKeys;
+
+    // ── CACHE KEYS ───────────────────────────────────────────
+
+    /**
+     * Key of one category / brand listing page, used by the @Cacheable key
+     * expressions in UserProductService. Built from the clamped page size, so
+     * every size past the maximum shares the one page it actually returns.
+     * The listing caches index it per value once the page is cached.
+     */
+    public static ListingKeyIndex.Key listingKey(String value, String sort, int size, String cursor) {
+        return new ListingKeyIndex.Key(normalize(value), ProductSort.fromParam(sort).name(),
+            UserProductService.clampSize(size), cursor == null ? "" : cursor);
+    }
+
+    // ── EVICTION ─────────────────────────────────────────────
+
+    /**
+     * Runs after the writing transaction commits (or straight away when the
+     * writer has none), so a concurrent read cannot re-cache the old row.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        evict(product.getId(), product.getCategory(), product.getBrand());
+        if (event.affectsDropdowns()) {
+            evict(product.getId(), event.previousCategory(), event.previousBrand());
+            evictDropdowns();
+        }
+    }
+
+    /** Stock only — a checkout never changes the dropdowns. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        Set<String> categories = new HashSet<>();
+        Set<String> brands = new HashSet<>();
+        for (Product product : event.products()) {
+            cache(CacheConfig.PRODUCT).evict(product.getId());
+            if (product.getCategory() != null) categories.add(normalize(product.getCategory()));
+            if (product.getBrand() != null) brands.add(normalize(product.getBrand()));
+        }
+        categories.forEach(category -> evictListings(CacheConfig.CATEGORY_LISTINGS, category));
+        brands.forEach(brand -> evictListings(CacheConfig.BRAND_LISTINGS, brand));
+    }
+
+    // ── PRIVATE HELPERS ──────────────────────────────────────
+
+    private void evict(Long productId, String category, String brand) {
+        if (productId != null) {
+            cache(CacheConfig.PRODUCT).evict(productId);
+        }
+        evictListings(CacheConfig.CATEGORY_LISTINGS, category);
+        evictListings(CacheConfig.BRAND_LISTINGS, brand);
+    }
+
+    private void evictDropdowns() {
+        cache(CacheConfig.CATEGORIES).clear();
+        cache(CacheConfig.BRANDS).clear();
+    }
+
+    private void evictListings(String cacheName, String value) {
+        if (value == null) return;
+        Cache cache = cache(cacheName);
+        listingKeys.remove(cacheName, normalize(value)).forEach(cache::evict);
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,46 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+
+import java.util.Objects;
+
+/**
+ * Published whenever a product is written (AdminProductService, OrderService).
+ * Listeners — catalog cache, search index — use @TransactionalEventListener,
+ * so they only see changes that actually committed.
+ *
+ * previousCategory / previousBrand hold the values before an edit; for
+ * CREATED and REMOVED they equal the product's own values.
+ */
+public record ProductChangedEvent(Type type, Product product, String previousCategory, String previousBrand) {
+
+    public enum Type { CREATED, UPDATED, REMOVED }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, product, product.getCategory(), product.getBrand());
+    }
+
+    /** Edit that keeps category and brand, e.g. stock, price or images. */
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(Type.UPDATED, product, product.getCategory(), product.getBrand());
+    }
+
+    public static ProductChangedEvent updated(Product product, String previousCategory, String previousBrand) {
+        return new ProductChangedEvent(Type.UPDATED, product, previousCategory, previousBrand);
+    }
+
+    public static ProductChangedEvent removed(Product product) {
+        return new ProductChangedEvent(Type.REMOVED, product, product.getCategory(), product.getBrand());
+    }
+
+    public Long productId() {
+        return product.getId();
+    }
+
+    /** True when the set of distinct categories / brands may have changed. */
+    public boolean affectsDropdowns() {
+        return type != Type.UPDATED
+            || !Objects.equals(previousCategory, product.getCategory())
+            || !Objects.equals(previousBrand, product.getBrand());
+    }
+}
@@ -0,0 +1,63 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for catalog listings.
+ * ─────────────────────────────────────────────────
+ * Encodes the sort key + id of the last product on a page, e.g.
+ *   NEWEST|2025-01-31T10:15:30.123456|42  →  Base64url
+ * The sort name is embedded so a cursor cannot be replayed against a
+ * different ordering.
+ * ─────────────────────────────────────────────────
+ */
+final class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private ProductCursor() {
+    }
+
+    static String encode(ProductSort sort, Product last) {
+        Object sortValue = sort == ProductSort.NEWEST ? last.getCreatedAt() : last.getPrice();
+        String raw = sort.name() + SEPARATOR + sortValue + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns the keyset position to continue from, or the initial position when cursor is blank. */
+    static ScrollPosition decode(ProductSort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || !sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("cursor does not match sort " + sort);
+            }
+
+            Object sortValue = sort == ProductSort.NEWEST
+                ? LocalDateTime.parse(parts[1])
+                : new BigDecimal(parts[1]);
+
+            // Key order must follow the sort order: sort property first, then id
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sort.getProperty(), sortValue);
+            keys.put("id", Long.valueOf(parts[2]));
+            return ScrollPosition.forward(keys);
+
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository.IndexRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ProductSearchIndex — in-process inverted index behind keyword search
+ * ─────────────────────────────────────────────────
+ * Replaces the LIKE '%kw%' scan over name / description / brand.
+ *
+ *   term → { productId → weight }      (TreeMap, so prefixes are a range scan)
+ *
+ * Weights per field: name 3, brand 2, category 2, description 1.
+ * A query matches when EVERY query term matches a product term exactly or
+ * as a prefix ("mac pro" finds "MacBook Pro"); prefix hits count half.
+ * Score = Σ weight × idf, results ranked by score (or newest / price).
+ *
+ * Built from the database on startup and every
+ * catalog.search.rebuild-interval-ms, kept current in between from
+ * ProductChangedEvent.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT        = 3f;
+    private static final float BRAND_WEIGHT       = 2f;
+    private static final float CATEGORY_WEIGHT    = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR      = 0.5f;
+
+    private static final String RELEVANCE = "RELEVANCE";
+    private static final String SEPARATOR = "|";
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    private List<ProductChangedEvent> changedDuringRebuild;
+
+    /** What the index keeps per product: its terms (for removal) and the sort keys. */
+    private record Document(Long id, Set<String> terms, BigDecimal price, LocalDateTime createdAt) {
+    }
+
+    /** One ranked search result. */
+    public record Hit(Long productId, float score, BigDecimal price, LocalDateTime createdAt) {
+    }
+
+    /** One page of product ids, in ranking order. */
+    public record Result(List<Long> productIds, String nextCursor) {
+    }
+
+    // ── BUILD ────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Full rebuild from the products table. Picks up writes made by other
+     * instances; changes published while it runs are replayed on top.
+     */
+    @Scheduled(fixedDelayString = "${catalog.search.rebuild-interval-ms:900000}",
+               initialDelayString = "${catalog.search.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) return;   // a rebuild is already running
+        try {
+            long start = System.currentTimeMillis();
+
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+            Map<Long, Document> newDocuments = new HashMap<>();
+            for (IndexRow row : productRepository.findIndexRows()) {
+                add(row, newPostings, newDocuments);
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                changedDuringRebuild.forEach(this::apply);
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            System.out.println("🔎 Search index rebuilt: " + newDocuments.size() + " products, "
+                + newPostings.size() + " terms in " + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── SEARCH ───────────────────────────────────────────────
+
+    /**
+     * @param sort   relevance (default) | newest | price_asc | price_desc
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public Result search(String query, String sort, String cursor, int size) {
+        String sortName = sortName(sort);
+        Comparator<Hit> order = comparator(sortName);
+
+        List<Hit> hits = match(tokenize(query));
+        hits.sort(order);
+
+        int from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int at = Collections.binarySearch(hits, decodeCursor(sortName, cursor), order);
+            from = at >= 0 ? at + 1 : -at - 1;
+        }
+        int to = Math.min(from + size, hits.size());
+
+        List<Long> ids = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            ids.add(hits.get(i).productId());
+        }
+        String nextCursor = to < hits.size() && to > from
+            ? encodeCursor(sortName, hits.get(to - 1))
+            : null;
+        return new Result(ids, nextCursor);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── PRIVATE HELPERS ──────────────────────────────────────
+
+    /** Products matching all terms, with their scores. */
+    private List<Hit> match(Set<String> terms) {
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            double total = documents.size();
+            Map<Long, Float> scores = null;
+
+            for (String term : terms) {
+                Map<Long, Float> termScores = new HashMap<>();
+
+                for (Map.Entry<String, Map<Long, Float>> entry
+                        : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                    Map<Long, Float> docs = entry.getValue();
+                    float idf = (float) Math.log(1 + total / docs.size());
+                    float factor = entry.getKey().equals(term) ? 1f : PREFIX_FACTOR;
+
+                    // A product matching several expansions of one prefix counts once, best match wins
+                    docs.forEach((id, weight) -> termScores.merge(id, weight * idf * factor, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Float> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Float> e : termScores.entrySet()) {
+                        Float sofar = previous.get(e.getKey());
+                        if (sofar != null) scores.put(e.getKey(), sofar + e.getValue());
+                    }
+                }
+                if (scores.isEmpty()) break;
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> {
+                Document doc = documents.get(id);
+                hits.add(new Hit(id, score, doc.price(), doc.createdAt()));
+            });
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Caller holds the write lock. */
+    private void apply(ProductChangedEvent event) {
+        remove(event.productId(), postings, documents);
+        if (event.type() != ProductChangedEvent.Type.REMOVED) {
+            add(IndexRow.of(event.product()), postings, documents);
+        }
+    }
+
+    private static void add(IndexRow product,
+                            NavigableMap<String, Map<Long, Float>> postings,
+                            Map<Long, Document> documents) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.name(), NAME_WEIGHT);
+        addField(weights, product.brand(), BRAND_WEIGHT);
+        addField(weights, product.category(), CATEGORY_WEIGHT);
+        addField(weights, product.description(), DESCRIPTION_WEIGHT);
+
+        Long id = product.id();
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        documents.put(id, new Document(id, weights.keySet(), product.price(), product.createdAt()));
+    }
+
+    private static void remove(Long id,
+                               NavigableMap<String, Map<Long, Float>> postings,
+                               Map<Long, Document> documents) {
+        Document old = documents.remove(id);
+        if (old == null) return;
+        for (String term : old.terms()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        return new LinkedHashSet<>(SearchText.words(text));
+    }
+
+    private static String sortName(String sort) {
+        if (sort == null || sort.isBlank() || RELEVANCE.equalsIgnoreCase(sort.trim())) {
+            return RELEVANCE;
+        }
+        return ProductSort.fromParam(sort).name();
+    }
+
+    private static Comparator<Hit> comparator(String sortName) {
+        Comparator<Hit> newestId = Comparator.comparing(Hit::productId, Comparator.reverseOrder());
+        return switch (sortName) {
+            case "NEWEST" -> Comparator.comparing(Hit::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(newestId);
+            case "PRICE_ASC" -> Comparator.comparing(Hit::price, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Hit::productId);
+            case "PRICE_DESC" -> Comparator.comparing(Hit::price, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(newestId);
+            default -> Comparator.comparing(Hit::score, Comparator.reverseOrder())
+                .thenComparing(newestId);
+        };
+    }
+
+    // Cursor: Base64url of SORT|key|id — same shape as ProductCursor
+    private static String encodeCursor(String sortName, Hit last) {
+        Object key = switch (sortName) {
+            case "NEWEST" -> last.createdAt();
+            case "PRICE_ASC", "PRICE_DESC" -> last.price();
+            default -> last.score();
+        };
+        String raw = sortName + SEPARATOR + (key == null ? "" : key) + SEPARATOR + last.productId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String sortName, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || !sortName.equals(parts[0])) {
+                throw new IllegalArgumentException("cursor does not match sort " + sortName);
+            }
+
+            String key = parts[1];
+            Long id = Long.valueOf(parts[2]);
+            return switch (sortName) {
+                case "NEWEST" -> new Hit(id, 0f, null, key.isEmpty() ? null : LocalDateTime.parse(key));
+                case "PRICE_ASC", "PRICE_DESC" -> new Hit(id, 0f, key.isEmpty() ? null : new BigDecimal(key), null);
+                default -> new Hit(id, Float.parseFloat(key), null, null);
+            };
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders supported by the catalog listings.
+ * Every order ends with the product id so keyset pagination stays stable
+ * when several products share the same createdAt / price.
+ */
+public enum ProductSort {
+
+    NEWEST("createdAt", Sort.Direction.DESC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    ProductSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /** Parses ?sort=newest | price_asc | price_desc (case-insensitive, defaults to NEWEST). */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) return NEWEST;
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported sort: " + value
+                + ". Use one of: newest, price_asc, price_desc");
+        }
+    }
+}
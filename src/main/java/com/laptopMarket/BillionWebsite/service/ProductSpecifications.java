@@ -0,0 +1,68 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Building blocks for the composable product filter (/products/browse).
+ * Each method returns an unrestricted specification when its value is
+ * missing, so callers can simply allOf(...) whatever the request sent.
+ */
+final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /** Case-insensitive substring match on name or brand. */
+    static Specification<Product> keyword(String q) {
+        if (q == null || q.isBlank()) return Specification.unrestricted();
+        String pattern = "%" + escapeLike(q.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.get("name")), pattern, '\\'),
+            cb.like(cb.lower(root.get("brand")), pattern, '\\'));
+    }
+
+    static Specification<Product> category(String category) {
+        if (category == null || category.isBlank()) return Specification.unrestricted();
+        // Stored lower-case, so the plain category indexes apply
+        String value = category.trim().toLowerCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(root.get("category"), value);
+    }
+
+    static Specification<Product> brand(String brand) {
+        if (brand == null || brand.isBlank()) return Specification.unrestricted();
+        // Same upper(brand) = upper(?) form as findByBrandIgnoreCase, served by its expression index
+        String value = brand.trim();
+        return (root, query, cb) -> cb.equal(cb.upper(root.get("brand")), cb.upper(cb.literal(value)));
+    }
+
+    static Specification<Product> priceBetween(BigDecimal min, BigDecimal max) {
+        Specification<Product> spec = Specification.unrestricted();
+        if (min != null) spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), min));
+        if (max != null) spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), max));
+        return spec;
+    }
+
+    static Specification<Product> inStock(boolean inStockOnly) {
+        if (!inStockOnly) return Specification.unrestricted();
+        return (root, query, cb) -> cb.greaterThan(root.get("stock"), 0);
+    }
+
+    /** Loads addedBy in the same SELECT as the page (no-op for count / aggregate queries). */
+    static Specification<Product> fetchAddedBy() {
+        return (root, query, cb) -> {
+            if (query != null && Product.class.equals(query.getResultType())) {
+                root.fetch("addedBy", JoinType.LEFT);
+            }
+            return cb.conjunction();
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
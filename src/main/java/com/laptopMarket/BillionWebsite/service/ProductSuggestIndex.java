@@ -0,0 +1,350 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.SuggestionResponse;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository.IndexRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ProductSuggestIndex — in-memory prefix trie behind /products/suggest
+ * ─────────────────────────────────────────────────
+ * Holds every product name, brand and category. Each phrase is reachable
+ * from the start of any of its words, so "pro" suggests "MacBook Pro 14".
+ *
+ * Every trie node keeps the top MAX_SUGGESTIONS phrases of its subtree
+ * (most products first), recomputed along the affected paths on each
+ * write, so an exact lookup is a walk down the prefix and a list copy.
+ * With fuzzy on, phrases within one edit (insert / delete / replace) of
+ * the prefix fill the remaining slots: "lenvo" still finds "Lenovo".
+ *
+ * Kept current from ProductChangedEvent, rebuilt with the search index.
+ * ─────────────────────────────────────────────────
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Below this a one-letter typo matches almost everything
+    private static final int FUZZY_MIN_PREFIX = 3;
+
+    /** Where a phrase comes from, in display priority order. */
+    public enum Kind { CATEGORY, BRAND, NAME }
+
+    private static final Comparator<Entry> RANK = Comparator
+        .comparingInt((Entry e) -> -e.total)
+        .thenComparing(Entry::kind)
+        .thenComparing(e -> e.key);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock
+    private Trie trie = new Trie();
+    private List<ProductChangedEvent> changedDuringRebuild;
+
+    // ── BUILD ────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.search.rebuild-interval-ms:900000}",
+               initialDelayString = "${catalog.search.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) return;   // a rebuild is already running
+        try {
+            long start = System.currentTimeMillis();
+
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Trie fresh = new Trie();
+            for (IndexRow row : productRepository.findIndexRows()) {
+                fresh.add(row);
+            }
+
+            lock.writeLock().lock();
+            try {
+                trie = fresh;
+                changedDuringRebuild.forEach(trie::apply);
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            System.out.println("🔤 Suggest index rebuilt: " + fresh.entries.size() + " phrases in "
+                + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            trie.apply(event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── SUGGEST ──────────────────────────────────────────────
+
+    public List<SuggestionResponse> suggest(String prefix, int limit, boolean fuzzy) {
+        String key = SearchText.fold(prefix);
+        int max = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        if (key.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Set<Entry> found = new LinkedHashSet<>();
+            Node exact = trie.find(key);
+            if (exact != null) {
+                for (Entry e : exact.top) {
+                    if (found.size() == max) break;
+                    found.add(e);
+                }
+            }
+
+            if (fuzzy && found.size() < max && key.length() >= FUZZY_MIN_PREFIX) {
+                List<Entry> near = new ArrayList<>();
+                for (Node node : trie.findWithinOneEdit(key)) {
+                    near.addAll(node.top);
+                }
+                near.sort(RANK);
+                for (Entry e : near) {
+                    if (found.size() == max) break;
+                    found.add(e);
+                }
+            }
+
+            List<SuggestionResponse> result = new ArrayList<>(found.size());
+            for (Entry e : found) {
+                result.add(SuggestionResponse.builder()
+                    .text(e.text)
+                    .type(e.kind().name().toLowerCase(Locale.ROOT))
+                    .build());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── TRIE ─────────────────────────────────────────────────
+
+    /** One distinct phrase (folded), shared by every product that uses it. */
+    private static final class Entry {
+        final String key;
+        String text;                                   // as last written, for display
+        final int[] counts = new int[Kind.values().length];
+        int total;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        Kind kind() {
+            for (Kind kind : Kind.values()) {
+                if (counts[kind.ordinal()] > 0) return kind;
+            }
+            return Kind.NAME;
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        final Set<Entry> terminals = new HashSet<>(2);
+        List<Entry> top = List.of();
+    }
+
+    private record Source(Kind kind, String text) {
+    }
+
+    /** Not thread-safe on its own — ProductSuggestIndex guards it with its lock. */
+    private static final class Trie {
+
+        final Node root = new Node();
+        final Map<String, Entry> entries = new HashMap<>();
+        final Map<Long, List<Source>> byProduct = new HashMap<>();
+
+        void apply(ProductChangedEvent event) {
+            if (event.type() == ProductChangedEvent.Type.REMOVED) {
+                remove(event.productId());
+            } else {
+                add(IndexRow.of(event.product()));
+            }
+        }
+
+        void add(IndexRow product) {
+            remove(product.id());
+
+            List<Source> sources = new ArrayList<>(3);
+            sources.add(new Source(Kind.CATEGORY, product.category()));
+            sources.add(new Source(Kind.BRAND, product.brand()));
+            sources.add(new Source(Kind.NAME, product.name()));
+            sources.removeIf(s -> s.text() == null || SearchText.fold(s.text()).isEmpty());
+
+            byProduct.put(product.id(), sources);
+            sources.forEach(s -> increment(s.kind(), s.text()));
+        }
+
+        void remove(Long productId) {
+            List<Source> sources = byProduct.remove(productId);
+            if (sources != null) {
+                sources.forEach(s -> decrement(s.kind(), s.text()));
+            }
+        }
+
+        Node find(String key) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            return node;
+        }
+
+        /**
+         * Nodes whose path is within one edit of key. Walks the trie with one
+         * Levenshtein row per level and stops descending once a node matches
+         * (its top list already covers the subtree) or the row exceeds 1.
+         */
+        List<Node> findWithinOneEdit(String key) {
+            List<Node> found = new ArrayList<>();
+            int[] firstRow = new int[key.length() + 1];
+            for (int i = 0; i < firstRow.length; i++) firstRow[i] = i;
+
+            root.children.forEach((c, child) -> walkWithinOneEdit(child, c, key, firstRow, found));
+            return found;
+        }
+
+        private void walkWithinOneEdit(Node node, char c, String key, int[] previous, List<Node> found) {
+            int[] row = new int[previous.length];
+            row[0] = previous[0] + 1;
+            int best = row[0];
+            for (int i = 1; i < row.length; i++) {
+                int insert  = row[i - 1] + 1;
+                int delete  = previous[i] + 1;
+                int replace = previous[i - 1] + (key.charAt(i - 1) == c ? 0 : 1);
+                row[i] = Math.min(Math.min(insert, delete), replace);
+                best = Math.min(best, row[i]);
+            }
+
+            if (row[row.length - 1] <= 1) {
+                found.add(node);
+            } else if (best <= 1) {
+                node.children.forEach((next, child) -> walkWithinOneEdit(child, next, key, row, found));
+            }
+        }
+
+        private void increment(Kind kind, String text) {
+            String key = SearchText.fold(text);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                entries.put(key, entry);
+                for (String path : paths(key)) {
+                    descend(path).terminals.add(entry);
+                }
+            }
+            entry.text = text.trim();
+            entry.counts[kind.ordinal()]++;
+            entry.total++;
+            refresh(entry);
+        }
+
+        private void decrement(Kind kind, String text) {
+            Entry entry = entries.get(SearchText.fold(text));
+            if (entry == null) return;
+
+            entry.counts[kind.ordinal()]--;
+            entry.total--;
+            if (entry.total == 0) {
+                entries.remove(entry.key);
+                for (String path : paths(entry.key)) {
+                    Node node = find(path);
+                    if (node != null) node.terminals.remove(entry);
+                }
+            }
+            refresh(entry);
+        }
+
+        /** Recomputes top lists bottom-up along every path of the entry, pruning empty nodes. */
+        private void refresh(Entry entry) {
+            for (String path : paths(entry.key)) {
+                List<Node> nodes = new ArrayList<>(path.length() + 1);
+                Node node = root;
+                nodes.add(node);
+                for (int i = 0; i < path.length() && node != null; i++) {
+                    node = node.children.get(path.charAt(i));
+                    if (node != null) nodes.add(node);
+                }
+
+                for (int i = nodes.size() - 1; i >= 0; i--) {
+                    Node current = nodes.get(i);
+                    if (i > 0 && current.terminals.isEmpty() && current.children.isEmpty()) {
+                        nodes.get(i - 1).children.remove(path.charAt(i - 1));
+                        continue;
+                    }
+                    current.top = topOf(current);
+                }
+            }
+        }
+
+        private static List<Entry> topOf(Node node) {
+            Set<Entry> candidates = new HashSet<>(node.terminals);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            return candidates.stream().sorted(RANK).limit(MAX_SUGGESTIONS).toList();
+        }
+
+        private Node descend(String path) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), c -> new Node());
+            }
+            return node;
+        }
+
+        /** The phrase itself plus every suffix that starts at a word: "macbook pro 14", "pro 14", "14". */
+        private static List<String> paths(String key) {
+            List<String> paths = new ArrayList<>();
+            paths.add(key);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                paths.add(key.substring(i + 1));
+            }
+            return paths;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.laptopMarket.BillionWebsite.service;
 
+import com.laptopMarket.BillionWebsite.Config.Security.AccessToken;
+import com.laptopMarket.BillionWebsite.Config.Security.PrincipalLookup;
 import com.laptopMarket.BillionWebsite.Config.Security.TokenService;
 import com.laptopMarket.BillionWebsite.Config.Security.entity.AdminRefreshToken;
 import com.laptopMarket.BillionWebsite.Config.Security.entity.RefreshToken;
@@ -23,6 +25,7 @@ public class RegistrationService {
     private final AdminRepo       shopOwnerRepository;
     private final PasswordEncoder passwordEncoder;
     private final TokenService    tokenService;
+    private final PrincipalLookup principalLookup;
 
     // ═══════════════════════════════════════════════════════════
     // REGISTER CUSTOMER
@@ -152,4 +155,18 @@ public class RegistrationService {
                 .message("Login successful! Welcome back " + admin.getName())
                 .build();
     }
-}
\ No newline at end of file
+
+    // ═══════════════════════════════════════════════════════════
+    // LOGOUT (customer or admin)
+    // Revokes the access and refresh tokens and drops the cached principal
+    // ═══════════════════════════════════════════════════════════
+    public void logout(String encryptedAccessToken) {
+        AccessToken accessToken = tokenService.parseAccessToken(encryptedAccessToken);
+
+        tokenService.revokeAccessToken(encryptedAccessToken, accessToken);
+        tokenService.revokeRefreshTokens(accessToken);
+        principalLookup.evict(accessToken.email());
+
+        log.info("👋 Logged out: {}", accessToken.email());
+    }
+}
@@ -0,0 +1,37 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalisation shared by ProductSearchIndex and ProductSuggestIndex,
+ * so "Café Keyboard", "cafe keyboard" and "CAFE-keyboard" all look the same.
+ */
+final class SearchText {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS  = Pattern.compile("\\p{M}+");
+
+    private SearchText() {
+    }
+
+    /** Lower-cased, accent-free words joined by single spaces; "" for null / blank. */
+    static String fold(String text) {
+        return String.join(" ", words(text));
+    }
+
+    /** Lower-cased, accent-free words, in order, duplicates kept. */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) return words;
+
+        String folded = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String word : NON_WORD.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,18 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+
+import java.util.List;
+
+/**
+ * Published once per placed order (OrderService) for the products whose
+ * stock it took. Only stock changed — name, category and brand did not — so
+ * the catalog cache evicts these products and their listings while the search
+ * and suggest indexes, which hold no stock, do not listen at all.
+ */
+public record StockReservedEvent(List<Product> products) {
+
+    public StockReservedEvent {
+        products = List.copyOf(products);
+    }
+}
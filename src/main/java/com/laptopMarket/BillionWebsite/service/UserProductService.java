@@ -1,112 +1,310 @@
 package com.laptopMarket.BillionWebsite.service;
 
+import com.laptopMarket.BillionWebsite.Config.CacheConfig;
+import com.laptopMarket.BillionWebsite.dto.CursorPage;
+import com.laptopMarket.BillionWebsite.dto.FilteredProductsResponse;
+import com.laptopMarket.BillionWebsite.dto.ProductFacets;
+import com.laptopMarket.BillionWebsite.dto.ProductFilter;
 import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.dto.SuggestionResponse;
 import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.ProductImage;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductFacetRepository.FacetRow;
 import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * UserProductService — CUSTOMER FACING
  * Handles: browse, search, filter, categorize — READ ONLY
+ * Runs in one read-only transaction per call so the batched image loads
+ * triggered by mapToResponse share the listing's session.
+ * Single products, category / brand listings and the dropdown values are
+ * cached (CacheConfig); writers evict them through ProductCatalogCache.
  */
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class UserProductService {
 
     private final ProductRepository productRepository;
     private final CloudinaryService cloudinaryService;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestIndex suggestIndex;
+
+    // Upper bound for ?size= so one request can never pull the whole catalog
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Price facet buckets: 0-500, 500-1000, 1000-2000, 2000+
+    private static final List<BigDecimal> PRICE_BUCKET_BOUNDS = List.of(
+        BigDecimal.valueOf(500), BigDecimal.valueOf(1000), BigDecimal.valueOf(2000));
 
     // ── GET ALL PRODUCTS ─────────────────────────────────────
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getAllProducts(String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findAllBy(position, order, limit));
     }
 
     // ── GET SINGLE PRODUCT ───────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.PRODUCT, key = "#id")
     public ProductResponse getProductById(Long id) {
         return mapToResponse(findProductById(id));
     }
 
     // ── IN-STOCK PRODUCTS ONLY ───────────────────────────────
-    public List<ProductResponse> getInStockProducts() {
-        return productRepository.findByStockGreaterThan(0)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getInStockProducts(String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findByStockGreaterThan(0, position, order, limit));
     }
 
     // ── BROWSE BY CATEGORY ───────────────────────────────────
-    public List<ProductResponse> getByCategory(String category) {
-        return productRepository.findByCategoryIgnoreCase(category)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LISTINGS,
+        key = "T(com.laptopMarket.BillionWebsite.service.ProductCatalogCache).listingKey(#category, #sort, #size, #cursor)")
+    public CursorPage<ProductResponse> getByCategory(String category, String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findByCategory(toCategoryKey(category), position, order, limit));
     }
 
     // ── BROWSE BY BRAND ──────────────────────────────────────
-    public List<ProductResponse> getByBrand(String brand) {
-        return productRepository.findByBrandIgnoreCase(brand)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.BRAND_LISTINGS,
+        key = "T(com.laptopMarket.BillionWebsite.service.ProductCatalogCache).listingKey(#brand, #sort, #size, #cursor)")
+    public CursorPage<ProductResponse> getByBrand(String brand, String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findByBrandIgnoreCase(brand, position, order, limit));
     }
 
     // ── SEARCH BY NAME ───────────────────────────────────────
-    public List<ProductResponse> searchByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByName(String name, String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findByNameContainingIgnoreCase(name, position, order, limit));
     }
 
     // ── FULL KEYWORD SEARCH ───────────────────────────────────
-    public List<ProductResponse> searchByKeyword(String keyword) {
-        return productRepository.searchByKeyword(keyword)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    // Ranked by ProductSearchIndex; only the page's products are loaded
+    public CursorPage<ProductResponse> searchByKeyword(String keyword, String cursor, int size, String sort) {
+        ProductSearchIndex.Result result = searchIndex.search(keyword, sort, cursor, clampSize(size));
+
+        Map<Long, Product> byId = productRepository.findByIdIn(result.productIds()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductResponse> items = result.productIds().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)   // removed since the index was read
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+
+        return CursorPage.<ProductResponse>builder()
+            .items(items)
+            .nextCursor(result.nextCursor())
+            .hasNext(result.nextCursor() != null)
+            .size(items.size())
+            .build();
     }
 
     // ── SEARCH BY NAME + FILTER BY CATEGORY ──────────────────
-    public List<ProductResponse> searchByNameAndCategory(String name, String category) {
-        return productRepository.findByNameContainingIgnoreCaseAndCategoryIgnoreCase(name, category)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByNameAndCategory(String name, String category,
+                                                               String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository
+                .findByNameContainingIgnoreCaseAndCategory(name, toCategoryKey(category), position, order, limit));
     }
 
     // ── SEARCH BY NAME + FILTER BY BRAND ─────────────────────
-    public List<ProductResponse> searchByNameAndBrand(String name, String brand) {
-        return productRepository.findByNameContainingIgnoreCaseAndBrandIgnoreCase(name, brand)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByNameAndBrand(String name, String brand,
+                                                            String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository
+                .findByNameContainingIgnoreCaseAndBrandIgnoreCase(name, brand, position, order, limit));
     }
 
     // ── FILTER BY PRICE RANGE ────────────────────────────────
-    public List<ProductResponse> getByPriceRange(BigDecimal min, BigDecimal max) {
-        return productRepository.findByPriceBetween(min, max)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByPriceRange(BigDecimal min, BigDecimal max,
+                                                       String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findByPriceBetween(min, max, position, order, limit));
     }
 
     // ── FILTER BY CATEGORY + PRICE RANGE ─────────────────────
-    public List<ProductResponse> getByCategoryAndPriceRange(String category, BigDecimal min, BigDecimal max) {
-        return productRepository.findByCategoryIgnoreCaseAndPriceBetween(category, min, max)
-            .stream().map(this::mapToResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByCategoryAndPriceRange(String category, BigDecimal min, BigDecimal max,
+                                                                  String cursor, int size, String sort) {
+        return page(cursor, size, sort,
+            (position, order, limit) -> productRepository
+                .findByCategoryAndPriceBetween(toCategoryKey(category), min, max, position, order, limit));
+    }
+
+    // ── COMPOSABLE FILTER + FACETS ────────────────────────────
+    // Any mix of keyword / category / brand / price range / in-stock.
+    // One keyset query for the page, one GROUP BY query for all facets.
+    public FilteredProductsResponse filter(ProductFilter filter, String cursor, int size, String sort) {
+        // Facets are computed over everything except category and brand, which
+        // are applied in memory below so each facet ignores its own selection
+        Specification<Product> facetScope = Specification.allOf(
+            ProductSpecifications.keyword(filter.getQ()),
+            ProductSpecifications.inStock(filter.isInStock()),
+            ProductSpecifications.priceBetween(filter.getMinPrice(), filter.getMaxPrice()));
+
+        Specification<Product> pageSpec = Specification.allOf(
+            facetScope,
+            ProductSpecifications.category(filter.getCategory()),
+            ProductSpecifications.brand(filter.getBrand()),
+            ProductSpecifications.fetchAddedBy());
+
+        CursorPage<ProductResponse> products = page(cursor, size, sort,
+            (position, order, limit) -> productRepository.findBy(pageSpec,
+                query -> query.sortBy(order).limit(limit.max()).scroll(position)));
+
+        List<FacetRow> rows = productRepository.countFacets(facetScope, PRICE_BUCKET_BOUNDS);
+
+        return FilteredProductsResponse.builder()
+            .products(products)
+            .facets(toFacets(rows, filter))
+            .build();
+    }
+
+    // ── AUTOCOMPLETE ──────────────────────────────────────────
+    // Served from memory (ProductSuggestIndex), no database access
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SuggestionResponse> suggest(String prefix, int limit, boolean fuzzy) {
+        return suggestIndex.suggest(prefix, limit, fuzzy);
     }
 
     // ── ALL CATEGORIES ────────────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'")
     public List<String> getAllCategories() {
         return productRepository.findAllCategories();
     }
 
     // ── ALL BRANDS ────────────────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.BRANDS, key = "'all'")
     public List<String> getAllBrands() {
         return productRepository.findAllBrands();
     }
 
     // ── PRIVATE HELPERS ───────────────────────────────────────
+
+    /** One keyset query against ProductRepository. */
+    @FunctionalInterface
+    private interface WindowQuery {
+        Window<Product> fetch(ScrollPosition position, Sort sort, Limit limit);
+    }
+
+    /**
+     * Runs a keyset-paginated listing query and maps it to a CursorPage.
+     * Only `size` rows (+1 look-ahead for hasNext) are loaded per request,
+     * no matter how large the catalog gets.
+     */
+    private CursorPage<ProductResponse> page(String cursor, int size, String sortParam, WindowQuery query) {
+        ProductSort sort = ProductSort.fromParam(sortParam);
+        int pageSize = clampSize(size);
+
+        Window<Product> window = query.fetch(
+            ProductCursor.decode(sort, cursor), sort.toSort(), Limit.of(pageSize));
+
+        List<ProductResponse> items = window.stream()
+            .map(this::mapToResponse).collect(Collectors.toList());
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+            ? ProductCursor.encode(sort, window.getContent().get(window.size() - 1))
+            : null;
+
+        return CursorPage.<ProductResponse>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasNext(nextCursor != null)
+            .size(items.size())
+            .build();
+    }
+
+    /** Disjunctive facet counts from the (category, brand) × price bucket rows. */
+    private static ProductFacets toFacets(List<FacetRow> rows, ProductFilter filter) {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        Map<String, Long> brands = new LinkedHashMap<>();
+        long[] buckets = new long[PRICE_BUCKET_BOUNDS.size() + 1];
+        long total = 0;
+
+        rows.sort(Comparator.comparing(FacetRow::category, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(FacetRow::brand, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        for (FacetRow row : rows) {
+            boolean categoryMatches = matches(filter.getCategory(), row.category());
+            boolean brandMatches = matches(filter.getBrand(), row.brand());
+
+            if (brandMatches && row.category() != null) {
+                categories.merge(row.category(), row.total(), Long::sum);
+            }
+            if (categoryMatches && row.brand() != null) {
+                brands.merge(row.brand(), row.total(), Long::sum);
+            }
+            if (categoryMatches && brandMatches) {
+                for (int i = 0; i < buckets.length; i++) buckets[i] += row.counts()[i];
+                total += row.total();
+            }
+        }
+
+        Map<String, Long> priceRanges = new LinkedHashMap<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < buckets.length; i++) {
+            String label = i < PRICE_BUCKET_BOUNDS.size()
+                ? lower.toPlainString() + "-" + PRICE_BUCKET_BOUNDS.get(i).toPlainString()
+                : lower.toPlainString() + "+";
+            priceRanges.put(label, buckets[i]);
+            if (i < PRICE_BUCKET_BOUNDS.size()) lower = PRICE_BUCKET_BOUNDS.get(i);
+        }
+
+        return ProductFacets.builder()
+            .total(total)
+            .categories(categories)
+            .brands(brands)
+            .priceRanges(priceRanges)
+            .build();
+    }
+
+    private static boolean matches(String selected, String value) {
+        return selected == null || selected.isBlank() || selected.trim().equalsIgnoreCase(value);
+    }
+
+    /** Categories are stored lower-case, see ProductRepository. */
+    private static String toCategoryKey(String category) {
+        return category == null ? null : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // package-private: listing cache keys use the same page size (ProductCatalogCache)
+    static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
     private Product findProductById(Long id) {
         return productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
-    private ProductResponse mapToResponse(Product p) {
+    // package-private: benchmarked directly by ProductMappingBenchmark
+    ProductResponse mapToResponse(Product p) {
         // Build optimized URLs for ALL images in display order
         List<String> imageUrls = p.getImages().stream()
             .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
             .collect(Collectors.toList());
+        List<Map<String, String>> imageSrcsets = p.getImages().stream()
+            .map(ProductImage::getSrcsets)
+            .collect(Collectors.toList());
 
         return ProductResponse.builder()
             .id(p.getId())
@@ -118,6 +316,8 @@ public class UserProductService {
             .stock(p.getStock())
             .imageUrl(imageUrls.isEmpty() ? null : imageUrls.get(0))  // primary image
             .imageUrls(imageUrls)                                       // all images
+            .imageSrcset(imageSrcsets.isEmpty() ? Map.of() : imageSrcsets.get(0))
+            .imageSrcsets(imageSrcsets)
             .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
             .createdAt(p.getCreatedAt())
             .updatedAt(p.getUpdatedAt())
@@ -1,5 +1,6 @@
 package com.laptopMarket.BillionWebsite.service;
 
+import com.laptopMarket.BillionWebsite.Config.Security.PrincipalLookup;
 import com.laptopMarket.BillionWebsite.dto.AdminResponse;
 import com.laptopMarket.BillionWebsite.dto.UpdateUserRequest;
 import com.laptopMarket.BillionWebsite.dto.UserResponse;
@@ -23,6 +24,7 @@ public class UserService {
     private final UserRepo userRepository;
     private final AdminRepo ownerRepo;
     private final OrderRepository orderRepository;
+    private final PrincipalLookup principalLookup;
 
     // ── GET MY PROFILE (logged-in user) ──────────────────────
     public UserResponse getMyProfile(UUID userId) {
@@ -39,6 +41,7 @@ public class UserService {
         if (request.getPhone()     != null) user.setPhone(request.getPhone());
 
         userRepository.save(user);
+        principalLookup.evict(user.getEmail());   // next request sees the new profile
         System.out.println("✅ Profile updated for user: " + user.getEmail());
         return mapToResponse(user);
     }
@@ -105,6 +108,7 @@ public class UserService {
     public String removeUser(UUID userId) {
         User user = findUserById(userId);
         userRepository.delete(user);
+        principalLookup.evict(user.getEmail());   // outstanding tokens stop authenticating
         System.out.println("🗑️  User removed: " + user.getEmail());
         return "User " + user.getFirstName() + " " + user.getLastName() +
                " (" + user.getEmail() + ") has been removed successfully.";
@@ -0,0 +1,150 @@
+-- =============================================
+-- V1 — baseline schema
+-- =============================================
+-- The schema as Hibernate's ddl-auto=update built it before Flyway took
+-- over. Databases that already have these tables are baselined at V1
+-- (spring.flyway.baseline-on-migrate) and skip this script; empty
+-- databases get it verbatim.
+
+create table admin_tokens (
+    expiry_date timestamp(6) with time zone not null,
+    id bigint generated by default as identity,
+    owner_id uuid not null unique,
+    token VARCHAR(1000) not null unique,
+    primary key (id)
+);
+
+create table cart_items (
+    quantity integer not null,
+    subtotal numeric(10,2) not null,
+    unit_price numeric(10,2) not null,
+    added_at timestamp(6),
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    user_id uuid not null,
+    primary key (id)
+);
+
+create table chat_messages (
+    is_product_card boolean not null,
+    chat_room_id bigint not null,
+    id bigint generated by default as identity,
+    sent_at timestamp(6),
+    content TEXT,
+    sender_id varchar(255),
+    sender_name varchar(255),
+    sender_type varchar(255) check ((sender_type in ('USER','ADMIN'))),
+    primary key (id)
+);
+
+create table chat_rooms (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    shop_owner_id uuid not null,
+    user_id uuid not null,
+    title varchar(255),
+    primary key (id)
+);
+
+create table customers (
+    created_at timestamp(6),
+    id uuid not null,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    role varchar(255) check ((role in ('ADMIN','USER'))),
+    primary key (id)
+);
+
+create table order_items (
+    quantity integer not null,
+    subtotal numeric(10,2) not null,
+    unit_price numeric(10,2) not null,
+    id bigint generated by default as identity,
+    order_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table orders (
+    total_amount numeric(10,2) not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id uuid not null,
+    delivery_address varchar(255),
+    status varchar(255) check ((status in ('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED'))),
+    primary key (id)
+);
+
+create table product_images (
+    display_order integer not null,
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    image_public_id varchar(255) not null,
+    image_url varchar(255) not null,
+    primary key (id)
+);
+
+create table products (
+    price numeric(10,2) not null,
+    stock integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    shop_owner_id uuid not null,
+    brand varchar(255),
+    category varchar(255) not null,
+    description TEXT,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table refresh_tokens (
+    expiry_date timestamp(6) with time zone not null,
+    id bigint generated by default as identity,
+    user_id uuid not null unique,
+    token VARCHAR(1000) not null unique,
+    primary key (id)
+);
+
+create table shop_owner (
+    id uuid not null,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    role varchar(255) check ((role in ('ADMIN','USER'))),
+    shop_address varchar(255),
+    shop_name varchar(255),
+    primary key (id)
+);
+
+alter table admin_tokens add constraint FKclrwvuyfddqush7o2dcn0e0qf foreign key (owner_id) references shop_owner;
+
+alter table cart_items add constraint FK1re40cjegsfvw58xrkdp6bac6 foreign key (product_id) references products;
+
+alter table cart_items add constraint FKrywrwfj1shh8d3rokbsssxt7g foreign key (user_id) references customers;
+
+alter table chat_messages add constraint FKbcsxusjp1v4rd8879fhvq8ssb foreign key (chat_room_id) references chat_rooms;
+
+alter table chat_rooms add constraint FKo52t6lfonn86xk7t8vapqkniv foreign key (product_id) references products;
+
+alter table chat_rooms add constraint FKedws9mx8244erd17aqvqq0rpb foreign key (shop_owner_id) references shop_owner;
+
+alter table chat_rooms add constraint FK7rqul5m41gfpjductbiqjey1j foreign key (user_id) references customers;
+
+alter table order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders;
+
+alter table order_items add constraint FKocimc7dtr037rh4ls4l95nlfi foreign key (product_id) references products;
+
+alter table orders add constraint FKf31jqtsy70cb3p4nqysbv8s2v foreign key (user_id) references customers;
+
+alter table product_images add constraint FKqnq71xsohugpqwf3c9gxmsuy foreign key (product_id) references products;
+
+alter table products add constraint FKqv9hb2kd4a3cjwdruwswgwnin foreign key (shop_owner_id) references shop_owner;
+
+alter table refresh_tokens add constraint FKoyngc6ngwuuqibvntdiv56qd2 foreign key (user_id) references customers;
@@ -0,0 +1,69 @@
+-- =============================================
+-- V2 — indexes for every repository query
+-- =============================================
+-- Each index names the queries it serves. Sort columns are part of the
+-- key so keyset pages (ORDER BY x, id ... FETCH FIRST n) read n index
+-- entries instead of sorting the table. PostgreSQL does not index
+-- foreign keys on its own, so the FK lookups are covered here too.
+-- IF NOT EXISTS keeps this safe on databases created by ddl-auto.
+
+-- Category lookups compare the stored value directly; AdminProductService
+-- has always lower-cased it, this only fixes rows written by hand
+update products set category = lower(category) where category <> lower(category);
+
+-- ── products ───────────────────────────────────────────────
+-- findAllBy / findByStockGreaterThan (sort=newest)
+create index if not exists idx_products_created_at on products (created_at desc, id desc);
+-- findByPriceBetween, sort=price_asc / price_desc
+create index if not exists idx_products_price on products (price, id);
+-- findByCategory (sort=newest), findAllCategories
+create index if not exists idx_products_category_created_at on products (category, created_at desc, id desc);
+-- findByCategory (sort=price_*), findByCategoryAndPriceBetween
+create index if not exists idx_products_category_price on products (category, price, id);
+-- findByBrand, findAllBrands
+create index if not exists idx_products_brand on products (brand);
+-- findByAddedById
+create index if not exists idx_products_shop_owner on products (shop_owner_id);
+
+-- ── product_images ─────────────────────────────────────────
+-- findByProductIdOrderByDisplayOrderAsc, Product.images batch fetch
+create index if not exists idx_product_images_product on product_images (product_id, display_order);
+
+-- ── cart_items ─────────────────────────────────────────────
+-- findByUserId, findByUserIdAndProductId, countByUserId, deleteByUserId
+create index if not exists idx_cart_items_user_product on cart_items (user_id, product_id);
+-- FK: deleting a product
+create index if not exists idx_cart_items_product on cart_items (product_id);
+
+-- ── orders ─────────────────────────────────────────────────
+-- findByUserIdOrderByCreatedAtDesc, countByUserId
+create index if not exists idx_orders_user_created_at on orders (user_id, created_at desc);
+-- findByStatusOrderByCreatedAtDesc
+create index if not exists idx_orders_status_created_at on orders (status, created_at desc);
+-- findByCreatedAtBetweenOrderByCreatedAtDesc, findAllByOrderByCreatedAtDesc
+create index if not exists idx_orders_created_at on orders (created_at desc);
+
+-- ── order_items ────────────────────────────────────────────
+-- findByOrderId, findByOrderIdAndProductId
+create index if not exists idx_order_items_order on order_items (order_id, product_id);
+-- findByProductId, countByProductId, getTotalQuantitySoldByProduct
+create index if not exists idx_order_items_product on order_items (product_id);
+
+-- ── chat ───────────────────────────────────────────────────
+-- findByChatRoomIdOrderBySentAtAsc, countByChatRoomId
+create index if not exists idx_chat_messages_room_sent_at on chat_messages (chat_room_id, sent_at);
+-- findByUserIdOrderByCreatedAtDesc
+create index if not exists idx_chat_rooms_user_created_at on chat_rooms (user_id, created_at desc);
+-- findByUserIdAndProductId
+create index if not exists idx_chat_rooms_user_product on chat_rooms (user_id, product_id);
+-- findByShopOwnerIdOrderByCreatedAtDesc
+create index if not exists idx_chat_rooms_owner_created_at on chat_rooms (shop_owner_id, created_at desc);
+-- findByProductId
+create index if not exists idx_chat_rooms_product on chat_rooms (product_id);
+
+-- ── accounts ───────────────────────────────────────────────
+-- UserRepo / AdminRepo findByEmail, existsByEmail (login, registration)
+create index if not exists idx_customers_email on customers (email);
+create index if not exists idx_shop_owner_email on shop_owner (email);
+-- RefreshTokenRepo.deleteExpiredTokens
+create index if not exists idx_refresh_tokens_expiry on refresh_tokens (expiry_date);
@@ -0,0 +1,38 @@
+-- =============================================
+-- V4 — durable outbox for outgoing email
+-- =============================================
+-- EmailService writes here instead of talking to SMTP; MailDispatcher
+-- claims due rows in batches, sends them and records the outcome.
+-- The message body is stored once per email, recipients once per row.
+
+create table mail_messages (
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    subject varchar(500) not null,
+    body TEXT not null,
+    primary key (id)
+);
+
+create table mail_outbox (
+    attempts integer not null,
+    claimed_at timestamp(6),
+    created_at timestamp(6) not null,
+    next_attempt_at timestamp(6) not null,
+    sent_at timestamp(6),
+    id bigint generated by default as identity,
+    message_id bigint not null,
+    claim_token varchar(36),
+    status varchar(16) not null check ((status in ('PENDING','SENDING','SENT','FAILED'))),
+    recipient varchar(255) not null,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+alter table mail_outbox add constraint fk_mail_outbox_message foreign key (message_id) references mail_messages;
+
+-- findDueIds (status = PENDING, oldest next_attempt_at first), releaseStaleClaims
+create index idx_mail_outbox_due on mail_outbox (status, next_attempt_at, id);
+-- findClaimed
+create index idx_mail_outbox_claim on mail_outbox (claim_token);
+-- FK lookups, deleteOrphanMessages
+create index idx_mail_outbox_message on mail_outbox (message_id);
@@ -0,0 +1,23 @@
+-- =============================================
+-- V5 — outbox for chat email notifications
+-- =============================================
+-- ChatService writes one row per message in the message's transaction;
+-- ChatNotifier turns a room's rows into one digest email once the room
+-- has been quiet for chat.notify.quiet-seconds, then deletes them.
+
+create table chat_notifications (
+    created_at timestamp(6) not null,
+    chat_room_id bigint not null,
+    id bigint generated by default as identity,
+    message_id bigint not null,
+    recipient_type varchar(16) not null check ((recipient_type in ('USER','ADMIN'))),
+    primary key (id)
+);
+
+alter table chat_notifications add constraint fk_chat_notifications_room foreign key (chat_room_id) references chat_rooms;
+alter table chat_notifications add constraint fk_chat_notifications_message foreign key (message_id) references chat_messages;
+
+-- findDigest, deleteDigest, deleteByRoomAndRecipient
+create index idx_chat_notifications_room on chat_notifications (chat_room_id, recipient_type, id);
+-- FK lookups
+create index idx_chat_notifications_message on chat_notifications (message_id);
@@ -0,0 +1,23 @@
+-- =============================================
+-- V6 — responsive variants of product images
+-- =============================================
+-- Generated by Cloudinary (eager transformations) when an image is
+-- uploaded: one row per ImageVariant size and format, served directly
+-- through ProductResponse.imageSrcsets.
+
+create table product_image_variants (
+    bytes bigint not null,
+    height integer not null,
+    width integer not null,
+    id bigint generated by default as identity,
+    product_image_id bigint not null,
+    format varchar(8) not null,
+    variant varchar(16) not null check ((variant in ('THUMBNAIL','CARD','DETAIL'))),
+    url varchar(255) not null,
+    primary key (id)
+);
+
+alter table product_image_variants add constraint fk_product_image_variants_image foreign key (product_image_id) references product_images;
+
+-- Batch load of ProductImage.variants
+create index idx_product_image_variants_image on product_image_variants (product_image_id);
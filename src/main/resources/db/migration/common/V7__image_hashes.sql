@@ -0,0 +1,23 @@
+-- =============================================
+-- V7 — content-hash index of uploaded images
+-- =============================================
+-- One row per image on Cloudinary, keyed by the SHA-256 of the uploaded
+-- bytes; a re-upload of the same photo reuses the stored result.
+
+create table image_hashes (
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    sha256 varchar(64) not null,
+    public_id varchar(255) not null,
+    upload_result text not null,
+    primary key (id)
+);
+
+-- findBySha256; also what makes a concurrent second record() fail
+alter table image_hashes add constraint uk_image_hashes_sha256 unique (sha256);
+-- deleteByPublicId
+create index idx_image_hashes_public_id on image_hashes (public_id);
+
+-- Deduplicated images share a public ID: existsByImagePublicIdAndIdNotIn
+-- checks for other users before one is deleted from Cloudinary
+create index idx_product_images_public_id on product_images (image_public_id);
@@ -0,0 +1,25 @@
+-- =============================================
+-- V8 — durable queue of image assets to delete
+-- =============================================
+-- AdminProductService writes here in the transaction that removes the
+-- product images; ImageDeletionWorker claims due rows in batches, deletes
+-- them from the ImageStore in one call per batch and removes the rows.
+-- Rows that keep failing stay behind as FAILED.
+
+create table image_deletions (
+    attempts integer not null,
+    claimed_at timestamp(6),
+    created_at timestamp(6) not null,
+    next_attempt_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    claim_token varchar(36),
+    status varchar(16) not null check ((status in ('PENDING','DELETING','FAILED'))),
+    public_id varchar(255) not null,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+-- findDueIds (status = PENDING, oldest next_attempt_at first), releaseStaleClaims
+create index idx_image_deletions_due on image_deletions (status, next_attempt_at, id);
+-- findClaimed
+create index idx_image_deletions_claim on image_deletions (claim_token);
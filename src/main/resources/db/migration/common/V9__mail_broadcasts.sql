@@ -0,0 +1,21 @@
+-- =============================================
+-- V9 — emails to every customer, expanded in the background
+-- =============================================
+-- A broadcast is queued as one mail_messages row plus one row here, in
+-- the transaction of the change that caused it; MailDispatcher turns it
+-- into mail_outbox rows a page of customers at a time and then deletes
+-- the row here.
+
+create table mail_broadcasts (
+    recipients integer not null,
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    message_id bigint not null,
+    version bigint not null,
+    last_recipient_id uuid,
+    primary key (id)
+);
+
+alter table mail_broadcasts add constraint fk_mail_broadcasts_message foreign key (message_id) references mail_messages;
+-- FK lookups, deleteOrphans
+create index idx_mail_broadcasts_message on mail_broadcasts (message_id);
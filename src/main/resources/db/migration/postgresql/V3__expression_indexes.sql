@@ -0,0 +1,11 @@
+-- =============================================
+-- V3 — expression indexes (PostgreSQL only)
+-- =============================================
+-- Spring Data renders IgnoreCase as upper(column) = upper(?), which a plain
+-- index on brand cannot serve. H2, used by the tests, has no expression
+-- indexes, so this script lives in the postgresql location only.
+
+-- findByBrandIgnoreCase (sort=newest), /products/filter?brand=
+create index if not exists idx_products_brand_upper_created_at on products (upper(brand), created_at desc, id desc);
+-- findByBrandIgnoreCase (sort=price_*)
+create index if not exists idx_products_brand_upper_price on products (upper(brand), price, id);
@@ -0,0 +1,62 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final TokenEncryptionService encryption = spy(new TokenEncryptionService(TokenServiceTest.ENCRYPTION_KEY_HEX));
+    private final TokenService tokenService = TokenServiceTest.tokenService(encryption, 60_000);
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final AdminRepo adminRepo = mock(AdminRepo.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenService, new PrincipalLookup(userRepo, adminRepo));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenIsDecryptedOnceAndItsClaimsBecomeTheAuthenticationDetails() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("ada@mail.test").role(Role.USER).build();
+        when(userRepo.findByEmail("ada@mail.test")).thenReturn(Optional.of(user));
+        when(adminRepo.findByEmail("ada@mail.test")).thenReturn(Optional.empty());
+
+        String token = tokenService.generateAccessToken(user);
+        clearInvocations(encryption);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(encryption, times(1)).decryptToken(anyString());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getPrincipal()).isInstanceOf(UserPrincipal.class);
+        assertThat(AccessToken.current()).hasValueSatisfying(claims -> {
+            assertThat(claims.userId()).isEqualTo(user.getId());
+            assertThat(claims.role()).isEqualTo("USER");
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.Config.CacheConfig;
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig({CacheConfig.class, PrincipalLookup.class})
+class PrincipalLookupTest {
+
+    @MockitoBean
+    private UserRepo userRepo;
+
+    @MockitoBean
+    private AdminRepo adminRepo;
+
+    @Autowired
+    private PrincipalLookup principalLookup;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final User customer = User.builder().id(UUID.randomUUID()).email("ada@mail.test").role(Role.USER).build();
+    private final ShopOwner owner = ShopOwner.builder().id(UUID.randomUUID()).email("shop@mail.test").build();
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(userRepo.findByEmail("ada@mail.test")).thenReturn(Optional.of(customer));
+        when(adminRepo.findByEmail("shop@mail.test")).thenReturn(Optional.of(owner));
+        when(userRepo.findByEmail("shop@mail.test")).thenReturn(Optional.empty());
+        when(adminRepo.findByEmail("ada@mail.test")).thenReturn(Optional.empty());
+        when(userRepo.findByEmail("ghost@mail.test")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        UserDetails first = principalLookup.load("ada@mail.test", "USER");
+        for (int i = 0; i < 50; i++) {
+            assertThat(principalLookup.load("ada@mail.test", "USER")).isSameAs(first);
+        }
+
+        verify(userRepo, times(1)).findByEmail("ada@mail.test");
+        verifyNoInteractions(adminRepo);
+    }
+
+    @Test
+    void roleClaimPicksTheOnlyTableQueried() {
+        assertThat(principalLookup.load("shop@mail.test", "ADMIN")).isInstanceOf(AdminPrincipal.class);
+        assertThat(principalLookup.load("ada@mail.test", "USER")).isInstanceOf(UserPrincipal.class);
+
+        verify(userRepo, never()).findByEmail("shop@mail.test");
+        verify(adminRepo, never()).findByEmail("ada@mail.test");
+    }
+
+    @Test
+    void evictForcesTheNextLookupToReload() {
+        principalLookup.load("ada@mail.test", "USER");
+        principalLookup.evict("ada@mail.test");
+        principalLookup.load("ada@mail.test", "USER");
+
+        verify(userRepo, times(2)).findByEmail("ada@mail.test");
+    }
+
+    @Test
+    void unknownEmailsAreNotCached() {
+        assertThat(principalLookup.load("ghost@mail.test", "USER")).isNull();
+        assertThat(principalLookup.load("ghost@mail.test", "USER")).isNull();
+
+        verify(userRepo, times(2)).findByEmail("ghost@mail.test");
+    }
+
+    @Test
+    void tokenWithoutRoleFallsBackToShopOwners() {
+        assertThat(principalLookup.load("shop@mail.test", null)).isInstanceOf(AdminPrincipal.class);
+        clearInvocations(userRepo, adminRepo);
+
+        principalLookup.load("shop@mail.test", null);
+        verify(userRepo, never()).findByEmail(anyString());
+        verify(adminRepo, never()).findByEmail(anyString());
+    }
+}
@@ -0,0 +1,55 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenEncryptionServiceTest {
+
+    private final TokenEncryptionService encryption = new TokenEncryptionService(TokenServiceTest.ENCRYPTION_KEY_HEX);
+
+    @Test
+    void roundTripUsesAFreshIvEachTime() {
+        String plain = "header.payload-with-ünïcode.signature";
+
+        String first = encryption.encryptToken(plain);
+        String second = encryption.encryptToken(plain);
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(encryption.decryptToken(first)).isEqualTo(plain);
+        assertThat(encryption.decryptToken(second)).isEqualTo(plain);
+    }
+
+    @Test
+    void failedDecryptDoesNotBreakLaterCalls() {
+        String token = encryption.encryptToken("plain");
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThatThrownBy(() -> encryption.decryptToken(tampered)).hasMessage("Invalid or corrupted token");
+        assertThatThrownBy(() -> encryption.decryptToken("c2hvcnQ")).hasMessage("Invalid or corrupted token");
+        assertThat(encryption.decryptToken(token)).isEqualTo("plain");
+    }
+
+    @Test
+    void concurrentCallersOnVirtualThreadsNeverShareACipher() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2_000; i++) {
+                String plain = "token-" + i;
+                results.add(pool.submit(() -> plain.equals(encryption.decryptToken(encryption.encryptToken(plain)))));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.laptopMarket.BillionWebsite.Config.Security;
+
+import com.laptopMarket.BillionWebsite.entity.Role;
+import com.laptopMarket.BillionWebsite.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TokenServiceTest {
+
+    static final String ENCRYPTION_KEY_HEX = "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f";
+    static final String JWT_SECRET = "test-only-jwt-secret-0123456789abcdef";
+
+    private final TokenEncryptionService encryption = spy(new TokenEncryptionService(ENCRYPTION_KEY_HEX));
+    private final TokenService tokenService = tokenService(encryption, 60_000);
+
+    private final User user = User.builder()
+        .id(UUID.randomUUID())
+        .email("ada@mail.test")
+        .role(Role.USER)
+        .build();
+
+    @BeforeEach
+    void setUp() {
+        clearInvocations(encryption);
+    }
+
+    @Test
+    void parseAccessTokenDecryptsOnceAndReturnsEveryClaim() {
+        String token = tokenService.generateAccessToken(user);
+        clearInvocations(encryption);
+
+        AccessToken parsed = tokenService.parseAccessToken(token);
+
+        verify(encryption, times(1)).decryptToken(anyString());
+        assertThat(parsed.email()).isEqualTo("ada@mail.test");
+        assertThat(parsed.userId()).isEqualTo(user.getId());
+        assertThat(parsed.role()).isEqualTo("USER");
+        assertThat(parsed.isExpired()).isFalse();
+        assertThat(parsed.remainingMillis()).isPositive().isLessThanOrEqualTo(60_000);
+
+        assertThat(tokenService.getEmailFromAccessToken(token)).isEqualTo("ada@mail.test");
+        assertThat(tokenService.getUserIdFromAccessToken(token)).isEqualTo(user.getId());
+        assertThat(tokenService.getRoleFromAccessToken(token)).isEqualTo("USER");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String expired = tokenService(encryption, -1_000).generateAccessToken(user);
+
+        assertThatThrownBy(() -> tokenService.parseAccessToken(expired)).hasMessage("Token expired");
+        assertThat(tokenService.isTokenExpired(expired)).isTrue();
+        assertThat(tokenService.getTokenExpirationTime(expired)).isZero();
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        String token = tokenService.generateAccessToken(user);
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThatThrownBy(() -> tokenService.parseAccessToken(tampered))
+            .hasMessage("Invalid or corrupted token");
+
+        // Encrypted with our key but signed with another secret
+        TokenService other = tokenService(encryption, 60_000);
+        ReflectionTestUtils.setField(other, "jwtSecret", "another-secret-another-secret-0123456");
+        String foreign = other.generateAccessToken(user);
+        assertThatThrownBy(() -> tokenService.parseAccessToken(foreign)).hasMessage("Invalid token");
+    }
+
+    @Test
+    void verifiedTokenIsDecryptedOnlyOnFirstUse() {
+        String token = tokenService.generateAccessToken(user);
+        clearInvocations(encryption);
+
+        AccessToken first = tokenService.parseAccessToken(token);
+        for (int i = 0; i < 20; i++) {
+            assertThat(tokenService.parseAccessToken(token)).isSameAs(first);
+        }
+
+        verify(encryption, times(1)).decryptToken(anyString());
+    }
+
+    @Test
+    void cachedTokenStillExpiresAtItsExp() throws InterruptedException {
+        String shortLived = tokenService(encryption, 1_500).generateAccessToken(user);
+        assertThat(tokenService.parseAccessToken(shortLived).email()).isEqualTo("ada@mail.test");
+
+        Thread.sleep(2_000);   // exp has whole-second precision
+
+        assertThatThrownBy(() -> tokenService.parseAccessToken(shortLived)).hasMessage("Token expired");
+    }
+
+    @Test
+    void revokedTokenIsRejectedEvenAfterItWasCached() {
+        String token = tokenService.generateAccessToken(user);
+        String other = tokenService.generateAccessToken(user);
+        AccessToken claims = tokenService.parseAccessToken(token);
+        tokenService.parseAccessToken(other);
+
+        tokenService.revokeAccessToken(token, claims);
+
+        assertThatThrownBy(() -> tokenService.parseAccessToken(token)).hasMessage("Token revoked");
+        assertThat(tokenService.isTokenExpired(token)).isTrue();
+        assertThat(tokenService.parseAccessToken(other).email()).isEqualTo("ada@mail.test");
+    }
+
+    static TokenService tokenService(TokenEncryptionService encryption, long accessExpirationMs) {
+        TokenService service = new TokenService(null, null, encryption, new VerifiedTokenCache(1_000));
+        ReflectionTestUtils.setField(service, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(service, "accessExpirationMs", accessExpirationMs);
+        return service;
+    }
+}
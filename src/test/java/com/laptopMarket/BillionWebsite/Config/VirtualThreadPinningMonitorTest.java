@@ -0,0 +1,66 @@
+package com.laptopMarket.BillionWebsite.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor();
+    private final Object monitorLock = new Object();
+    private final ReentrantLock reentrantLock = new ReentrantLock();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(monitor, "thresholdMs", 20L);
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void sleepingInsideSynchronizedIsReportedButAReentrantLockIsNot() throws Exception {
+        Thread.ofVirtual().start(this::sleepHoldingReentrantLock).join();
+        Thread.ofVirtual().start(this::sleepInsideSynchronized).join();
+
+        // JFR hands events to the stream about once a second
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (monitor.pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        Thread.sleep(1_500);   // room for a wrongly reported ReentrantLock pin to show up
+
+        assertThat(monitor.pinnedCount()).isEqualTo(1);
+    }
+
+    private void sleepInsideSynchronized() {
+        synchronized (monitorLock) {
+            sleep();
+        }
+    }
+
+    private void sleepHoldingReentrantLock() {
+        reentrantLock.lock();
+        try {
+            sleep();
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.laptopMarket.BillionWebsite.controller;
+
+import com.laptopMarket.BillionWebsite.service.LocalImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LocalImageControllerTest {
+
+    private static final String URL = "/images/laptopstore/products/abc/card.jpg";
+
+    @TempDir
+    Path root;
+
+    private MockMvc mvc;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        Files.write(Files.createDirectories(root.resolve("laptopstore/products/abc")).resolve("card.jpg"), content);
+
+        mvc = MockMvcBuilders.standaloneSetup(new LocalImageController(new LocalImageStore(root, "/images"))).build();
+    }
+
+    @Test
+    void wholeFileIsServedWithAStrongETagAndLongCaching() throws Exception {
+        MvcResult result = mvc.perform(get(URL))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+            .andReturn();
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(content);
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        mvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void ifNoneMatchAcceptsAListAWeakTagOrAStar() throws Exception {
+        String etag = mvc.perform(get(URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"old\", " + etag))
+            .andExpect(status().isNotModified());
+        mvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+            .andExpect(status().isNotModified());
+        mvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "*"))
+            .andExpect(status().isNotModified());
+        mvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"old\", W/\"older\""))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void singleRangeIsServedPartially() throws Exception {
+        MvcResult result = mvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=100-199"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/1000"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+            .andReturn();
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+
+        // Suffix range: the last 10 bytes
+        MvcResult tail = mvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-10"))
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 990-999/1000"))
+            .andReturn();
+        assertThat(tail.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 990, 1000));
+    }
+
+    @Test
+    void rangeAgainstAStaleCopyOrPastTheEndIsRefused() throws Exception {
+        mvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5000-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+
+        // If-Range names another version: the whole (current) file instead
+        mvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "\"old\""))
+            .andExpect(status().isOk())
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000));
+    }
+
+    @Test
+    void missingFilesAndPathsOutsideTheStoreAre404() throws Exception {
+        mvc.perform(get("/images/laptopstore/products/abc/detail.jpg")).andExpect(status().isNotFound());
+        mvc.perform(get("/images/laptopstore/products/abc")).andExpect(status().isNotFound());   // a directory
+        mvc.perform(get("/images/../../etc/passwd")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,82 @@
+package com.laptopMarket.BillionWebsite.controller;
+
+import com.laptopMarket.BillionWebsite.dto.CursorPage;
+import com.laptopMarket.BillionWebsite.dto.FilteredProductsResponse;
+import com.laptopMarket.BillionWebsite.dto.ProductFacets;
+import com.laptopMarket.BillionWebsite.dto.ProductFilter;
+import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.service.UserProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing of the listing endpoints — building the standalone MockMvc also
+ * registers every handler, so an ambiguous mapping fails here.
+ */
+class UserProductControllerTest {
+
+    private UserProductService service;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(UserProductService.class);
+        mvc = MockMvcBuilders.standaloneSetup(new UserProductController(service)).build();
+    }
+
+    @Test
+    void browseTakesAnyMixOfFiltersAndAnswersWithFacets() throws Exception {
+        when(service.filter(any(), any(), eq(20), eq("newest"))).thenReturn(FilteredProductsResponse.builder()
+            .products(page())
+            .facets(ProductFacets.builder().total(1).categories(Map.of("laptop", 1L)).build())
+            .build());
+
+        mvc.perform(get("/api/v1/products/browse").param("brand", "dell").param("minPrice", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.products.size").value(1))
+            .andExpect(jsonPath("$.facets.categories.laptop").value(1));
+
+        ArgumentCaptor<ProductFilter> filter = ArgumentCaptor.forClass(ProductFilter.class);
+        verify(service).filter(filter.capture(), any(), eq(20), eq("newest"));
+        assertThat(filter.getValue().getBrand()).isEqualTo("dell");
+        assertThat(filter.getValue().getMinPrice()).isEqualByComparingTo("500");
+        assertThat(filter.getValue().getCategory()).isNull();
+    }
+
+    @Test
+    void filterIsStillTheCategoryAndPriceEndpoint() throws Exception {
+        when(service.getByCategoryAndPriceRange(eq("laptop"), any(), any(), any(), eq(20), eq("newest")))
+            .thenReturn(page());
+
+        mvc.perform(get("/api/v1/products/filter").param("category", "laptop").param("min", "500").param("max", "2000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.size").value(1));
+
+        verify(service).getByCategoryAndPriceRange("laptop", new BigDecimal("500"), new BigDecimal("2000"),
+                                                   null, 20, "newest");
+    }
+
+    private static CursorPage<ProductResponse> page() {
+        return CursorPage.<ProductResponse>builder()
+            .items(List.of(ProductResponse.builder().id(1L).name("ThinkPad X1").build()))
+            .size(1)
+            .build();
+    }
+}
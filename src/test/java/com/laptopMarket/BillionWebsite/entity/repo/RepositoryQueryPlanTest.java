@@ -0,0 +1,328 @@
+package com.laptopMarket.BillionWebsite.entity.repo;
+
+import com.laptopMarket.BillionWebsite.Config.Security.entity.AdminRefreshTokenRepo;
+import com.laptopMarket.BillionWebsite.Config.Security.entity.RefreshTokenRepo;
+import com.laptopMarket.BillionWebsite.entity.ImageDeletionStatus;
+import com.laptopMarket.BillionWebsite.entity.MailStatus;
+import com.laptopMarket.BillionWebsite.entity.OrderStatus;
+import com.laptopMarket.BillionWebsite.entity.SenderType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against H2 with the Flyway schema and seeded
+ * tables, EXPLAINs the SQL Hibernate actually sent, and fails when a large
+ * table is read with a full scan. A new derived query without an index in
+ * db/migration shows up here.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.laptopMarket.BillionWebsite.entity.repo.RepositoryQueryPlanTest$CapturedSql"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    // Tables seeded with enough rows for a scan to matter
+    private static final Set<String> LARGE_TABLES = Set.of(
+        "PRODUCTS", "PRODUCT_IMAGES", "CUSTOMERS", "ORDERS", "ORDER_ITEMS",
+        "CART_ITEMS", "CHAT_ROOMS", "CHAT_MESSAGES", "REFRESH_TOKENS", "MAIL_OUTBOX",
+        "CHAT_NOTIFICATIONS", "IMAGE_DELETIONS");
+
+    // Queries that read a whole table by design, or need what H2 cannot do
+    private static final Map<String, String> EXPECTED_SCANS = Map.ofEntries(
+        Map.entry("Product.findByNameContainingIgnoreCase",
+            "substring LIKE '%x%'; customer search uses ProductSearchIndex"),
+        Map.entry("Product.searchByKeyword",
+            "substring LIKE '%x%'; customer search uses ProductSearchIndex"),
+        Map.entry("Product.countFacets", "aggregate over the whole filtered catalog"),
+        Map.entry("Product.findIndexRows", "search / suggest index rebuild reads the whole catalog"),
+        Map.entry("User.findByEmailContainingIgnoreCase", "admin substring search"),
+        Map.entry("User.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase", "admin substring search"),
+        Map.entry("Order.findAllByOrderByTotalAmountDesc", "unfiltered admin listing"),
+        Map.entry("OrderItem.findBestSellingProducts", "aggregate over all order items"));
+
+    /** Records every SQL statement Hibernate prepares. */
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepository products;
+    @Autowired private ProductImageRepository images;
+    @Autowired private CartItemRepository cartItems;
+    @Autowired private OrderRepository orders;
+    @Autowired private OrderItemRepository orderItems;
+    @Autowired private ChatRoomRepository chatRooms;
+    @Autowired private ChatMessageRepository chatMessages;
+    @Autowired private UserRepo users;
+    @Autowired private AdminRepo shopOwners;
+    @Autowired private RefreshTokenRepo refreshTokens;
+    @Autowired private AdminRefreshTokenRepo adminTokens;
+    @Autowired private MailOutboxRepository mailOutbox;
+    @Autowired private ChatNotificationRepository chatNotifications;
+    @Autowired private ImageDeletionRepository imageDeletions;
+
+    private static boolean seeded;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) return;
+        jdbc.execute("""
+            insert into shop_owner (id, email, name, role)
+            select random_uuid(), 'owner' || x || '@shop.test', 'Owner ' || x, 'ADMIN' from system_range(1, 20)""");
+        jdbc.execute("""
+            insert into customers (id, email, first_name, last_name, role, created_at)
+            select random_uuid(), 'user' || x || '@mail.test', 'First' || x, 'Last' || x, 'USER',
+                   dateadd('MINUTE', -x, current_timestamp)
+            from system_range(1, 3000)""");
+        jdbc.execute("""
+            insert into products (name, description, price, stock, category, brand, shop_owner_id, created_at, updated_at)
+            select 'Product ' || x, 'Description ' || x, 10 + mod(x * 37, 3000), mod(x, 5),
+                   'category' || mod(x, 25), 'Brand' || mod(x, 60), o.id,
+                   dateadd('MINUTE', -x, current_timestamp), current_timestamp
+            from system_range(1, 6000)
+            join (select id, row_number() over (order by id) - 1 n from shop_owner) o on o.n = mod(x, 20)""");
+        jdbc.execute("""
+            insert into product_images (product_id, display_order, image_public_id, image_url)
+            select p.id, r.x, 'img/' || p.id || '-' || r.x, 'https://img.test/' || p.id || '-' || r.x
+            from products p cross join system_range(0, 1) r""");
+        jdbc.execute("""
+            insert into orders (user_id, status, total_amount, delivery_address, created_at, updated_at)
+            select c.id, case mod(x, 5) when 0 then 'PENDING' when 1 then 'CONFIRMED' when 2 then 'SHIPPED'
+                                        when 3 then 'DELIVERED' else 'CANCELLED' end,
+                   mod(x * 13, 5000), 'Address ' || x, dateadd('HOUR', -x, current_timestamp), current_timestamp
+            from system_range(1, 9000)
+            join (select id, row_number() over (order by id) - 1 n from customers) c on c.n = mod(x, 3000)""");
+        jdbc.execute("""
+            insert into order_items (order_id, product_id, quantity, unit_price, subtotal)
+            select o.id, p.id, 1, p.price, p.price
+            from orders o
+            join products p on p.id = (select min(id) from products) + mod(o.id * 7 + r.x, 6000)
+            cross join system_range(0, 1) r""");
+        jdbc.execute("""
+            insert into cart_items (user_id, product_id, quantity, unit_price, subtotal, added_at)
+            select c.id, (select min(id) from products) + mod(c.n * 11, 6000), 1, 10, 10, current_timestamp
+            from (select id, row_number() over (order by id) - 1 n from customers) c""");
+        jdbc.execute("""
+            insert into chat_rooms (product_id, user_id, shop_owner_id, title, created_at)
+            select p.id, c.id, p.shop_owner_id, 'Room ' || c.n, dateadd('MINUTE', -c.n, current_timestamp)
+            from (select id, row_number() over (order by id) - 1 n from customers) c
+            join products p on p.id = (select min(id) from products) + c.n""");
+        jdbc.execute("""
+            insert into chat_messages (chat_room_id, content, sender_type, is_product_card, sent_at)
+            select r.id, 'Message ' || x, 'USER', false, dateadd('SECOND', x, r.created_at)
+            from chat_rooms r cross join system_range(1, 5)""");
+        jdbc.execute("""
+            insert into chat_notifications (chat_room_id, message_id, recipient_type, created_at)
+            select chat_room_id, id, 'ADMIN', sent_at from chat_messages""");
+        jdbc.execute("""
+            insert into refresh_tokens (user_id, token, expiry_date)
+            select id, 'token-' || id, dateadd('DAY', 7, current_timestamp) from customers""");
+        jdbc.execute("""
+            insert into mail_messages (subject, body, created_at)
+            select 'Subject ' || x, '<p>Body</p>', current_timestamp from system_range(1, 10)""");
+        jdbc.execute("""
+            insert into mail_outbox (message_id, recipient, status, attempts, next_attempt_at, created_at, sent_at)
+            select m.id, c.email, case when mod(c.n, 10) = 0 then 'PENDING' else 'SENT' end, 0,
+                   current_timestamp, current_timestamp, current_timestamp
+            from mail_messages m
+            cross join (select email, row_number() over (order by id) n from customers) c""");
+        jdbc.execute("""
+            insert into image_deletions (public_id, status, attempts, next_attempt_at, created_at)
+            select 'gone/' || x, case when mod(x, 100) = 0 then 'FAILED' else 'PENDING' end, 0,
+                   dateadd('MINUTE', x, current_timestamp), current_timestamp
+            from system_range(1, 5000)""");
+        jdbc.execute("analyze");
+        seeded = true;
+    }
+
+    @Test
+    void noRepositoryQueryScansALargeTable() {
+        UUID userId = jdbc.queryForObject("select id from customers order by id fetch first 1 row only", UUID.class);
+        UUID ownerId = jdbc.queryForObject("select id from shop_owner order by id fetch first 1 row only", UUID.class);
+        Long productId = jdbc.queryForObject("select min(id) from products", Long.class);
+        Long orderId = jdbc.queryForObject("select min(id) from orders", Long.class);
+        Long roomId = jdbc.queryForObject("select min(id) from chat_rooms", Long.class);
+
+        BigDecimal min = BigDecimal.valueOf(500), max = BigDecimal.valueOf(520);
+        LocalDateTime now = LocalDateTime.now();
+        ScrollPosition first = ScrollPosition.keyset();
+        Sort newest = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        Sort cheapest = Sort.by(Sort.Direction.ASC, "price", "id");
+        Limit page = Limit.of(20);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        // products
+        queries.put("Product.findByCategory",               () -> products.findByCategory("category3"));
+        queries.put("Product.findByBrand",                  () -> products.findByBrand("Brand7"));
+        queries.put("Product.findByNameContainingIgnoreCase", () -> products.findByNameContainingIgnoreCase("duct 12"));
+        queries.put("Product.findByAddedById",              () -> products.findByAddedById(ownerId));
+        queries.put("Product.searchByKeyword",              () -> products.searchByKeyword("duct 12"));
+        queries.put("Product.findAllBy",                    () -> products.findAllBy(first, newest, page));
+        queries.put("Product.findAllBy(price)",             () -> products.findAllBy(first, cheapest, page));
+        queries.put("Product.findByStockGreaterThan",       () -> products.findByStockGreaterThan(0, first, newest, page));
+        queries.put("Product.findByCategory(keyset)",       () -> products.findByCategory("category3", first, newest, page));
+        queries.put("Product.findByCategory(keyset,price)", () -> products.findByCategory("category3", first, cheapest, page));
+        queries.put("Product.findByBrandIgnoreCase",        () -> products.findByBrandIgnoreCase("brand7", first, newest, page));
+        queries.put("Product.findByNameContainingIgnoreCaseAndCategory",
+            () -> products.findByNameContainingIgnoreCaseAndCategory("duct", "category3", first, newest, page));
+        queries.put("Product.findByNameContainingIgnoreCaseAndBrandIgnoreCase",
+            () -> products.findByNameContainingIgnoreCaseAndBrandIgnoreCase("duct", "brand7", first, newest, page));
+        queries.put("Product.findByPriceBetween",           () -> products.findByPriceBetween(min, max, first, cheapest, page));
+        queries.put("Product.findByCategoryAndPriceBetween",
+            () -> products.findByCategoryAndPriceBetween("category3", min, max, first, cheapest, page));
+        queries.put("Product.findByIdIn",                   () -> products.findByIdIn(List.of(productId, productId + 1)));
+        queries.put("Product.findById",                     () -> products.findById(productId));
+        queries.put("Product.findAllCategories",            () -> products.findAllCategories());
+        queries.put("Product.findAllBrands",                () -> products.findAllBrands());
+        queries.put("Product.findIndexRows",                () -> products.findIndexRows());
+        queries.put("Product.countFacets",                  () -> products.countFacets(
+            (root, query, cb) -> cb.greaterThan(root.get("stock"), 0), List.of(min, max)));
+        queries.put("ProductImage.findByProductIdOrderByDisplayOrderAsc",
+            () -> images.findByProductIdOrderByDisplayOrderAsc(productId));
+        queries.put("ProductImage.existsByImagePublicIdAndIdNotIn",
+            () -> images.existsByImagePublicIdAndIdNotIn("img/" + productId + "-0", List.of(1L, 2L)));
+        queries.put("ProductImage.findUsedPublicIds",
+            () -> images.findUsedPublicIds(List.of("img/" + productId + "-0", "img/" + productId + "-1")));
+        // cart
+        queries.put("CartItem.findByUserId",                () -> cartItems.findByUserId(userId));
+        queries.put("CartItem.findByUserIdAndProductId",    () -> cartItems.findByUserIdAndProductId(userId, productId));
+        queries.put("CartItem.countByUserId",               () -> cartItems.countByUserId(userId));
+        // orders
+        queries.put("Order.findByUserIdOrderByCreatedAtDesc", () -> orders.findByUserIdOrderByCreatedAtDesc(userId));
+        queries.put("Order.countByUserId",                  () -> orders.countByUserId(userId));
+        queries.put("Order.findAllByOrderByCreatedAtDesc", () -> orders.findAllByOrderByCreatedAtDesc());
+        queries.put("Order.findAllByOrderByTotalAmountDesc", () -> orders.findAllByOrderByTotalAmountDesc());
+        queries.put("Order.findByStatusOrderByCreatedAtDesc",
+            () -> orders.findByStatusOrderByCreatedAtDesc(OrderStatus.SHIPPED));
+        queries.put("Order.findByCreatedAtBetweenOrderByCreatedAtDesc",
+            () -> orders.findByCreatedAtBetweenOrderByCreatedAtDesc(now.minusHours(12), now));
+        queries.put("OrderItem.findByOrderId",              () -> orderItems.findByOrderId(orderId));
+        queries.put("OrderItem.findByProductId",            () -> orderItems.findByProductId(productId));
+        queries.put("OrderItem.findByOrderUserId",          () -> orderItems.findByOrderUserId(userId));
+        queries.put("OrderItem.findByOrderUserIdAndProductId",
+            () -> orderItems.findByOrderUserIdAndProductId(userId, productId));
+        queries.put("OrderItem.findByOrderIdAndProductId",  () -> orderItems.findByOrderIdAndProductId(orderId, productId));
+        queries.put("OrderItem.countByProductId",           () -> orderItems.countByProductId(productId));
+        queries.put("OrderItem.getTotalQuantitySoldByProduct",
+            () -> orderItems.getTotalQuantitySoldByProduct(productId));
+        queries.put("OrderItem.findBestSellingProducts",    () -> orderItems.findBestSellingProducts());
+        // chat
+        queries.put("ChatMessage.findByChatRoomIdOrderBySentAtAsc",
+            () -> chatMessages.findByChatRoomIdOrderBySentAtAsc(roomId));
+        queries.put("ChatMessage.countByChatRoomId",        () -> chatMessages.countByChatRoomId(roomId));
+        queries.put("ChatRoom.findByUserIdOrderByCreatedAtDesc", () -> chatRooms.findByUserIdOrderByCreatedAtDesc(userId));
+        queries.put("ChatRoom.findByShopOwnerIdOrderByCreatedAtDesc",
+            () -> chatRooms.findByShopOwnerIdOrderByCreatedAtDesc(ownerId));
+        queries.put("ChatRoom.findByProductId",             () -> chatRooms.findByProductId(productId));
+        queries.put("ChatRoom.findByUserIdAndProductId",    () -> chatRooms.findByUserIdAndProductId(userId, productId));
+        queries.put("ChatRoom.findWithParticipantsById",    () -> chatRooms.findWithParticipantsById(roomId));
+        queries.put("ChatNotification.findQuietDigests",
+            () -> chatNotifications.findQuietDigests(now.minusMinutes(2), Limit.of(100)));
+        queries.put("ChatNotification.findDigest",
+            () -> chatNotifications.findDigest(roomId, SenderType.ADMIN, Long.MAX_VALUE));
+        // accounts
+        queries.put("User.findByEmail",                     () -> users.findByEmail("user42@mail.test"));
+        queries.put("User.existsByEmail",                   () -> users.existsByEmail("user42@mail.test"));
+        queries.put("User.findByEmailContainingIgnoreCase", () -> users.findByEmailContainingIgnoreCase("42@"));
+        queries.put("User.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase",
+            () -> users.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("st4", "st4"));
+        queries.put("User.findRecipientsBy",
+            () -> users.findRecipientsBy(ScrollPosition.keyset(), Sort.by("id"), Limit.of(500)));
+        queries.put("User.findRecipientsBy(next page)",
+            () -> users.findRecipientsBy(ScrollPosition.forward(Map.of("id", userId)), Sort.by("id"), Limit.of(500)));
+        queries.put("ShopOwner.findByEmail",                () -> shopOwners.findByEmail("owner3@shop.test"));
+        queries.put("RefreshToken.findByToken",             () -> refreshTokens.findByToken("token-x"));
+        queries.put("RefreshToken.findByUserId",            () -> refreshTokens.findByUserId(userId));
+        queries.put("RefreshToken.countActiveTokensByUserId",
+            () -> refreshTokens.countActiveTokensByUserId(userId, Instant.now()));
+        queries.put("RefreshToken.existsByTokenAndNotExpired",
+            () -> refreshTokens.existsByTokenAndNotExpired("token-x", Instant.now()));
+        queries.put("AdminRefreshToken.findByToken",        () -> adminTokens.findByToken("token-x"));
+        // mail outbox
+        queries.put("MailOutbox.findDueIds",
+            () -> mailOutbox.findDueIds(MailStatus.PENDING, now, Limit.of(50)));
+        queries.put("MailOutbox.findClaimed",               () -> mailOutbox.findClaimed("claim-x"));
+        queries.put("MailOutbox.countByStatus",             () -> mailOutbox.countByStatus(MailStatus.PENDING));
+        // image deletion queue
+        queries.put("ImageDeletion.findDueIds",
+            () -> imageDeletions.findDueIds(ImageDeletionStatus.PENDING, now, Limit.of(100)));
+        queries.put("ImageDeletion.findClaimed",            () -> imageDeletions.findClaimed("claim-x"));
+        queries.put("ImageDeletion.countByStatus",          () -> imageDeletions.countByStatus(ImageDeletionStatus.PENDING));
+
+        List<String> failures = new ArrayList<>();
+        List<String> staleExemptions = new ArrayList<>();
+
+        queries.forEach((name, query) -> {
+            CapturedSql.STATEMENTS.clear();
+            query.run();
+
+            Set<String> scanned = new TreeSet<>();
+            for (String sql : CapturedSql.STATEMENTS) {
+                scanned.addAll(scannedLargeTables(sql));
+            }
+
+            if (EXPECTED_SCANS.containsKey(name)) {
+                if (scanned.isEmpty()) staleExemptions.add(name);
+            } else if (!scanned.isEmpty()) {
+                failures.add(name + " scans " + scanned + "\n" + String.join("\n", CapturedSql.STATEMENTS));
+            }
+        });
+
+        assertThat(failures).as("queries doing full scans of large tables").isEmpty();
+        assertThat(staleExemptions).as("exempted queries that no longer scan — drop them from EXPECTED_SCANS").isEmpty();
+        assertThat(queries.keySet()).containsAll(EXPECTED_SCANS.keySet());
+    }
+
+    private Set<String> scannedLargeTables(String sql) {
+        Set<String> tables = new TreeSet<>();
+        String plan = jdbc.queryForObject("EXPLAIN " + sql, String.class);
+        Matcher m = TABLE_SCAN.matcher(plan);
+        while (m.find()) {
+            if (LARGE_TABLES.contains(m.group(1))) tables.add(m.group(1));
+        }
+        return tables;
+    }
+
+}
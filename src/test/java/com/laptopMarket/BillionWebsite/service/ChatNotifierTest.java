@@ -0,0 +1,188 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.Config.ChatPresence;
+import com.laptopMarket.BillionWebsite.dto.ChatRoomResponse;
+import com.laptopMarket.BillionWebsite.dto.SendMessageRequest;
+import com.laptopMarket.BillionWebsite.dto.StartChatRequest;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.SenderType;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatMessageRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatNotificationRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ChatRoomRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailMessageRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailOutboxRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:chat-notifier;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "chat.notify.quiet-seconds=60",
+    "chat.notify.digest-max-messages=2"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ChatService.class, ChatNotifier.class, ChatPresence.class, EmailService.class, MailOutbox.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // each message commits like a real request
+class ChatNotifierTest {
+
+    @MockitoBean private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired private ChatService chatService;
+    @Autowired private ChatNotifier chatNotifier;
+    @Autowired private ChatPresence presence;
+    @Autowired private ChatNotificationRepository notificationRepository;
+    @Autowired private ChatMessageRepository chatMessageRepository;
+    @Autowired private ChatRoomRepository chatRoomRepository;
+    @Autowired private MailOutboxRepository outboxRepository;
+    @Autowired private MailMessageRepository mailMessageRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepo userRepository;
+    @Autowired private AdminRepo adminRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User customer;
+    private ShopOwner owner;
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAllInBatch();
+        outboxRepository.deleteAllInBatch();
+        mailMessageRepository.deleteAllInBatch();
+        chatMessageRepository.deleteAllInBatch();
+        chatRoomRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        adminRepository.deleteAllInBatch();
+
+        owner = adminRepository.save(ShopOwner.builder().name("Grace").email("owner@shop.test").build());
+        customer = userRepository.save(User.builder().firstName("Ada").lastName("Lovelace").email("ada@mail.test").build());
+        Product product = productRepository.save(Product.builder()
+            .name("ThinkPad X1")
+            .price(BigDecimal.valueOf(1500))
+            .category("laptop")
+            .stock(3)
+            .addedBy(owner)
+            .build());
+
+        StartChatRequest start = new StartChatRequest();
+        start.setProductId(product.getId());
+        ChatRoomResponse room = chatService.startChat(customer.getId(), start);
+        roomId = room.getChatRoomId();
+    }
+
+    @Test
+    void burstOfMessagesBecomesOneDigestOnceTheRoomIsQuiet() {
+        fromCustomer("Is it still available?");
+        fromCustomer("Does it come with a charger?");
+        fromCustomer("<b>Any discount?</b>");
+
+        // Still active: nothing goes out
+        assertThat(chatNotifier.sendQuietDigests()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+
+        goQuiet();
+        assertThat(chatNotifier.sendQuietDigests()).isEqualTo(1);
+
+        assertThat(notificationRepository.count()).isZero();
+        assertThat(outboxRepository.findAll()).singleElement()
+            .satisfies(entry -> assertThat(entry.getRecipient()).isEqualTo("owner@shop.test"));
+
+        Map<String, Object> mail = jdbc.queryForMap("select subject, body from mail_messages");
+        assertThat((String) mail.get("subject")).contains("3 new messages from Ada Lovelace");
+        assertThat((String) mail.get("body"))
+            .doesNotContain("Is it still available?")          // only the latest two are quoted
+            .contains("1 earlier message", "Does it come with a charger?", "&lt;b&gt;Any discount?&lt;/b&gt;");
+
+        // Already sent: the next poll has nothing to do
+        assertThat(chatNotifier.sendQuietDigests()).isZero();
+    }
+
+    @Test
+    void digestIsDroppedWhileTheRecipientHasTheRoomOpen() {
+        presence.onSubscribe(new SessionSubscribeEvent(this,
+            stomp(StompCommand.SUBSCRIBE, "session-1", ChatPresence.destinationOf(SenderType.ADMIN, roomId))));
+        assertThat(presence.isWatching(SenderType.ADMIN, roomId)).isTrue();
+        assertThat(presence.isWatching(SenderType.USER, roomId)).isFalse();
+
+        fromCustomer("Hello?");
+        goQuiet();
+
+        assertThat(chatNotifier.sendQuietDigests()).isZero();
+        assertThat(notificationRepository.count()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+
+        presence.onDisconnect(new SessionDisconnectEvent(this,
+            stomp(StompCommand.DISCONNECT, "session-1", null), "session-1", CloseStatus.NORMAL));
+        assertThat(presence.isWatching(SenderType.ADMIN, roomId)).isFalse();
+    }
+
+    @Test
+    void replyingClearsWhatWasPendingForTheReplier() {
+        fromCustomer("Is it still available?");
+        fromCustomer("Hello?");
+
+        SendMessageRequest reply = new SendMessageRequest();
+        reply.setContent("Yes, two left");
+        chatService.adminSendMessage(owner.getId(), roomId, reply);
+
+        assertThat(notificationRepository.count()).isEqualTo(1);
+        assertThat(notificationRepository.findAll().getFirst().getRecipientType()).isEqualTo(SenderType.USER);
+
+        goQuiet();
+        assertThat(chatNotifier.sendQuietDigests()).isEqualTo(1);
+        assertThat(outboxRepository.findAll()).singleElement()
+            .satisfies(entry -> assertThat(entry.getRecipient()).isEqualTo("ada@mail.test"));
+        assertThat(jdbc.queryForObject("select subject from mail_messages", String.class))
+            .contains("Grace replied about \"ThinkPad X1\"");
+    }
+
+    private void fromCustomer(String content) {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setContent(content);
+        chatService.userSendMessage(customer.getId(), roomId, request);
+    }
+
+    private void goQuiet() {
+        jdbc.update("update chat_notifications set created_at = ?", LocalDateTime.now().minusMinutes(5));
+    }
+
+    private static Message<byte[]> stomp(StompCommand command, String sessionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        if (destination != null) accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
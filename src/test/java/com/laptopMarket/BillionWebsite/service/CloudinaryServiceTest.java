@@ -0,0 +1,361 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.laptopMarket.BillionWebsite.Config.CloudinaryConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Uploads against a local HTTP stub of the Cloudinary upload API
+ * (upload_prefix points the SDK at it).
+ */
+class CloudinaryServiceTest {
+
+    private static final int CONCURRENCY = 3;
+    private static final long STUB_LATENCY_MS = 150;
+
+    private HttpServer stub;
+    private ExecutorService uploadExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private CloudinaryService cloudinaryService;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger uploadCount = new AtomicInteger();
+    private final List<String> destroyed = new CopyOnWriteArrayList<>();
+    private final List<List<String>> bulkDeletes = new CopyOnWriteArrayList<>();
+    private final List<Integer> receivedSizes = new CopyOnWriteArrayList<>();
+    private final List<String> eagerParams = new CopyOnWriteArrayList<>();
+    private volatile String failName;
+    private final Map<String, Map> knownHashes = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/v1_1/demo/image/upload", this::upload);
+        stub.createContext("/v1_1/demo/image/destroy", this::destroy);
+        stub.createContext("/v1_1/demo/resources/image/upload", this::deleteResources);
+        stub.start();
+
+        Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+            "cloud_name", "demo",
+            "api_key", "key",
+            "api_secret", "secret",
+            "upload_prefix", "http://127.0.0.1:" + stub.getAddress().getPort()));
+
+        uploadExecutor = new CloudinaryConfig().imageUploadExecutor(CONCURRENCY, 64);
+        meterRegistry = new SimpleMeterRegistry();
+
+        cloudinaryService = new CloudinaryService();
+        ReflectionTestUtils.setField(cloudinaryService, "imageStore", new CloudinaryImageStore(cloudinary));
+        ReflectionTestUtils.setField(cloudinaryService, "uploadExecutor", uploadExecutor);
+        ReflectionTestUtils.setField(cloudinaryService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cloudinaryService, "uploadTimeoutSeconds", 30L);
+        ReflectionTestUtils.setField(cloudinaryService, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(cloudinaryService, "imageCompressor", new ImageCompressor(2048));
+        ReflectionTestUtils.setField(cloudinaryService, "imageHashIndex", hashIndex());
+        cloudinaryService.monitorUrlCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdownNow();
+        stub.stop(0);
+    }
+
+    @Test
+    void imagesAreUploadedInParallelUpToTheLimitAndKeepTheirOrder() throws Exception {
+        List<MultipartFile> files = images(7);
+
+        long start = System.nanoTime();
+        List<Map> results = cloudinaryService.uploadImages(files, "laptopstore/products");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).extracting(r -> r.get("public_id"))
+            .containsExactly("laptopstore/products/image-0", "laptopstore/products/image-1",
+                             "laptopstore/products/image-2", "laptopstore/products/image-3",
+                             "laptopstore/products/image-4", "laptopstore/products/image-5",
+                             "laptopstore/products/image-6");
+        assertThat(uploadCount).hasValue(7);                      // one request per image, no lookup first
+        assertThat(maxInFlight.get()).isEqualTo(CONCURRENCY);
+        assertThat(elapsedMs).isLessThan(7 * STUB_LATENCY_MS);   // 3 waves, not 7 round trips
+
+        assertThat(meterRegistry.get("images.upload").tag("outcome", "success").timer().count()).isEqualTo(7);
+    }
+
+    @Test
+    void samePhotoUploadedAgainIsAnsweredFromTheHashIndex() throws Exception {
+        Map first = cloudinaryService.uploadImage(unbuffered("IMG_0001.jpg", "image-7".getBytes()), "laptopstore/products");
+        Map again = cloudinaryService.uploadImage(unbuffered("copy.jpg", "image-7".getBytes()), "laptopstore/products");
+
+        assertThat(uploadCount).hasValue(1);
+        assertThat(again.get("public_id")).isEqualTo(first.get("public_id"));
+        assertThat(again).containsEntry(ImageHashIndex.DEDUPLICATED, true);
+
+        // Same filename, different photo: uploaded
+        cloudinaryService.uploadImage(unbuffered("IMG_0001.jpg", "image-8".getBytes()), "laptopstore/products");
+        assertThat(uploadCount).hasValue(2);
+    }
+
+    @Test
+    void failedBatchNeverDeletesAnImageItReused() throws Exception {
+        cloudinaryService.uploadImage(images(1).getFirst(), "laptopstore/products");   // image-0 is known
+        failName = "image-2";
+
+        assertThatThrownBy(() -> cloudinaryService.uploadImages(images(3), "laptopstore/products"))
+            .isInstanceOf(IOException.class);
+
+        assertThat(destroyed).containsExactly("laptopstore/products/image-1");
+        assertThat(knownHashes.values()).extracting(result -> result.get("public_id"))
+            .containsExactly("laptopstore/products/image-0");   // image-1's entry went with it
+    }
+
+    @Test
+    void everyUploadAsksForAllResponsiveVariants() throws Exception {
+        Map result = cloudinaryService.uploadImage(images(1).getFirst(), "laptopstore/products");
+
+        assertThat(eagerParams).singleElement().satisfies(eager -> assertThat(eager.split("\\|")).containsExactly(
+            "c_limit,q_auto,w_240/webp", "c_limit,q_auto,w_240/jpg",
+            "c_limit,q_auto,w_640/webp", "c_limit,q_auto,w_640/jpg",
+            "c_limit,q_auto,w_1280/webp", "c_limit,q_auto,w_1280/jpg"));
+
+        // Results come back tagged, so the product image knows which is which
+        assertThat((List<Map>) result.get("eager"))
+            .extracting(variant -> variant.get("variant") + "/" + variant.get("format"))
+            .containsExactly("THUMBNAIL/webp", "THUMBNAIL/jpg", "CARD/webp", "CARD/jpg", "DETAIL/webp", "DETAIL/jpg");
+    }
+
+    @Test
+    void queuedDeletionsGoOutAHundredPublicIdsPerCall() throws Exception {
+        List<String> publicIds = new ArrayList<>();
+        for (int i = 0; i < 150; i++) publicIds.add("laptopstore/products/image-" + i);
+        cloudinaryService.uploadImage(images(1).getFirst(), "laptopstore/products");   // image-0 is known
+
+        Map<String, String> results = cloudinaryService.deleteImages(publicIds);
+
+        assertThat(bulkDeletes).extracting(List::size).containsExactly(100, 50);
+        assertThat(results).hasSize(150)
+            .containsEntry("laptopstore/products/image-0", "ok")
+            .containsEntry("laptopstore/products/image-149", "not found");   // the stub never had it
+        assertThat(destroyed).isEmpty();
+        assertThat(knownHashes).isEmpty();
+    }
+
+    @Test
+    void deliveryUrlIsBuiltOnceAndTheUrlCacheIsReportedToMicrometer() {
+        String url = cloudinaryService.getOptimizedImageUrl("laptopstore/products/image-0");
+        assertThat(cloudinaryService.getOptimizedImageUrl("laptopstore/products/image-0")).isEqualTo(url);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "images.url").tag("result", "miss")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "images.url").tag("result", "hit")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "images.url").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void oneFailedUploadFailsTheBatchAndDeletesTheOthers() {
+        failName = "image-2";
+
+        assertThatThrownBy(() -> cloudinaryService.uploadImages(images(4), "laptopstore/products"))
+            .isInstanceOf(IOException.class);
+
+        assertThat(destroyed).containsExactlyInAnyOrder(
+            "laptopstore/products/image-0", "laptopstore/products/image-1", "laptopstore/products/image-3");
+        assertThat(meterRegistry.get("images.upload").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void largeImageIsCompressedOnDiskAndTheSpoolIsLeftEmpty() throws Exception {
+        byte[] png = noisyPng(700, 700);
+        assertThat(png.length).isGreaterThan(1024 * 1024);
+
+        cloudinaryService.uploadImage(unbuffered("photo.png", png), "laptopstore/products");
+
+        assertThat(receivedSizes).singleElement().satisfies(size ->
+            assertThat(size).isLessThanOrEqualTo(500 * 1024));
+        try (var left = Files.list(spoolDir)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    @Test
+    void spoolFileIsRemovedWhenTheUploadFails() throws Exception {
+        failName = "image-0";
+
+        assertThatThrownBy(() -> cloudinaryService.uploadImage(images(1).getFirst(), "laptopstore/products"))
+            .isInstanceOf(Exception.class);
+
+        try (var left = Files.list(spoolDir)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    // ── Stub endpoints ───────────────────────────────────────
+
+    private void upload(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        uploadCount.incrementAndGet();
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+            sleep();
+            String name = partAfter(body, "name=\"file\"");   // the test images hold their own name
+            receivedSizes.add(name.length());
+            if (body.contains("name=\"eager\"")) eagerParams.add(partAfter(body, "name=\"eager\""));
+            if (name.equals(failName)) {
+                respond(exchange, 500, "{\"error\":{\"message\":\"stub failure\"}}");
+                return;
+            }
+            String publicId = "laptopstore/products/" + (name.startsWith("image-") ? name : "photo");
+            String derived = "{\"width\":1,\"height\":1,\"bytes\":2,\"secure_url\":\"https://res.test/derived.jpg\"}";
+            respond(exchange, 200, """
+                {"public_id":"%s","secure_url":"https://res.test/%s.jpg","format":"jpg","bytes":3,"width":1,"height":1,
+                 "eager":[%s]}
+                """.formatted(publicId, publicId, String.join(",", Collections.nCopies(6, derived))));
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void destroy(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+        destroyed.add(partAfter(body, "name=\"public_id\""));
+        respond(exchange, 200, "{\"result\":\"ok\"}");
+    }
+
+    // Admin API delete_resources: a form POST with _method=delete and public_ids[]
+    private void deleteResources(HttpExchange exchange) throws IOException {
+        String form = URLDecoder.decode(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.US_ASCII),
+                                        StandardCharsets.UTF_8);
+        List<String> publicIds = Arrays.stream(form.split("&"))
+            .filter(param -> param.startsWith("public_ids[]="))
+            .map(param -> param.substring("public_ids[]=".length()))
+            .toList();
+        bulkDeletes.add(publicIds);
+
+        String deleted = publicIds.stream()
+            .map(id -> "\"" + id + "\":\"" + (id.endsWith("-149") ? "not_found" : "deleted") + "\"")
+            .collect(Collectors.joining(","));
+        respond(exchange, 200, "{\"deleted\":{" + deleted + "}}");
+    }
+
+    // Value of the multipart part whose headers contain the marker
+    private static String partAfter(String body, String marker) {
+        int start = body.indexOf("\r\n\r\n", body.indexOf(marker)) + 4;
+        return body.substring(start, body.indexOf("\r\n--", start));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(STUB_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<MultipartFile> images(int count) {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(unbuffered("image-" + i + ".jpg", ("image-" + i).getBytes(StandardCharsets.US_ASCII)));
+        }
+        return files;
+    }
+
+    // ImageHashIndex over a map instead of image_hashes
+    private ImageHashIndex hashIndex() {
+        ImageHashIndex index = mock(ImageHashIndex.class);
+        when(index.find(anyString())).thenAnswer(call -> Optional.ofNullable(knownHashes.get(call.<String>getArgument(0)))
+            .map(result -> {
+                Map copy = new HashMap<>(result);
+                copy.put(ImageHashIndex.DEDUPLICATED, true);
+                return copy;
+            }));
+        doAnswer(call -> knownHashes.putIfAbsent(call.getArgument(0), call.getArgument(1)))
+            .when(index).record(anyString(), any());
+        doAnswer(call -> knownHashes.values().removeIf(result -> result.get("public_id").equals(call.getArgument(0))))
+            .when(index).forget(anyString());
+        doAnswer(call -> knownHashes.values().removeIf(result -> call.<Collection<String>>getArgument(0).contains(result.get("public_id"))))
+            .when(index).forgetAll(any());
+        return index;
+    }
+
+    // A part that fails the test if anything reads it into a byte[]
+    private static MultipartFile unbuffered(String filename, byte[] content) {
+        return new MockMultipartFile("images", filename, "image/jpeg", content) {
+            @Override
+            public byte[] getBytes() {
+                throw new AssertionError("image buffered in heap");
+            }
+        };
+    }
+
+    private static byte[] noisyPng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+}
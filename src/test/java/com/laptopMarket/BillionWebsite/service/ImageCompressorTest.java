@@ -0,0 +1,132 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageCompressorTest {
+
+    private static final long BUDGET = 500 * 1024;
+
+    private final ImageCompressor compressor = new ImageCompressor(1024);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void largePhotoIsDecodedSmallAndFitsTheBudgetInAFewEncodes() throws IOException {
+        Path source = write(photo(3000, 2000, 42), "png", "photo.png");
+        Path target = dir.resolve("out.jpg");
+
+        ImageCompressor.Result result = compressor.compress(source, target, BUDGET);
+
+        assertThat(Math.max(result.width(), result.height())).isLessThanOrEqualTo(1024);
+        assertThat(Files.size(target)).isEqualTo(result.bytes()).isLessThanOrEqualTo(BUDGET);
+        assertThat(result.encodes()).isLessThanOrEqualTo(6);   // linear 0.1 steps could take 9
+        assertThat(ImageIO.read(target.toFile())).isNotNull();
+    }
+
+    @Test
+    void imageThatFitsAtTopQualityTakesOneEncode() throws IOException {
+        Path source = write(flat(800, 600), "png", "flat.png");
+
+        ImageCompressor.Result result = compressor.compress(source, dir.resolve("out.jpg"), BUDGET);
+
+        assertThat(result.encodes()).isEqualTo(1);
+        assertThat(result.quality()).isEqualTo(0.85f);
+    }
+
+    @Test
+    void noiseThatNeverFitsIsDownscaledUntilItDoes() throws IOException {
+        Path source = write(noise(1024, 1024), "png", "noise.png");
+
+        ImageCompressor.Result result = compressor.compress(source, dir.resolve("out.jpg"), 40 * 1024);
+
+        assertThat(result.width()).isLessThan(1024);
+        assertThat(result.bytes()).isLessThanOrEqualTo(40 * 1024);
+    }
+
+    @Test
+    void transparentPngBecomesAnOpaqueJpeg() throws IOException {
+        BufferedImage argb = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        Path target = dir.resolve("out.jpg");
+
+        compressor.compress(write(argb, "png", "clear.png"), target, BUDGET);
+
+        BufferedImage jpeg = ImageIO.read(target.toFile());
+        assertThat(jpeg.getColorModel().hasAlpha()).isFalse();
+        assertThat(jpeg.getRGB(200, 150) & 0xFFFFFF).isGreaterThan(0xF0F0F0);   // white, not black
+    }
+
+    @Test
+    void somethingThatIsNotAnImageIsLeftAlone() throws IOException {
+        Path source = Files.writeString(dir.resolve("notes.jpg"), "not an image");
+
+        assertThat(compressor.compress(source, dir.resolve("out.jpg"), BUDGET)).isNull();
+    }
+
+    // ── Fixtures ─────────────────────────────────────────────
+
+    /** Gradients, shapes and sensor-like noise: compresses like a product photo, not like flat colour. */
+    static BufferedImage photo(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(40, 60, 90), width, height, new Color(220, 220, 230)));
+        g.fillRect(0, 0, width, height);
+        Random random = new Random(seed);
+        for (int i = 0; i < 60; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillRoundRect(random.nextInt(width), random.nextInt(height),
+                            width / 6, height / 8, 40, 40);
+        }
+        g.dispose();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int grain = random.nextInt(25) - 12;
+                image.setRGB(x, y, shift(rgb, 16, grain) | shift(rgb, 8, grain) | shift(rgb, 0, grain));
+            }
+        }
+        return image;
+    }
+
+    private static int shift(int rgb, int offset, int delta) {
+        int channel = Math.clamp(((rgb >> offset) & 0xFF) + delta, 0, 255);
+        return channel << offset;
+    }
+
+    private static BufferedImage flat(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage noise(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return image;
+    }
+
+    private Path write(BufferedImage image, String format, String name) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(image, format, file.toFile());
+        return file;
+    }
+}
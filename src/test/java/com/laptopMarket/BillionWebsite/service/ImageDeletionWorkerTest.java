@@ -0,0 +1,274 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.ProductRequest;
+import com.laptopMarket.BillionWebsite.entity.ImageDeletion;
+import com.laptopMarket.BillionWebsite.entity.ImageDeletionStatus;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.ProductImage;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.ImageDeletionRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ImageHashRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductImageRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:image-deletions;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "images.delete.batch-size=3",
+    "images.delete.max-attempts=2",
+    "images.delete.backoff-initial-ms=60000"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ImageDeletionQueue.class, ImageDeletionWorker.class, ImageHashIndex.class, AdminProductService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // the worker thread must see committed rows
+class ImageDeletionWorkerTest {
+
+    @MockitoBean private CloudinaryService cloudinaryService;
+    @MockitoBean private EmailService emailService;
+
+    @Autowired private ImageDeletionQueue queue;
+    @Autowired private ImageDeletionWorker worker;
+    @Autowired private ImageHashIndex hashIndex;
+    @Autowired private AdminProductService adminProductService;
+    @Autowired private ImageDeletionRepository deletionRepository;
+    @Autowired private ImageHashRepository hashRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductImageRepository productImageRepository;
+    @Autowired private AdminRepo adminRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deletionRepository.deleteAllInBatch();
+        hashRepository.deleteAllInBatch();
+        productImageRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        adminRepository.deleteAllInBatch();
+
+        // The store deletes whatever it is asked to
+        when(cloudinaryService.deleteImages(anyCollection())).thenAnswer(call -> call.<Collection<String>>getArgument(0)
+            .stream().collect(Collectors.toMap(publicId -> publicId, publicId -> "ok")));
+    }
+
+    @Test
+    void removingAProductQueuesItsImagesAndTouchesNoStore() {
+        Product product = product("ThinkPad X1", "laptopstore/products/a", "laptopstore/products/shared");
+        product("ThinkPad X13", "laptopstore/products/shared");   // deduplicated onto the same asset
+        hashIndex.record("a".repeat(64), Map.of("public_id", "laptopstore/products/a"));
+
+        adminProductService.removeProduct(product.getId());
+
+        verifyNoInteractions(cloudinaryService);
+        assertThat(deletionRepository.findAll()).extracting(ImageDeletion::getPublicId)
+            .containsExactly("laptopstore/products/a");
+        assertThat(hashIndex.find("a".repeat(64))).isEmpty();   // no upload is deduplicated onto it any more
+    }
+
+    @Test
+    void productThatFailsToSaveLeavesNoRowAndQueuesOnlyItsOwnUploads() throws Exception {
+        product("ThinkPad X13", "laptopstore/products/shared");
+        ShopOwner admin = adminRepository.save(ShopOwner.builder().name("Ada").email("ada@shop.test").build());
+        when(cloudinaryService.uploadImages(anyList(), anyString())).thenReturn(List.of(
+            Map.of("public_id", "laptopstore/products/new", "secure_url", "https://img.test/new"),
+            Map.of("public_id", "laptopstore/products/shared", "secure_url", "https://img.test/shared",
+                   ImageHashIndex.DEDUPLICATED, true)));
+        doThrow(new IllegalStateException("outbox unavailable"))
+            .when(emailService).announceNewProductToAllUsers(any(), any());
+
+        ProductRequest request = new ProductRequest();
+        request.setName("ThinkPad X1");
+        request.setPrice(BigDecimal.valueOf(1500));
+        request.setCategory("Laptop");
+        request.setStock(3);
+        List<MultipartFile> images = List.of(new MockMultipartFile("images", "a.jpg", "image/jpeg", new byte[] {1}),
+                                             new MockMultipartFile("images", "b.jpg", "image/jpeg", new byte[] {2}));
+
+        assertThatThrownBy(() -> adminProductService.addProduct(request, images, admin.getId()))
+            .hasMessage("outbox unavailable");
+
+        // Nothing committed, so a retry does not add the product twice
+        assertThat(productRepository.findAll()).extracting(Product::getName).containsExactly("ThinkPad X13");
+        assertThat(deletionRepository.findAll()).extracting(ImageDeletion::getPublicId)
+            .containsExactly("laptopstore/products/new");
+    }
+
+    @Test
+    void editThatFailsToSaveKeepsTheOldImagesAndQueuesOnlyItsOwnUploads() throws Exception {
+        Product product = product("ThinkPad X1", "laptopstore/products/old");
+        Long oldImageId = productImageRepository.findAll().getFirst().getId();
+        when(cloudinaryService.uploadImages(anyList(), anyString())).thenReturn(List.of(
+            Map.of("public_id", "laptopstore/products/new", "secure_url", "https://img.test/new")));
+
+        ProductRequest request = new ProductRequest();
+        request.setName("ThinkPad X1 Carbon");
+        request.setPrice(null);   // rejected when the edit is flushed
+        request.setCategory("Laptop");
+        request.setStock(3);
+        List<MultipartFile> images = List.of(new MockMultipartFile("images", "a.jpg", "image/jpeg", new byte[] {1}));
+
+        assertThatThrownBy(() -> adminProductService.updateProduct(
+            product.getId(), request, images, List.of(oldImageId), null))
+            .hasMessageContaining("Price is required");
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("ThinkPad X1");
+        assertThat(productImageRepository.findAll()).extracting(ProductImage::getImagePublicId)
+            .containsExactly("laptopstore/products/old");
+        assertThat(deletionRepository.findAll()).extracting(ImageDeletion::getPublicId)
+            .containsExactly("laptopstore/products/new");
+    }
+
+    @Test
+    void replacingImagesKeepsAnOldAssetTheNewUploadWasDeduplicatedOnto() throws Exception {
+        Product product = product("ThinkPad X1", "laptopstore/products/a", "laptopstore/products/b");
+        when(cloudinaryService.uploadImages(anyList(), anyString())).thenReturn(List.of(
+            Map.of("public_id", "laptopstore/products/b", "secure_url", "https://img.test/b",
+                   ImageHashIndex.DEDUPLICATED, true)));
+
+        adminProductService.replaceAllImages(product.getId(),
+            List.of(new MockMultipartFile("images", "b.jpg", "image/jpeg", new byte[] {2})));
+
+        assertThat(productImageRepository.findAll()).extracting(ProductImage::getImagePublicId)
+            .containsExactly("laptopstore/products/b");
+        assertThat(deletionRepository.findAll()).extracting(ImageDeletion::getPublicId)
+            .containsExactly("laptopstore/products/a");
+    }
+
+    @Test
+    void queuedImagesAreDeletedOneStoreCallPerBatch() throws Exception {
+        queue.enqueue(List.of("p/1", "p/2", "p/3", "p/4", "p/5"));
+
+        drain();
+
+        verify(cloudinaryService).deleteImages(List.of("p/1", "p/2", "p/3"));
+        verify(cloudinaryService).deleteImages(List.of("p/4", "p/5"));
+        assertThat(deletionRepository.count()).isZero();
+    }
+
+    @Test
+    void failedDeletionIsRetriedAfterBackoffThenDeadLettered() throws Exception {
+        when(cloudinaryService.deleteImages(anyCollection())).thenThrow(new IOException("Cloudinary is down"));
+        queue.enqueue(List.of("p/1"));
+
+        drain();
+        ImageDeletion afterFirst = deletionRepository.findAll().getFirst();
+        assertThat(afterFirst.getStatus()).isEqualTo(ImageDeletionStatus.PENDING);
+        assertThat(afterFirst.getAttempts()).isEqualTo(1);
+        assertThat(afterFirst.getLastError()).isEqualTo("Cloudinary is down");
+        assertThat(afterFirst.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(50));
+
+        // Not due yet: the next poll leaves it alone
+        clearInvocations(cloudinaryService);
+        drain();
+        verify(cloudinaryService, never()).deleteImages(any());
+
+        jdbc.update("update image_deletions set next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        drain();
+        ImageDeletion afterSecond = deletionRepository.findAll().getFirst();
+        assertThat(afterSecond.getStatus()).isEqualTo(ImageDeletionStatus.FAILED);
+        assertThat(afterSecond.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void onlyTheImagesTheStoreDidNotDeleteAreRetried() throws Exception {
+        when(cloudinaryService.deleteImages(anyCollection()))
+            .thenReturn(Map.of("p/1", "ok", "p/2", "not found", "p/3", "rate limited"));
+        queue.enqueue(List.of("p/1", "p/2", "p/3"));
+
+        drain();
+
+        assertThat(deletionRepository.findAll()).singleElement().satisfies(deletion -> {
+            assertThat(deletion.getPublicId()).isEqualTo("p/3");
+            assertThat(deletion.getLastError()).contains("rate limited");
+        });
+    }
+
+    @Test
+    void imageUsedAgainAfterItWasQueuedIsKept() throws Exception {
+        queue.enqueue(List.of("laptopstore/products/a", "laptopstore/products/b"));
+        product("ThinkPad X1", "laptopstore/products/a");   // an upload raced the deletion
+
+        drain();
+
+        verify(cloudinaryService).deleteImages(List.of("laptopstore/products/b"));
+        assertThat(deletionRepository.count()).isZero();
+    }
+
+    @Test
+    void claimAbandonedByACrashedWorkerIsDeletedAgain() throws Exception {
+        queue.enqueue(List.of("p/1"));
+        assertThat(queue.claimDue(10)).hasSize(1);   // claimed, never reported back
+        assertThat(queue.claimDue(10)).isEmpty();
+
+        jdbc.update("update image_deletions set claimed_at = ?", LocalDateTime.now().minusHours(1));
+        drain();
+
+        verify(cloudinaryService, times(1)).deleteImages(List.of("p/1"));
+        assertThat(deletionRepository.count()).isZero();
+    }
+
+    private void drain() throws InterruptedException {
+        worker.poll();
+        assertThat(worker.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+
+    private Product product(String name, String... publicIds) {
+        ShopOwner owner = adminRepository.save(ShopOwner.builder()
+            .name("Grace").email(name.replace(' ', '-') + "@shop.test").build());
+        Product product = productRepository.save(Product.builder()
+            .name(name)
+            .price(BigDecimal.valueOf(1500))
+            .category("laptop")
+            .stock(3)
+            .addedBy(owner)
+            .build());
+        for (int order = 0; order < publicIds.length; order++) {
+            productImageRepository.save(ProductImage.builder()
+                .imageUrl("https://img.test/" + publicIds[order])
+                .imagePublicId(publicIds[order])
+                .displayOrder(order)
+                .product(product)
+                .build());
+        }
+        return product;
+    }
+}
@@ -0,0 +1,99 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.repo.ImageHashRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:image-hashes;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ImageHashIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // record() commits like it does on an upload thread
+class ImageHashIndexTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Autowired private ImageHashIndex index;
+    @Autowired private ImageHashRepository repository;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void storedUploadResultComesBackWithItsVariants() {
+        index.record(HASH, upload("laptopstore/products/abc"));
+
+        Map found = index.find(HASH).orElseThrow();
+
+        assertThat(found)
+            .containsEntry("public_id", "laptopstore/products/abc")
+            .containsEntry("width", 4000)
+            .containsEntry(ImageHashIndex.DEDUPLICATED, true);
+        assertThat((List<Map>) found.get("eager")).singleElement()
+            .satisfies(variant -> assertThat(variant).containsEntry("secure_url", "https://res.test/abc-240.webp"));
+        assertThat(index.find("b".repeat(64))).isEmpty();
+    }
+
+    @Test
+    void secondRecordOfTheSameBytesKeepsTheFirst() {
+        index.record(HASH, upload("laptopstore/products/first"));
+        index.record(HASH, upload("laptopstore/products/second"));
+
+        assertThat(index.find(HASH).orElseThrow()).containsEntry("public_id", "laptopstore/products/first");
+    }
+
+    @Test
+    void deletedImageIsForgotten() {
+        index.record(HASH, upload("laptopstore/products/abc"));
+
+        index.forget("laptopstore/products/abc");
+
+        assertThat(index.find(HASH)).isEmpty();
+    }
+
+    @Test
+    void hashDependsOnContentOnly() throws IOException {
+        Path one = Files.write(dir.resolve("IMG_0001.jpg"), new byte[] {1, 2, 3});
+        Path other = Files.write(dir.resolve("other.jpg"), new byte[] {1, 2, 3});
+        Path sameName = Files.write(Files.createDirectory(dir.resolve("b")).resolve("IMG_0001.jpg"), new byte[] {4});
+
+        assertThat(ImageHashIndex.sha256(one))
+            .isEqualTo(ImageHashIndex.sha256(other))
+            .isNotEqualTo(ImageHashIndex.sha256(sameName))
+            .isEqualTo("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81");
+    }
+
+    private static Map<String, Object> upload(String publicId) {
+        return Map.of(
+            "public_id", publicId,
+            "secure_url", "https://res.test/" + publicId + ".jpg",
+            "width", 4000,
+            "eager", List.of(Map.of("width", 240, "secure_url", "https://res.test/abc-240.webp")));
+    }
+}
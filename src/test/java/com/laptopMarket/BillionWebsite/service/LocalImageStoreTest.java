@@ -0,0 +1,87 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalImageStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private Path uploads;
+    private LocalImageStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = dir.resolve("images");
+        uploads = Files.createDirectory(dir.resolve("uploads"));
+        store = new LocalImageStore(root, "https://shop.test/images/");
+        root = root.toRealPath();
+    }
+
+    @Test
+    void uploadKeepsTheOriginalAndWritesEveryVariant() throws IOException {
+        Path photo = uploads.resolve("photo.png");
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_ARGB), "png", photo.toFile());
+
+        Map result = store.upload(photo, "laptopstore/products");
+
+        String publicId = (String) result.get("public_id");
+        assertThat(publicId).startsWith("laptopstore/products/");
+        assertThat(result).containsEntry("format", "png").containsEntry("width", 1000).containsEntry("height", 500);
+        assertThat(result.get("secure_url")).isEqualTo("https://shop.test/images/" + publicId + "/original.png");
+        assertThat(store.deliveryUrl(publicId)).isEqualTo(result.get("secure_url"));
+        assertThat(Files.exists(photo)).isTrue();   // the caller's file is left alone
+
+        assertThat((List<Map>) result.get("eager"))
+            .extracting(v -> v.get("variant") + " " + v.get("format") + " " + v.get("width") + "x" + v.get("height"))
+            .containsExactly("THUMBNAIL jpg 240x120", "CARD jpg 640x320", "DETAIL jpg 1000x500");   // never upscaled
+        assertThat(store.resolve(publicId + "/card.jpg")).hasValueSatisfying(card ->
+            assertThat(card).hasParent(root.resolve(publicId)));
+    }
+
+    @Test
+    void deleteRemovesTheImageAndAllItsVariants() throws IOException {
+        Path photo = uploads.resolve("photo.jpg");
+        ImageIO.write(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "jpg", photo.toFile());
+        String publicId = (String) store.upload(photo, "laptopstore/products").get("public_id");
+
+        assertThat(store.delete(publicId)).containsEntry("result", "ok");
+
+        assertThat(root.resolve(publicId)).doesNotExist();
+        assertThat(store.resolve(publicId + "/original.jpg")).isEmpty();
+        assertThat(store.delete(publicId)).containsEntry("result", "not found");
+    }
+
+    @Test
+    void nothingOutsideTheRootIsReachable() throws IOException {
+        Files.writeString(dir.resolve("secret.txt"), "no");
+
+        assertThat(store.resolve("../secret.txt")).isEmpty();
+        assertThat(store.resolve("laptopstore/../../secret.txt")).isEmpty();
+        assertThatThrownBy(() -> store.delete("..")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void somethingThatIsNotAnImageIsRejected() throws IOException {
+        Path notes = Files.writeString(uploads.resolve("notes.jpg"), "not an image");
+
+        assertThatThrownBy(() -> store.upload(notes, "laptopstore/products")).isInstanceOf(IOException.class);
+        try (var stored = Files.list(root)) {
+            assertThat(stored).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.laptopMarket.BillionWebsite.entity.MailOutboxEntry;
+import com.laptopMarket.BillionWebsite.entity.MailStatus;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.MailBroadcastRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailMessageRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.MailOutboxRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:mail-outbox;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.mail.username=shop@billions.test",
+    "mail.outbox.batch-size=3",
+    "mail.outbox.concurrency=2",
+    "mail.outbox.rate-per-second=1000",
+    "mail.outbox.max-attempts=2",
+    "mail.outbox.backoff-initial-ms=60000"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MailOutbox.class, MailDispatcher.class, EmailService.class, MailDispatcherTest.LocalSmtp.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // sender threads must see committed rows
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TestConfiguration
+    static class LocalSmtp {
+        @Bean
+        JavaMailSenderImpl mailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return spy(sender);
+        }
+    }
+
+    @Autowired private EmailService emailService;
+    @Autowired private MailOutbox mailOutbox;
+    @Autowired private MailDispatcher dispatcher;
+    @Autowired private MailOutboxRepository outboxRepository;
+    @Autowired private MailMessageRepository messageRepository;
+    @Autowired private MailBroadcastRepository broadcastRepository;
+    @Autowired private JavaMailSenderImpl mailSender;
+    @Autowired private UserRepo userRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAllInBatch();
+        broadcastRepository.deleteAllInBatch();
+        messageRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        clearInvocations(mailSender);
+    }
+
+    @Test
+    void announcementIsQueuedThenSentInBatchesOverOneConnectionEach() throws Exception {
+        customers(7);
+
+        emailService.announceNewProductToAllUsers(product(), "Best Laptops");
+
+        // Queued once as a broadcast, recipients not expanded, nothing sent
+        assertThat(messageRepository.count()).isEqualTo(1);
+        assertThat(broadcastRepository.count()).isEqualTo(1);
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+
+        drain();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(7);
+        for (MimeMessage message : received) {
+            assertThat(message.getRecipients(Message.RecipientType.TO)).hasSize(1);   // nobody sees the others
+            assertThat(message.getRecipients(Message.RecipientType.TO)[0].toString()).startsWith("Customer");
+            assertThat(message.getSubject()).contains("ThinkPad X1");
+        }
+        assertThat(outboxRepository.countByStatus(MailStatus.SENT)).isEqualTo(7);
+        assertThat(broadcastRepository.count()).isZero();
+        verify(mailSender, times(3)).send(any(MimeMessage[].class));   // 3 + 3 + 1
+    }
+
+    @Test
+    void announcementReachesEveryCustomerAcrossRecipientPages() {
+        int customers = MailOutbox.RECIPIENT_PAGE_SIZE * 2 + 17;
+        customers(customers);
+
+        emailService.announceNewProductToAllUsers(product(), "Best Laptops");
+
+        // One page of customers per call, then the broadcast is gone
+        assertThat(mailOutbox.expandBroadcast()).isTrue();
+        assertThat(outboxRepository.count()).isEqualTo(MailOutbox.RECIPIENT_PAGE_SIZE);
+        assertThat(mailOutbox.expandBroadcast()).isTrue();
+        assertThat(mailOutbox.expandBroadcast()).isTrue();
+        assertThat(mailOutbox.expandBroadcast()).isFalse();
+
+        assertThat(broadcastRepository.count()).isZero();
+        assertThat(messageRepository.count()).isEqualTo(1);
+        assertThat(outboxRepository.countByStatus(MailStatus.PENDING)).isEqualTo(customers);
+        assertThat(jdbc.queryForObject("select count(distinct recipient) from mail_outbox", Long.class))
+            .isEqualTo(customers);
+    }
+
+    @Test
+    void noCustomersMeansNothingIsQueued() {
+        emailService.announceNewProductToAllUsers(product(), "Best Laptops");
+        assertThat(mailOutbox.expandBroadcast()).isTrue();
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(broadcastRepository.count()).isZero();
+        assertThat(messageRepository.count()).isZero();
+    }
+
+    @Test
+    void failedAttemptIsRetriedAfterBackoffThenGivenUp() throws Exception {
+        mailOutbox.enqueue("Hello", "<p>Hi</p>", List.of("ada@mail.test"));
+        smtp.stop();
+
+        drain();
+        MailOutboxEntry afterFirst = outboxRepository.findAll().getFirst();
+        assertThat(afterFirst.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(afterFirst.getAttempts()).isEqualTo(1);
+        assertThat(afterFirst.getLastError()).isNotBlank();
+        assertThat(afterFirst.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(50));
+
+        // Not due yet: the next poll leaves it alone
+        clearInvocations(mailSender);
+        drain();
+        verify(mailSender, times(0)).send(any(MimeMessage[].class));
+
+        jdbc.update("update mail_outbox set next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        drain();
+        MailOutboxEntry afterSecond = outboxRepository.findAll().getFirst();
+        assertThat(afterSecond.getStatus()).isEqualTo(MailStatus.FAILED);
+        assertThat(afterSecond.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void claimAbandonedByACrashedDispatcherIsSentAgain() throws Exception {
+        mailOutbox.enqueue("Hello", "<p>Hi</p>", List.of("ada@mail.test"));
+        assertThat(mailOutbox.claimDue(10)).hasSize(1);   // claimed, never reported back
+        assertThat(mailOutbox.claimDue(10)).isEmpty();
+
+        jdbc.update("update mail_outbox set claimed_at = ?", LocalDateTime.now().minusHours(1));
+        drain();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(1);
+        assertThat(outboxRepository.countByStatus(MailStatus.SENT)).isEqualTo(1);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertThat(mailOutbox.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(mailOutbox.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(mailOutbox.backoff(4)).isEqualTo(Duration.ofMinutes(8));
+        assertThat(mailOutbox.backoff(40)).isEqualTo(Duration.ofHours(1));
+    }
+
+    /** A few polls, each waiting for its batches — enough to empty the outbox of whatever is due. */
+    private void drain() throws InterruptedException {
+        for (int poll = 0; poll < 4; poll++) {
+            dispatcher.dispatch();
+            assertThat(dispatcher.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        }
+    }
+
+    private void customers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().firstName("Customer").lastName(String.valueOf(i)).email("user" + i + "@mail.test").build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    private static Product product() {
+        return Product.builder()
+            .id(1L)
+            .name("ThinkPad X1")
+            .price(BigDecimal.valueOf(1500))
+            .category("laptop")
+            .brand("Lenovo")
+            .stock(3)
+            .build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.PlaceOrderRequest;
+import com.laptopMarket.BillionWebsite.entity.CartItem;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.User;
+import com.laptopMarket.BillionWebsite.entity.repo.AdminRepo;
+import com.laptopMarket.BillionWebsite.entity.repo.CartItemRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.OrderItemRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.OrderRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:order-stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.hikari.maximum-pool-size=32",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderService.class, CartService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // every checkout commits on its own
+@RecordApplicationEvents
+class OrderServiceStockTest {
+
+    private static final int STOCK = 100;
+    private static final int BUYERS = 300;
+    private static final int THREADS = 32;
+    private static final Duration MAX_CHECKOUT_TIME = Duration.ofSeconds(5);
+
+    @Autowired private OrderService orderService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepo userRepository;
+    @Autowired private AdminRepo adminRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private ApplicationEvents events;
+
+    private ShopOwner owner;
+
+    @BeforeEach
+    void setUp() {
+        orderItemRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        cartItemRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        adminRepository.deleteAllInBatch();
+
+        owner = adminRepository.save(ShopOwner.builder().name("Owner").email("owner@shop.test").build());
+    }
+
+    @Test
+    void parallelCheckoutsOnOneSkuNeverOversell() throws Exception {
+        Product sku = product("Last units", STOCK);
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            User buyer = user("buyer" + i);
+            addToCart(buyer, sku, 1);
+            buyers.add(buyer);
+        }
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Long> checkoutNanos = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> checkouts = new ArrayList<>();
+            for (User buyer : buyers) {
+                checkouts.add(pool.submit(() -> {
+                    start.await();
+                    long began = System.nanoTime();
+                    try {
+                        orderService.placeOrder(buyer.getId(), address());
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessage("Insufficient stock for: Last units");
+                        soldOut.incrementAndGet();
+                    }
+                    return System.nanoTime() - began;
+                }));
+            }
+
+            start.countDown();
+            for (Future<Long> checkout : checkouts) {
+                checkoutNanos.add(checkout.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(placed.get()).isEqualTo(STOCK);
+        assertThat(soldOut.get()).isEqualTo(BUYERS - STOCK);
+        assertThat(productRepository.findById(sku.getId()).orElseThrow().getStock()).isZero();
+        assertThat(orderRepository.count()).isEqualTo(STOCK);
+        assertThat(orderItemRepository.getTotalQuantitySoldByProduct(sku.getId())).isEqualTo(STOCK);
+        assertThat(cartItemRepository.count()).isEqualTo(BUYERS - STOCK);   // losers keep their cart
+
+        long slowest = checkoutNanos.stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(Duration.ofNanos(slowest)).isLessThan(MAX_CHECKOUT_TIME);
+    }
+
+    @Test
+    void lineThatDoesNotFitRollsBackTheWholeOrder() {
+        Product inStock = product("Laptop", 5);
+        Product empty = product("Mouse", 0);
+        User buyer = user("buyer");
+        addToCart(buyer, inStock, 2);
+        addToCart(buyer, empty, 1);
+
+        assertThatThrownBy(() -> orderService.placeOrder(buyer.getId(), address()))
+            .hasMessage("Insufficient stock for: Mouse");
+
+        assertThat(productRepository.findById(inStock.getId()).orElseThrow().getStock()).isEqualTo(5);
+        assertThat(orderRepository.count()).isZero();
+        assertThat(cartItemRepository.countByUserId(buyer.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void placedOrderTakesEachLineOffStock() {
+        Product laptop = product("Laptop", 5);
+        Product mouse = product("Mouse", 3);
+        User buyer = user("buyer");
+        addToCart(buyer, laptop, 2);
+        addToCart(buyer, mouse, 3);
+
+        orderService.placeOrder(buyer.getId(), address());
+
+        assertThat(productRepository.findById(laptop.getId()).orElseThrow().getStock()).isEqualTo(3);
+        assertThat(productRepository.findById(mouse.getId()).orElseThrow().getStock()).isZero();
+        assertThat(cartItemRepository.countByUserId(buyer.getId())).isZero();
+    }
+
+    @Test
+    void placedOrderPublishesOneStockEventAndNoProductChange() {
+        Product laptop = product("Laptop", 5);
+        Product mouse = product("Mouse", 3);
+        User buyer = user("buyer");
+        addToCart(buyer, mouse, 1);
+        addToCart(buyer, laptop, 1);
+
+        orderService.placeOrder(buyer.getId(), address());
+
+        // Only stock changed: the search and suggest indexes have nothing to redo
+        assertThat(events.stream(ProductChangedEvent.class)).isEmpty();
+        assertThat(events.stream(StockReservedEvent.class)).singleElement()
+            .satisfies(event -> assertThat(event.products()).extracting(Product::getId)
+                .containsExactly(laptop.getId(), mouse.getId()));
+    }
+
+    private Product product(String name, int stock) {
+        return productRepository.save(Product.builder()
+            .name(name)
+            .price(BigDecimal.valueOf(100))
+            .category("laptop")
+            .brand("Dell")
+            .stock(stock)
+            .addedBy(owner)
+            .build());
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder()
+            .firstName(name)
+            .lastName("Test")
+            .email(name + "@mail.test")
+            .build());
+    }
+
+    private void addToCart(User user, Product product, int quantity) {
+        cartItemRepository.save(CartItem.builder()
+            .user(user)
+            .product(product)
+            .quantity(quantity)
+            .unitPrice(product.getPrice())
+            .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+            .build());
+    }
+
+    private static PlaceOrderRequest address() {
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setDeliveryAddress("1 Test Street");
+        return request;
+    }
+}
@@ -0,0 +1,205 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.Config.CacheConfig;
+import com.laptopMarket.BillionWebsite.Config.ListingKeyIndex;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig({CacheConfig.class, ProductCatalogCache.class, UserProductService.class})
+class ProductCatalogCacheTest {
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private CloudinaryService cloudinaryService;
+
+    @MockitoBean
+    private ProductSearchIndex searchIndex;
+
+    @MockitoBean
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private UserProductService userProductService;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ListingKeyIndex listingKeys;
+
+    private final Product laptop = product(1L, "laptop", "Dell");
+    private final Product mouse  = product(2L, "mouse", "Logitech");
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(laptop));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(mouse));
+        when(productRepository.findByCategory(anyString(), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+            .thenAnswer(call -> window(call.getArgument(0).equals("mouse") ? mouse : laptop));
+        when(productRepository.findAllCategories()).thenReturn(List.of("laptop", "mouse"));
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        userProductService.getProductById(1L);
+        userProductService.getProductById(1L);
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("LAPTOP", null, 20, "NEWEST");   // same normalised key
+        userProductService.getAllCategories();
+        userProductService.getAllCategories();
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1))
+            .findByCategory(anyString(), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+        verify(productRepository, times(1)).findAllCategories();
+    }
+
+    @Test
+    void writeEvictsOnlyTheChangedProductAndItsListings() {
+        userProductService.getProductById(1L);
+        userProductService.getProductById(2L);
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+        clearInvocations(productRepository);
+
+        catalogCache.onProductChanged(ProductChangedEvent.updated(laptop));
+
+        userProductService.getProductById(1L);
+        userProductService.getProductById(2L);
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(0)).findById(2L);
+        verify(productRepository, times(1))
+            .findByCategory(eq("laptop"), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+        verify(productRepository, times(0))
+            .findByCategory(eq("mouse"), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+        verify(productRepository, times(0)).findAllCategories();
+    }
+
+    @Test
+    void stockReservationEvictsTheOrderedProductsAndTheirListingsButNotDropdowns() {
+        userProductService.getProductById(1L);
+        userProductService.getProductById(2L);
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+        clearInvocations(productRepository);
+
+        catalogCache.onStockReserved(new StockReservedEvent(List.of(laptop, mouse)));
+
+        userProductService.getProductById(1L);
+        userProductService.getProductById(2L);
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findById(2L);
+        verify(productRepository, times(2))
+            .findByCategory(anyString(), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+        verify(productRepository, times(0)).findAllCategories();
+    }
+
+    @Test
+    void movingProductEvictsOldAndNewCategoryAndDropdowns() {
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+        clearInvocations(productRepository);
+
+        catalogCache.onProductChanged(ProductChangedEvent.updated(product(1L, "mouse", "Dell"), "laptop", "Dell"));
+
+        userProductService.getByCategory("laptop", null, 20, "newest");
+        userProductService.getByCategory("mouse", null, 20, "newest");
+        userProductService.getAllCategories();
+
+        verify(productRepository, times(2))
+            .findByCategory(anyString(), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+        verify(productRepository, times(1)).findAllCategories();
+    }
+
+    @Test
+    void pagesTheCacheDropsOnSizeAlsoLeaveTheIndex() {
+        CaffeineCache listings = (CaffeineCache) cacheManager.getCache(CacheConfig.CATEGORY_LISTINGS);
+        for (int page = 0; page < 2_500; page++) {
+            listings.put(ProductCatalogCache.listingKey("tablet", "newest", 20, "cursor-" + page), window(laptop));
+        }
+        listings.getNativeCache().cleanUp();
+
+        assertThat(listings.getNativeCache().estimatedSize()).isEqualTo(2_000);   // catalog.cache.max-listing-pages
+        assertThat(listingKeys.remove(CacheConfig.CATEGORY_LISTINGS, "tablet"))
+            .containsExactlyInAnyOrderElementsOf(listings.getNativeCache().asMap().keySet().stream()
+                .map(ListingKeyIndex.Key.class::cast).toList());
+    }
+
+    @Test
+    void listingThatFailsToLoadIsNeitherCachedNorIndexed() {
+        assertThatThrownBy(() -> userProductService.getByCategory("laptop", "not-a-cursor", 20, "newest"))
+            .hasMessage("Invalid cursor: not-a-cursor");
+
+        assertThat(listingKeys.remove(CacheConfig.CATEGORY_LISTINGS, "laptop")).isEmpty();
+    }
+
+    @Test
+    void pageSizesPastTheMaximumShareOneCachedPage() {
+        userProductService.getByCategory("laptop", null, 100, "newest");
+        userProductService.getByCategory("laptop", null, 5_000, "newest");
+        userProductService.getByCategory("laptop", null, Integer.MAX_VALUE, "newest");
+
+        verify(productRepository, times(1))
+            .findByCategory(anyString(), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+    }
+
+    private static Product product(Long id, String category, String brand) {
+        return Product.builder()
+            .id(id)
+            .name(brand + " " + category)
+            .price(BigDecimal.TEN)
+            .category(category)
+            .brand(brand)
+            .stock(5)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    private static Window<Product> window(Product product) {
+        return Window.from(List.of(product), index -> ScrollPosition.offset(index));
+    }
+}
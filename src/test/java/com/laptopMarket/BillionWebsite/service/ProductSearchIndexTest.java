@@ -0,0 +1,102 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository.IndexRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findIndexRows()).thenReturn(Stream.of(
+            product(1L, "MacBook Pro 14", "Apple", "laptop", "M3 chip, great for gaming on the go", 2000),
+            product(2L, "Gaming Laptop Nitro", "Acer", "laptop", "RTX 4060", 1200),
+            product(3L, "Wireless Mouse", "Logitech", "mouse", "Pairs with any gaming laptop", 40),
+            product(4L, "Café Keyboard", "Keychron", "keyboard", "Compact mechanical keyboard", 90)
+        ).map(IndexRow::of).toList());
+        index.rebuild();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        assertThat(search("gaming", "relevance")).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void everyTermMustMatchAndPrefixesCount() {
+        assertThat(search("mac pro", "relevance")).containsExactly(1L);
+        assertThat(search("gam lap", "relevance")).startsWith(2L).hasSize(3);   // name > category > description
+        assertThat(search("gaming keyboard", "relevance")).isEmpty();
+        assertThat(search("cafe", "relevance")).containsExactly(4L);   // accents are folded
+        assertThat(search("  ", "relevance")).isEmpty();
+    }
+
+    @Test
+    void alternativeSortOrders() {
+        assertThat(search("gaming", "price_asc")).containsExactly(3L, 2L, 1L);
+        assertThat(search("gaming", "price_desc")).containsExactly(1L, 2L, 3L);
+        assertThat(search("gaming", "newest")).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void cursorWalksAllHitsOnce() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductSearchIndex.Result page = index.search("gaming", "relevance", cursor, 1);
+            seen.addAll(page.productIds());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(2L, 3L, 1L);
+        assertThatThrownBy(() -> index.search("gaming", "newest",
+                index.search("gaming", "relevance", null, 1).nextCursor(), 1))
+            .hasMessageStartingWith("Invalid cursor");
+    }
+
+    @Test
+    void writesAreAppliedWithoutRebuild() {
+        Product renamed = product(2L, "Nitro 5", "Acer", "laptop", "RTX 4060", 1200);
+        index.onProductChanged(ProductChangedEvent.updated(renamed));
+        index.onProductChanged(ProductChangedEvent.removed(product(3L, "Wireless Mouse", "Logitech", "mouse", "", 40)));
+        index.onProductChanged(ProductChangedEvent.created(product(5L, "Gaming Chair", "Secretlab", "chair", "", 400)));
+
+        assertThat(search("gaming", "relevance")).containsExactly(5L, 1L);
+        assertThat(search("nitro", "relevance")).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    private List<Long> search(String query, String sort) {
+        return index.search(query, sort, null, 20).productIds();
+    }
+
+    private static Product product(Long id, String name, String brand, String category,
+                                   String description, int price) {
+        return Product.builder()
+            .id(id)
+            .name(name)
+            .brand(brand)
+            .category(category)
+            .description(description)
+            .price(BigDecimal.valueOf(price))
+            .stock(1)
+            .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(id))
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.SuggestionResponse;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository.IndexRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSuggestIndex index = new ProductSuggestIndex(productRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findIndexRows()).thenReturn(Stream.of(
+            product(1L, "MacBook Pro 14", "Apple", "laptop"),
+            product(2L, "MacBook Air", "Apple", "laptop"),
+            product(3L, "ThinkPad X1", "Lenovo", "laptop"),
+            product(4L, "Legion Pro Mouse", "Lenovo", "mouse")
+        ).map(IndexRow::of).toList());
+        index.rebuild();
+    }
+
+    @Test
+    void prefixMatchesAnyWordRankedByPopularity() {
+        assertThat(texts("lap")).containsExactly("laptop");
+        assertThat(texts("mac")).containsExactly("MacBook Air", "MacBook Pro 14");
+        assertThat(texts("pro")).containsExactly("Legion Pro Mouse", "MacBook Pro 14");
+        assertThat(texts("le")).containsExactly("Lenovo", "Legion Pro Mouse");   // brand of 2 beats name of 1
+        assertThat(index.suggest("ap", 10, false))
+            .extracting(SuggestionResponse::getType).containsExactly("brand");
+    }
+
+    @Test
+    void oneTypoIsToleratedWhenFuzzy() {
+        assertThat(texts("lenvo")).isEmpty();
+        assertThat(index.suggest("lenvo", 10, true))
+            .extracting(SuggestionResponse::getText).containsExactly("Lenovo");
+        assertThat(index.suggest("thinkqz", 10, true)).isEmpty();    // two typos
+        assertThat(index.suggest("xy", 10, true)).isEmpty();         // too short for fuzzy
+    }
+
+    @Test
+    void writesUpdateTheTrieIncrementally() {
+        index.onProductChanged(ProductChangedEvent.removed(product(3L, "ThinkPad X1", "Lenovo", "laptop")));
+        index.onProductChanged(ProductChangedEvent.updated(product(4L, "Legion Gaming Mouse", "Lenovo", "mouse")));
+        index.onProductChanged(ProductChangedEvent.created(product(5L, "ThinkBook 16", "Lenovo", "laptop")));
+
+        assertThat(texts("think")).containsExactly("ThinkBook 16");
+        assertThat(texts("pro")).containsExactly("MacBook Pro 14");
+        assertThat(texts("legion")).containsExactly("Legion Gaming Mouse");
+    }
+
+    @Test
+    void limitIsRespected() {
+        assertThat(index.suggest("l", 1, false)).hasSize(1);
+        assertThat(index.suggest("l", 500, false)).hasSizeLessThanOrEqualTo(ProductSuggestIndex.MAX_SUGGESTIONS);
+        assertThat(index.suggest("  ", 10, true)).isEmpty();
+    }
+
+    private List<String> texts(String prefix) {
+        return index.suggest(prefix, 10, false).stream().map(SuggestionResponse::getText).toList();
+    }
+
+    private static Product product(Long id, String name, String brand, String category) {
+        return Product.builder()
+            .id(id)
+            .name(name)
+            .brand(brand)
+            .category(category)
+            .price(BigDecimal.ONE)
+            .stock(1)
+            .build();
+    }
+}
@@ -0,0 +1,235 @@
+package com.laptopMarket.BillionWebsite.service;
+
+import com.laptopMarket.BillionWebsite.dto.CursorPage;
+import com.laptopMarket.BillionWebsite.dto.FilteredProductsResponse;
+import com.laptopMarket.BillionWebsite.dto.ProductFacets;
+import com.laptopMarket.BillionWebsite.dto.ProductFilter;
+import com.laptopMarket.BillionWebsite.dto.ProductResponse;
+import com.laptopMarket.BillionWebsite.entity.ImageVariant;
+import com.laptopMarket.BillionWebsite.entity.Product;
+import com.laptopMarket.BillionWebsite.entity.ProductImage;
+import com.laptopMarket.BillionWebsite.entity.ProductImageVariant;
+import com.laptopMarket.BillionWebsite.entity.ShopOwner;
+import com.laptopMarket.BillionWebsite.entity.repo.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:product-service;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+// Pooled H2 instead of the embedded replacement: H2 binds CHECK (x IN (...)) constraints to
+// the session that created them, so the Flyway connection has to stay open
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserProductServiceTest {
+
+    private static final int PRODUCT_COUNT = 45;
+    private static final int IMAGES_PER_PRODUCT = 3;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserProductService userProductService;
+
+    @BeforeEach
+    void setUp() {
+        userProductService = new UserProductService(productRepository, mock(CloudinaryService.class), mock(ProductSearchIndex.class), mock(ProductSuggestIndex.class));
+
+        ShopOwner owner = ShopOwner.builder().name("Owner").email("owner@shop.test").build();
+        entityManager.persist(owner);
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = Product.builder()
+                .name("Laptop " + i)
+                .price(BigDecimal.valueOf(100 + (i % 7) * 50))   // lots of duplicate prices
+                .category(i % 2 == 0 ? "laptop" : "mouse")
+                .brand("Dell")
+                .stock(i % 3)
+                .addedBy(owner)
+                .build();
+            entityManager.persist(product);
+
+            for (int order = 0; order < IMAGES_PER_PRODUCT; order++) {
+                ProductImage image = ProductImage.builder()
+                    .imageUrl("https://img.test/" + i + "/" + order)
+                    .imagePublicId("laptopstore/products/" + i + "-" + order)
+                    .displayOrder(order)
+                    .product(product)
+                    .build();
+                for (ImageVariant size : ImageVariant.values()) {
+                    for (String format : List.of("webp", "jpg")) {
+                        image.getVariants().add(ProductImageVariant.builder()
+                            .productImage(image)
+                            .variant(size)
+                            .format(format)
+                            .width(Math.min(size.getWidth(), 600))   // a 600px original: CARD and DETAIL alike
+                            .height(450)
+                            .bytes(1000)
+                            .url("https://img.test/" + i + "/" + order + "/" + size + "." + format)
+                            .build());
+                    }
+                }
+                entityManager.persist(image);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void cursorWalksEveryProductExactlyOnceInSortOrder() {
+        for (String sort : List.of("newest", "price_asc", "price_desc")) {
+            List<ProductResponse> seen = walk(sort, 10);
+
+            assertThat(seen).hasSize(PRODUCT_COUNT);
+            assertThat(seen).extracting(ProductResponse::getId).doesNotHaveDuplicates();
+
+            Comparator<ProductResponse> byPriceThenId = Comparator
+                .comparing(ProductResponse::getPrice).thenComparing(ProductResponse::getId);
+            if (sort.equals("price_asc"))  assertThat(seen).isSortedAccordingTo(byPriceThenId);
+            if (sort.equals("price_desc")) assertThat(seen).isSortedAccordingTo(byPriceThenId.reversed());
+        }
+    }
+
+    @Test
+    void filteredListingIsPaginatedToo() {
+        CursorPage<ProductResponse> first = userProductService.getByCategory("LAPTOP", null, 5, "price_asc");
+        assertThat(first.getItems()).hasSize(5).allMatch(p -> p.getCategory().equals("laptop"));
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPage<ProductResponse> second = userProductService.getByCategory("laptop", first.getNextCursor(), 100, "price_asc");
+        assertThat(second.getItems()).hasSize(23 - 5);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listingQueryCountDoesNotGrowWithPageSize() {
+        // products + owner (one joined SELECT), one batched SELECT for images and one for their variants
+        for (int size : List.of(1, 10, PRODUCT_COUNT)) {
+            Statistics stats = statistics();
+            stats.clear();
+
+            CursorPage<ProductResponse> page = userProductService.getAllProducts(null, size, "newest");
+            assertThat(page.getItems()).allSatisfy(p -> {
+                assertThat(p.getImageUrls()).hasSize(IMAGES_PER_PRODUCT);
+                assertThat(p.getImageSrcsets()).hasSize(IMAGES_PER_PRODUCT);
+                assertThat(p.getAddedByAdmin()).isEqualTo("Owner");
+            });
+
+            assertThat(stats.getPrepareStatementCount())
+                .as("statements for a page of %d products", size)
+                .isLessThanOrEqualTo(3);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void srcsetListsEachVariantWidthOncePerFormat() {
+        Product first = productRepository.findAll().getFirst();
+        String base = first.getImages().getFirst().getImageUrl();   // variant URLs extend it
+        entityManager.clear();
+
+        ProductResponse product = userProductService.getProductById(first.getId());
+
+        assertThat(product.getImageSrcset()).containsExactly(
+            entry("jpg", base + "/THUMBNAIL.jpg 240w, " + base + "/CARD.jpg 600w"),
+            entry("webp", base + "/THUMBNAIL.webp 240w, " + base + "/CARD.webp 600w"));
+        assertThat(product.getImageSrcsets()).first().isEqualTo(product.getImageSrcset());
+    }
+
+    @Test
+    void filterCombinesCriteriaAndCountsFacetsInOneAggregate() {
+        ShopOwner owner = entityManager.createQuery("SELECT o FROM ShopOwner o", ShopOwner.class).getSingleResult();
+        persistProduct(owner, "HP Envy", "laptop", "HP", 750, 1);
+        persistProduct(owner, "HP Spectre", "laptop", "HP", 1500, 4);
+        persistProduct(owner, "HP Omen", "laptop", "HP", 2500, 2);
+        persistProduct(owner, "HP Mouse", "mouse", "HP", 600, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        ProductFilter filter = ProductFilter.builder().category("Laptop").brand("hp").inStock(true).build();
+        Statistics stats = statistics();
+        stats.clear();
+
+        FilteredProductsResponse first = userProductService.filter(filter, null, 2, "price_asc");
+
+        // page, batched images, facet aggregate
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(first.getProducts().getItems()).extracting(ProductResponse::getName)
+            .containsExactly("HP Envy", "HP Spectre");
+        assertThat(userProductService.filter(filter, first.getProducts().getNextCursor(), 2, "price_asc")
+            .getProducts().getItems()).extracting(ProductResponse::getName).containsExactly("HP Omen");
+
+        ProductFacets facets = first.getFacets();
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getCategories()).containsExactly(entry("laptop", 3L));          // HP mouse is out of stock
+        assertThat(facets.getBrands()).containsExactly(entry("Dell", 15L), entry("HP", 3L));
+        assertThat(facets.getPriceRanges()).containsExactly(
+            entry("0-500", 0L), entry("500-1000", 1L), entry("1000-2000", 1L), entry("2000+", 1L));
+
+        // keyword + price range, nothing else
+        FilteredProductsResponse cheap = userProductService.filter(
+            ProductFilter.builder().q("laptop 4").maxPrice(BigDecimal.valueOf(200)).build(), null, 20, "newest");
+        assertThat(cheap.getProducts().getItems()).extracting(ProductResponse::getName)
+            .containsExactly("Laptop 44", "Laptop 43", "Laptop 42");
+        assertThat(cheap.getFacets().getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void cursorIsBoundToItsSortOrder() {
+        String cursor = userProductService.getAllProducts(null, 5, "newest").getNextCursor();
+
+        assertThatThrownBy(() -> userProductService.getAllProducts(cursor, 5, "price_asc"))
+            .hasMessageStartingWith("Invalid cursor");
+    }
+
+    private void persistProduct(ShopOwner owner, String name, String category, String brand, int price, int stock) {
+        entityManager.persist(Product.builder()
+            .name(name)
+            .price(BigDecimal.valueOf(price))
+            .category(category)
+            .brand(brand)
+            .stock(stock)
+            .addedBy(owner)
+            .build());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private List<ProductResponse> walk(String sort, int size) {
+        List<ProductResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProductResponse> page = userProductService.getAllProducts(cursor, size, sort);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(size);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+}